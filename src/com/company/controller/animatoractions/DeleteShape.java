@@ -3,7 +3,8 @@ package com.company.controller.animatoractions;
 import com.company.model.AnimatorModel;
 
 /**
- * Action that deletes a given shape from the animation entirely. Cannot be undone!
+ * Action that deletes a given shape from the animation entirely. Cannot be undone, unless it is run
+ * through an {@link UndoJournal}.
  */
 public class DeleteShape implements AnimatorAction {
   final String shapeName;
@@ -0,0 +1,29 @@
+package com.company.controller.animatoractions;
+
+import com.company.model.AnimatorModel;
+
+/**
+ * An action that acts on the journal of the actions run on a model, rather than on the model
+ * itself, so it can only be run by an {@link UndoJournal}.
+ */
+public interface JournalAction extends AnimatorAction {
+
+  /**
+   * Runs the action on the given journal.
+   *
+   * @param journal the journal for the action to be run on
+   * @throws IllegalStateException if the command was unable to execute
+   */
+  void actOn(UndoJournal journal) throws IllegalStateException;
+
+  /**
+   * Refuses to run, since the action needs a journal.
+   *
+   * @param model the model for an action to be run on
+   * @throws IllegalStateException always
+   */
+  @Override
+  default void actOn(AnimatorModel model) throws IllegalStateException {
+    throw new IllegalStateException("This action can only be run on an undo journal");
+  }
+}
@@ -0,0 +1,12 @@
+package com.company.controller.animatoractions;
+
+/**
+ * Action that redoes the most recently undone action. Does nothing if no action has been undone
+ * since the last action was run.
+ */
+public class Redo implements JournalAction {
+  @Override
+  public void actOn(UndoJournal journal) throws IllegalStateException {
+    journal.redo();
+  }
+}
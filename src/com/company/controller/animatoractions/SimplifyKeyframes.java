@@ -0,0 +1,30 @@
+package com.company.controller.animatoractions;
+
+import com.company.model.AnimatorModel;
+import com.company.model.KeyframeSimplifier;
+
+/**
+ * Action that removes the keyframes of every shape that are within the simplifier's tolerances of
+ * where the other keyframes would put the shape.
+ */
+public class SimplifyKeyframes implements AnimatorAction {
+  private final KeyframeSimplifier simplifier;
+
+  /**
+   * Creates an action to simplify the model with the given simplifier.
+   *
+   * @param simplifier the simplifier with the tolerances to use
+   */
+  public SimplifyKeyframes(KeyframeSimplifier simplifier) {
+    this.simplifier = simplifier;
+  }
+
+  @Override
+  public void actOn(AnimatorModel model) throws IllegalStateException {
+    try {
+      simplifier.simplify(model);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Simplifying keyframes failed: " + e.getMessage());
+    }
+  }
+}
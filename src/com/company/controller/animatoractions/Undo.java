@@ -0,0 +1,12 @@
+package com.company.controller.animatoractions;
+
+/**
+ * Action that undoes the most recent action run on the model that hasn't been undone yet. Does
+ * nothing if there is no such action.
+ */
+public class Undo implements JournalAction {
+  @Override
+  public void actOn(UndoJournal journal) throws IllegalStateException {
+    journal.undo();
+  }
+}
@@ -0,0 +1,868 @@
+package com.company.controller.animatoractions;
+
+import com.company.model.AnimatorModel;
+import com.company.model.Frame;
+import com.company.model.FrameImpl;
+import com.company.model.ModelChangeEvent;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+
+/**
+ * Action handler that runs actions on a model and keeps a journal of them, so that they can be
+ * undone and redone. Rather than copying the model, the journal records the inverse of every change
+ * an action makes to the model: the keyframe it replaced, the shape it deleted, and so on. Undoing
+ * an action replays its inverse changes, so it costs as much as the action did, and records the
+ * inverse of those in turn for redoing it.
+ *
+ * <p>The journal holds on to at most about the given number of bytes. Once it holds more, the
+ * oldest actions are forgotten first, and can no longer be undone.</p>
+ *
+ * <p>Undo and redo are themselves actions, {@link Undo} and {@link Redo}, so that views can ask for
+ * them through the same callback as any other action.</p>
+ */
+public class UndoJournal implements Consumer<AnimatorAction> {
+  /**
+   * The number of bytes a journal holds on to if it isn't given another limit.
+   */
+  public static final long DEFAULT_MEMORY_CAP = 16L << 20;
+
+  // Rough sizes, in bytes, of what the journal holds on to, for keeping within the memory cap.
+  private static final int ENTRY_SIZE = 48;
+  private static final int CHANGE_SIZE = 32;
+  private static final int SHAPE_SIZE = 96;
+  // The layer that keyframes are created in when no layer is given.
+  private static final String DEFAULT_LAYER_NAME = "default";
+
+  private final AnimatorModel model;
+  private final long memoryCap;
+  // The entries that can be undone and redone, with the most recent last.
+  private final Deque<Entry> undoEntries;
+  private final Deque<Entry> redoEntries;
+  private long memoryUsed;
+
+  /**
+   * Creates a journal for the given model that holds on to at most about the given number of
+   * bytes.
+   *
+   * @param model     the model that actions will act on
+   * @param memoryCap the number of bytes the journal may hold on to
+   * @throws IllegalArgumentException if the model is null or the memory cap is negative
+   */
+  public UndoJournal(AnimatorModel model, long memoryCap) {
+    if (model == null) {
+      throw new IllegalArgumentException("Null model not allowed");
+    } else if (memoryCap < 0) {
+      throw new IllegalArgumentException("Memory cap cannot be negative");
+    }
+    this.model = model;
+    this.memoryCap = memoryCap;
+    this.undoEntries = new ArrayDeque<>();
+    this.redoEntries = new ArrayDeque<>();
+    this.memoryUsed = 0;
+  }
+
+  /**
+   * Creates a journal for the given model that holds on to at most about
+   * {@link #DEFAULT_MEMORY_CAP} bytes.
+   *
+   * @param model the model that actions will act on
+   * @throws IllegalArgumentException if the model is null
+   */
+  public UndoJournal(AnimatorModel model) {
+    this(model, DEFAULT_MEMORY_CAP);
+  }
+
+  /**
+   * Runs the given action on the model and records how to undo it, forgetting every action that
+   * was undone before it. If the action fails part way through, what it changed before failing
+   * can still be undone.
+   *
+   * @param animatorAction the action to run
+   * @throws IllegalStateException if the action was unable to run
+   */
+  @Override
+  public void accept(AnimatorAction animatorAction) {
+    if (animatorAction instanceof JournalAction) {
+      ((JournalAction) animatorAction).actOn(this);
+      return;
+    }
+
+    RecordingModel recorder = new RecordingModel();
+    try {
+      animatorAction.actOn(recorder);
+    } finally {
+      if (!recorder.changes.isEmpty()) {
+        while (!redoEntries.isEmpty()) {
+          memoryUsed -= redoEntries.removeLast().size;
+        }
+        this.push(undoEntries, new Entry(recorder.changes));
+      }
+    }
+  }
+
+  /**
+   * Undoes the most recent action that hasn't been undone yet.
+   *
+   * @return whether there was an action to undo
+   */
+  public boolean undo() {
+    return this.replay(undoEntries, redoEntries);
+  }
+
+  /**
+   * Redoes the most recently undone action.
+   *
+   * @return whether there was an action to redo
+   */
+  public boolean redo() {
+    return this.replay(redoEntries, undoEntries);
+  }
+
+  /**
+   * Gets whether there is an action that can be undone.
+   *
+   * @return whether {@link #undo()} would do anything
+   */
+  public boolean canUndo() {
+    return !undoEntries.isEmpty();
+  }
+
+  /**
+   * Gets whether there is an undone action that can be redone.
+   *
+   * @return whether {@link #redo()} would do anything
+   */
+  public boolean canRedo() {
+    return !redoEntries.isEmpty();
+  }
+
+  /**
+   * Gets about how many bytes the journal is holding on to.
+   *
+   * @return the estimated size of the journal in bytes
+   */
+  public long getMemoryUsed() {
+    return memoryUsed;
+  }
+
+  /**
+   * Makes the changes of the most recent entry of one list in reverse, and adds the changes that
+   * would reverse them to the other list.
+   */
+  private boolean replay(Deque<Entry> from, Deque<Entry> to) {
+    if (from.isEmpty()) {
+      return false;
+    }
+    Entry entry = from.removeLast();
+    memoryUsed -= entry.size;
+
+    List<Change> inverses = new ArrayList<>(entry.changes.length);
+    try {
+      for (int i = entry.changes.length - 1; i >= 0; i--) {
+        Change inverse = entry.changes[i].applyTo(model);
+        if (inverse != null) {
+          inverses.add(inverse);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("The model no longer matches the journal: "
+          + e.getMessage());
+    } finally {
+      if (!inverses.isEmpty()) {
+        this.push(to, new Entry(inverses));
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the given entry to the given list, then forgets the oldest entries until the journal is
+   * within its memory cap again.
+   */
+  private void push(Deque<Entry> entries, Entry entry) {
+    entries.addLast(entry);
+    memoryUsed += entry.size;
+    while (memoryUsed > memoryCap && !undoEntries.isEmpty()) {
+      memoryUsed -= undoEntries.removeFirst().size;
+    }
+    while (memoryUsed > memoryCap && !redoEntries.isEmpty()) {
+      memoryUsed -= redoEntries.removeFirst().size;
+    }
+  }
+
+  /**
+   * Finds the keyframe of the given shape at the given tick.
+   *
+   * @return the keyframe, or null if the shape has no keyframe at that tick
+   */
+  private static Frame keyframeAt(SortedSet<Frame> frames, int tick) {
+    SortedSet<Frame> after = frames.tailSet(new FrameImpl(tick, null));
+    if (after.isEmpty() || after.first().getTime() != tick) {
+      return null;
+    }
+    return after.first();
+  }
+
+  /**
+   * Finds the layers that the given shape is in, in drawing order.
+   */
+  private static List<String> layersOf(ReadOnlyAnimatorModel model, String shapeName) {
+    List<String> found = new ArrayList<>();
+    for (String layerName : model.getLayers()) {
+      if (model.isShapeInLayer(shapeName, layerName)) {
+        found.add(layerName);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Makes the change that would put back the given shape as it is now.
+   */
+  private static RestoreShape restoreOf(ReadOnlyAnimatorModel model, String shapeName) {
+    SortedSet<Frame> frames = model.getKeyframes().get(shapeName);
+    if (frames == null) {
+      throw new IllegalArgumentException("Cannot remove nonexistent shape " + shapeName);
+    }
+    int[] ticks = new int[frames.size()];
+    Shape[] shapes = new Shape[frames.size()];
+    int index = 0;
+    for (Frame frame : frames) {
+      ticks[index] = (int) frame.getTime();
+      shapes[index] = frame.getShape().copy();
+      index += 1;
+    }
+    return new RestoreShape(shapeName, layersOf(model, shapeName), ticks, shapes);
+  }
+
+  /**
+   * The changes recorded for one action, with their estimated size.
+   */
+  private static final class Entry {
+    private final Change[] changes;
+    private final long size;
+
+    Entry(List<Change> changes) {
+      this.changes = changes.toArray(new Change[0]);
+      long size = ENTRY_SIZE;
+      for (Change change : this.changes) {
+        size += change.size();
+      }
+      this.size = size;
+    }
+  }
+
+  /**
+   * A single change to a model, which knows how to reverse itself.
+   */
+  private interface Change {
+    /**
+     * Makes this change to the given model.
+     *
+     * @param model the model to change
+     * @return the change that would reverse it, or null if it didn't change anything
+     * @throws IllegalArgumentException if the change can't be made to the model
+     */
+    Change applyTo(AnimatorModel model) throws IllegalArgumentException;
+
+    /**
+     * Estimates the number of bytes this change holds on to.
+     *
+     * @return the size of the change in bytes
+     */
+    long size();
+  }
+
+  /**
+   * Adds or replaces a keyframe of a shape, adding the shape to the given layer if it isn't in it.
+   */
+  private static final class PutKeyframe implements Change {
+    private final String shapeName;
+    private final int tick;
+    private final Shape shape;
+    private final String layerName;
+
+    PutKeyframe(String shapeName, int tick, Shape shape, String layerName) {
+      this.shapeName = shapeName;
+      this.tick = tick;
+      this.shape = shape;
+      this.layerName = layerName;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      SortedSet<Frame> frames = model.getKeyframes().get(shapeName);
+      Change inverse;
+      if (frames == null) {
+        inverse = new RemoveShape(shapeName);
+      } else if (!model.isShapeInLayer(shapeName, layerName)) {
+        // the model can't take a shape back out of a single layer, so put back the whole shape
+        inverse = restoreOf(model, shapeName);
+      } else {
+        Frame old = keyframeAt(frames, tick);
+        if (old == null) {
+          inverse = new RemoveKeyframe(shapeName, tick);
+        } else if (old.getShape().equals(shape)) {
+          // the same keyframe again, there is nothing to undo
+          inverse = null;
+        } else {
+          inverse = new PutKeyframe(shapeName, tick, old.getShape().copy(), layerName);
+        }
+      }
+      model.createKeyframe(shapeName, shape.copy(), tick, layerName);
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE + SHAPE_SIZE;
+    }
+  }
+
+  /**
+   * Removes one keyframe of a shape, which deletes the shape if it was its only keyframe.
+   */
+  private static final class RemoveKeyframe implements Change {
+    private final String shapeName;
+    private final int tick;
+
+    RemoveKeyframe(String shapeName, int tick) {
+      this.shapeName = shapeName;
+      this.tick = tick;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      SortedSet<Frame> frames = model.getKeyframes().get(shapeName);
+      Frame old = frames == null ? null : keyframeAt(frames, tick);
+      if (old == null) {
+        throw new IllegalArgumentException(
+            "A keyframe did not exist for the given shape at the given tick.");
+      }
+      Change inverse;
+      if (frames.size() == 1) {
+        inverse = restoreOf(model, shapeName);
+      } else {
+        inverse = new PutKeyframe(shapeName, tick, old.getShape().copy(),
+            layersOf(model, shapeName).get(0));
+      }
+      model.removeKeyframe(shapeName, tick);
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE;
+    }
+  }
+
+  /**
+   * Removes many keyframes of a shape at once, which deletes the shape if they were all of its
+   * keyframes.
+   */
+  private static final class RemoveKeyframes implements Change {
+    private final String shapeName;
+    private final int[] ticks;
+
+    RemoveKeyframes(String shapeName, int[] ticks) {
+      this.shapeName = shapeName;
+      this.ticks = ticks;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      SortedSet<Frame> frames = model.getKeyframes().get(shapeName);
+      Set<Integer> seen = new HashSet<>();
+      Shape[] shapes = new Shape[ticks.length];
+      for (int i = 0; i < ticks.length; i++) {
+        Frame old = frames == null ? null : keyframeAt(frames, ticks[i]);
+        // a tick given twice would not have a keyframe the second time
+        if (old == null || !seen.add(ticks[i])) {
+          throw new IllegalArgumentException(
+              "A keyframe did not exist for the given shape at the given tick.");
+        }
+        shapes[i] = old.getShape().copy();
+      }
+      if (ticks.length == 0) {
+        return null;
+      }
+      Change inverse;
+      if (frames.size() == ticks.length) {
+        inverse = restoreOf(model, shapeName);
+      } else {
+        inverse = new PutKeyframes(shapeName, ticks, shapes, layersOf(model, shapeName).get(0));
+      }
+      model.removeKeyframes(shapeName, ticks);
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE + ticks.length * 4L;
+    }
+  }
+
+  /**
+   * Puts back many removed keyframes of a shape that is still in the given layer.
+   */
+  private static final class PutKeyframes implements Change {
+    private final String shapeName;
+    private final int[] ticks;
+    private final Shape[] shapes;
+    private final String layerName;
+
+    PutKeyframes(String shapeName, int[] ticks, Shape[] shapes, String layerName) {
+      this.shapeName = shapeName;
+      this.ticks = ticks;
+      this.shapes = shapes;
+      this.layerName = layerName;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      SortedSet<Frame> frames = model.getKeyframes().get(shapeName);
+      Change inverse;
+      if (frames == null) {
+        inverse = new RemoveShape(shapeName);
+      } else {
+        // removing the keyframes again would lose any they replace, or leave the shape in the layer
+        boolean replaces = !model.isShapeInLayer(shapeName, layerName);
+        for (int i = 0; i < ticks.length && !replaces; i++) {
+          replaces = keyframeAt(frames, ticks[i]) != null;
+        }
+        inverse = replaces ? restoreOf(model, shapeName) : new RemoveKeyframes(shapeName, ticks);
+      }
+      for (int i = 0; i < ticks.length; i++) {
+        model.createKeyframe(shapeName, shapes[i].copy(), ticks[i], layerName);
+      }
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE + (long) shapes.length * (SHAPE_SIZE + 8);
+    }
+  }
+
+  /**
+   * Deletes a shape from the model entirely.
+   */
+  private static final class RemoveShape implements Change {
+    private final String shapeName;
+
+    RemoveShape(String shapeName) {
+      this.shapeName = shapeName;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      Change inverse = restoreOf(model, shapeName);
+      model.deleteShape(shapeName);
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE;
+    }
+  }
+
+  /**
+   * Puts back a deleted shape with all of its keyframes, in all of its layers. The model only adds
+   * shapes to the top of a layer, so that is where the shape goes back to.
+   */
+  private static final class RestoreShape implements Change {
+    private final String shapeName;
+    private final List<String> layerNames;
+    private final int[] ticks;
+    private final Shape[] shapes;
+
+    RestoreShape(String shapeName, List<String> layerNames, int[] ticks, Shape[] shapes) {
+      this.shapeName = shapeName;
+      this.layerNames = layerNames;
+      this.ticks = ticks;
+      this.shapes = shapes;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      Change inverse = model.getKeyframes().containsKey(shapeName)
+          ? restoreOf(model, shapeName) : new RemoveShape(shapeName);
+      if (inverse instanceof RestoreShape) {
+        model.deleteShape(shapeName);
+      }
+      for (int i = 0; i < ticks.length; i++) {
+        model.createKeyframe(shapeName, shapes[i].copy(), ticks[i], layerNames.get(0));
+      }
+      // a keyframe in another layer adds the shape to that layer as well
+      for (int i = 1; i < layerNames.size(); i++) {
+        model.createKeyframe(shapeName, shapes[0].copy(), ticks[0], layerNames.get(i));
+      }
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE + (long) shapes.length * (SHAPE_SIZE + 8) + layerNames.size() * 8L;
+    }
+  }
+
+  /**
+   * Moves the canvas and changes its size.
+   */
+  private static final class SetCanvas implements Change {
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    SetCanvas(int x, int y, int width, int height) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+
+    /**
+     * Makes the change that would put back the canvas of the given model as it is now.
+     */
+    static SetCanvas of(ReadOnlyAnimatorModel model) {
+      return new SetCanvas(model.getCanvasX(), model.getCanvasY(), model.getCanvasWidth(),
+          model.getCanvasHeight());
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      SetCanvas inverse = SetCanvas.of(model);
+      if (x != inverse.x) {
+        model.setCanvasX(x);
+      }
+      if (y != inverse.y) {
+        model.setCanvasY(y);
+      }
+      if (width != inverse.width) {
+        model.setCanvasWidth(width);
+      }
+      if (height != inverse.height) {
+        model.setCanvasHeight(height);
+      }
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE;
+    }
+  }
+
+  /**
+   * Adds an empty layer on top of the others.
+   */
+  private static final class AddLayer implements Change {
+    private final String layerName;
+
+    AddLayer(String layerName) {
+      this.layerName = layerName;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      boolean existed = model.getLayers().contains(layerName);
+      model.addLayer(layerName);
+      // adding the default layer again does nothing
+      return existed ? null : new RemoveLayer(layerName);
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE;
+    }
+  }
+
+  /**
+   * Deletes a layer and every shape in it.
+   */
+  private static final class RemoveLayer implements Change {
+    private final String layerName;
+
+    RemoveLayer(String layerName) {
+      this.layerName = layerName;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      List<String> layerNames = new ArrayList<>(model.getLayers());
+      List<String> shapeNames = model.getShapesInLayer(layerName);
+      List<RestoreShape> shapes = new ArrayList<>(shapeNames.size());
+      for (String shapeName : shapeNames) {
+        shapes.add(restoreOf(model, shapeName));
+      }
+      Change inverse = new RestoreLayer(layerName, layerNames.indexOf(layerName), shapes);
+      model.deleteLayer(layerName);
+      return inverse;
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE;
+    }
+  }
+
+  /**
+   * Puts back a deleted layer where it was, with the shapes that were in it.
+   */
+  private static final class RestoreLayer implements Change {
+    private final String layerName;
+    private final int index;
+    private final List<RestoreShape> shapes;
+
+    RestoreLayer(String layerName, int index, List<RestoreShape> shapes) {
+      this.layerName = layerName;
+      this.index = index;
+      this.shapes = shapes;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      model.addLayer(layerName);
+      // new layers go on top, so move it back down to where it was
+      for (int i = model.getLayers().size() - 1; i > index; i--) {
+        model.moveLayerUp(layerName);
+      }
+      for (RestoreShape shape : shapes) {
+        shape.applyTo(model);
+      }
+      return new RemoveLayer(layerName);
+    }
+
+    @Override
+    public long size() {
+      long size = CHANGE_SIZE;
+      for (RestoreShape shape : shapes) {
+        size += shape.size();
+      }
+      return size;
+    }
+  }
+
+  /**
+   * Moves a layer up or down one level.
+   */
+  private static final class MoveLayer implements Change {
+    private final String layerName;
+    private final boolean up;
+
+    MoveLayer(String layerName, boolean up) {
+      this.layerName = layerName;
+      this.up = up;
+    }
+
+    @Override
+    public Change applyTo(AnimatorModel model) {
+      List<String> before = new ArrayList<>(model.getLayers());
+      if (up) {
+        model.moveLayerUp(layerName);
+      } else {
+        model.moveLayerDown(layerName);
+      }
+      // moving the first layer up or the last layer down does nothing
+      return before.equals(new ArrayList<>(model.getLayers()))
+          ? null : new MoveLayer(layerName, !up);
+    }
+
+    @Override
+    public long size() {
+      return CHANGE_SIZE;
+    }
+  }
+
+  /**
+   * Model given to actions, which makes every change on the journal's model and records the change
+   * that would reverse it.
+   */
+  private class RecordingModel implements AnimatorModel {
+    private final List<Change> changes = new ArrayList<>();
+
+    private void record(Change change) {
+      Change inverse = change.applyTo(model);
+      if (inverse != null) {
+        changes.add(inverse);
+      }
+    }
+
+    @Override
+    public void createKeyframe(String shapeName, Shape shape, int tick) {
+      this.record(new PutKeyframe(shapeName, tick, shape, DEFAULT_LAYER_NAME));
+    }
+
+    @Override
+    public void createKeyframe(String shapeName, Shape shape, int tick, String layerName) {
+      this.record(new PutKeyframe(shapeName, tick, shape, layerName));
+    }
+
+    @Override
+    public void setCanvasWidth(int canvasWidth) {
+      this.record(new SetCanvas(model.getCanvasX(), model.getCanvasY(), canvasWidth,
+          model.getCanvasHeight()));
+    }
+
+    @Override
+    public void setCanvasHeight(int canvasHeight) {
+      this.record(new SetCanvas(model.getCanvasX(), model.getCanvasY(), model.getCanvasWidth(),
+          canvasHeight));
+    }
+
+    @Override
+    public void setCanvasX(int canvasX) {
+      this.record(new SetCanvas(canvasX, model.getCanvasY(), model.getCanvasWidth(),
+          model.getCanvasHeight()));
+    }
+
+    @Override
+    public void setCanvasY(int canvasY) {
+      this.record(new SetCanvas(model.getCanvasX(), canvasY, model.getCanvasWidth(),
+          model.getCanvasHeight()));
+    }
+
+    @Override
+    public void removeKeyframe(String shapeName, int tick) {
+      this.record(new RemoveKeyframe(shapeName, tick));
+    }
+
+    @Override
+    public void removeKeyframes(String shapeName, int[] ticks) {
+      this.record(new RemoveKeyframes(shapeName, ticks.clone()));
+    }
+
+    @Override
+    public void deleteShape(String shapeName) {
+      this.record(new RemoveShape(shapeName));
+    }
+
+    @Override
+    public void moveLayerUp(String layerName) {
+      this.record(new MoveLayer(layerName, true));
+    }
+
+    @Override
+    public void moveLayerDown(String layerName) {
+      this.record(new MoveLayer(layerName, false));
+    }
+
+    @Override
+    public void addLayer(String layerName) {
+      this.record(new AddLayer(layerName));
+    }
+
+    @Override
+    public void deleteLayer(String layerName) {
+      this.record(new RemoveLayer(layerName));
+    }
+
+    // Actions change the shapes they read before putting them back as keyframes, and a model can
+    // give out the shapes of its keyframes themselves, which would change a keyframe before its
+    // old state could be recorded. So actions are given copies.
+    @Override
+    public Map<String, Shape> shapesAt(int tick) {
+      Map<String, Shape> shapes = new LinkedHashMap<>();
+      for (Map.Entry<String, Shape> entry : model.shapesAt(tick).entrySet()) {
+        shapes.put(entry.getKey(), entry.getValue().copy());
+      }
+      return shapes;
+    }
+
+    @Override
+    public Shape shapeAt(String shapeName, int tick) {
+      Shape shape = model.shapeAt(shapeName, tick);
+      return shape == null ? null : shape.copy();
+    }
+
+    @Override
+    public int statesAt(int tick, List<ShapeState> states) {
+      return model.statesAt(tick, states);
+    }
+
+    @Override
+    public Map<String, SortedSet<Frame>> getKeyframes() {
+      return model.getKeyframes();
+    }
+
+    @Override
+    public long getVersion() {
+      return model.getVersion();
+    }
+
+    @Override
+    public ReadOnlyAnimatorModel snapshot() {
+      return model.snapshot();
+    }
+
+    @Override
+    public int getCanvasHeight() {
+      return model.getCanvasHeight();
+    }
+
+    @Override
+    public int getCanvasWidth() {
+      return model.getCanvasWidth();
+    }
+
+    @Override
+    public int getCanvasX() {
+      return model.getCanvasX();
+    }
+
+    @Override
+    public int getCanvasY() {
+      return model.getCanvasY();
+    }
+
+    @Override
+    public double lastTick() {
+      return model.lastTick();
+    }
+
+    @Override
+    public double firstTick() {
+      return model.firstTick();
+    }
+
+    @Override
+    public List<String> getShapesInLayer(String layerName) {
+      return model.getShapesInLayer(layerName);
+    }
+
+    @Override
+    public boolean isShapeInLayer(String shapeName, String layerName) {
+      return model.isShapeInLayer(shapeName, layerName);
+    }
+
+    @Override
+    public Collection<String> getLayers() {
+      return model.getLayers();
+    }
+
+    @Override
+    public void addChangeListener(Consumer<ModelChangeEvent> listener) {
+      model.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(Consumer<ModelChangeEvent> listener) {
+      model.removeChangeListener(listener);
+    }
+  }
+}
@@ -1,14 +1,23 @@
 package com.company.controller.console;
 
 import com.company.controller.animatoractions.AnimatorAction;
-import com.company.controller.animatoractions.AnimatorActionConsumerImpl;
+import com.company.controller.animatoractions.UndoJournal;
 import com.company.controller.viewactions.editoractions.EditorActionConsumerImpl;
 import com.company.controller.viewactions.playeractions.PlayerActionConsumerImpl;
 import com.company.model.AnimatorModel;
 import com.company.model.AnimatorModelImpl;
+import com.company.model.BakedAnimatorModel;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.ConcurrentAnimatorModel;
+import com.company.model.KeyframeSimplifier;
+import com.company.model.ReadOnlyAnimatorModel;
 import com.company.util.AnimationBuilder;
 import com.company.util.AnimationReader;
+import com.company.util.BinaryAnimationReader;
+import com.company.util.LazyAnimationBuilder;
 import com.company.view.VisualView;
+import com.company.view.binary.BinaryAnimatorView;
+import com.company.view.binary.BinaryView;
 import com.company.view.svg.SVGView;
 import com.company.view.svg.SVGViewImpl;
 import com.company.view.swing.SwingView;
@@ -19,10 +28,16 @@ import com.company.view.swing.player.PlayerViewImpl;
 import com.company.view.text.TextAnimatorView;
 import com.company.view.text.TextView;
 
-import java.io.Closeable;
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,24 +53,55 @@ import java.util.function.Function;
 public class ArgumentsProcessImpl implements ArgumentsProcessor {
   final Map<String, Function<String, Void>> knownArguments;
   private Integer fps;
-  private Appendable out;
-  private Readable in;
+  private int threads;
+  // Buffered, since the views write their output in many small pieces. The text views write
+  // through out, and the binary view writes the bytes under it.
+  private OutputStream outBytes;
+  private Writer out;
+  private Path in;
+  // How the input file is read: "mapped", "parallel", "stream" or "lazy".
+  private String readMode;
   private boolean closable;
+  private boolean compact;
+  // Whether the model can be read from other threads while it is being edited.
+  private boolean concurrent;
+  // Removes the keyframes the animation barely needs once it is read, if given.
+  private KeyframeSimplifier simplifier;
+  // How many bytes the views that play the animation may use to keep worked out ticks, or 0 to
+  // work out every tick as it is shown.
+  private long bakeMemory;
+  // How many bytes the editor may use to remember edits for undoing them.
+  private long undoMemory;
 
   /**
    * Default constructor that sets up known arguments and initializes all other fields to null.
    */
   public ArgumentsProcessImpl() {
     fps = 1;
-    out = System.out;
+    threads = 1;
+    outBytes = new BufferedOutputStream(System.out);
+    out = new BufferedWriter(new OutputStreamWriter(outBytes));
     in = null;
+    readMode = "mapped";
     closable = false;
+    compact = false;
+    concurrent = false;
+    simplifier = null;
+    undoMemory = UndoJournal.DEFAULT_MEMORY_CAP;
+    bakeMemory = 0;
 
     knownArguments = new HashMap<>();
 
     knownArguments.put("in", new InputFunction());
     knownArguments.put("out", new OutputFunction());
     knownArguments.put("speed", new FpsFunction());
+    knownArguments.put("threads", new ThreadsFunction());
+    knownArguments.put("read", new ReadFunction());
+    knownArguments.put("model", new ModelFunction());
+    knownArguments.put("concurrent", new ConcurrentFunction());
+    knownArguments.put("undo", new UndoFunction());
+    knownArguments.put("simplify", new SimplifyFunction());
+    knownArguments.put("bake", new BakeFunction());
     knownArguments.put("view", new ViewFunction());
   }
 
@@ -76,14 +122,43 @@ public class ArgumentsProcessImpl implements ArgumentsProcessor {
     }
   }
 
+  /**
+   * Reads the input file into the given builder, the way the read argument asked for.
+   *
+   * @param builder the builder to read the animation into
+   * @return the model read from the input file
+   * @throws IllegalStateException if the input file can't be read or is not a valid animation
+   */
+  private AnimatorModel readModel(AnimationBuilder<AnimatorModel> builder) {
+    try {
+      if (BinaryAnimationReader.isBinaryFile(in)) {
+        // binary files are always memory-mapped, whatever way of reading was asked for
+        return BinaryAnimationReader.parseFile(in, builder);
+      } else if (readMode.equals("stream")) {
+        try (Reader reader = Files.newBufferedReader(in)) {
+          return AnimationReader.parseFile(reader, builder);
+        }
+      } else if (readMode.equals("parallel")) {
+        return AnimationReader.parseFileInParallel(in, builder);
+      } else if (readMode.equals("lazy") && builder instanceof LazyAnimationBuilder) {
+        // only the tree model can read its keyframes later, so the compact one reads them now
+        return AnimationReader.parseFileLazily(in, (LazyAnimationBuilder<AnimatorModel>) builder);
+      } else {
+        return AnimationReader.parseFile(in, builder);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("The input file was not able to be processed.");
+    }
+  }
+
   private class InputFunction implements Function<String, Void> {
     @Override
     public Void apply(String s) {
-      try {
-        in = Files.newBufferedReader(Paths.get(s));
-      } catch (IOException e) {
+      Path path = Paths.get(s);
+      if (!Files.isReadable(path)) {
         throw new IllegalStateException("The input file was not able to be processed.");
       }
+      in = path;
       return null;
     }
   }
@@ -92,7 +167,8 @@ public class ArgumentsProcessImpl implements ArgumentsProcessor {
     @Override
     public Void apply(String s) {
       try {
-        out = new FileWriter(s);
+        outBytes = new BufferedOutputStream(new FileOutputStream(s));
+        out = new BufferedWriter(new OutputStreamWriter(outBytes));
         closable = true;
       } catch (IOException e) {
         throw new IllegalStateException("The output file path was not able to be written to.");
@@ -109,29 +185,161 @@ public class ArgumentsProcessImpl implements ArgumentsProcessor {
     }
   }
 
+  private class ThreadsFunction implements Function<String, Void> {
+    @Override
+    public Void apply(String s) {
+      try {
+        threads = Integer.parseInt(s);
+      } catch (NumberFormatException e) {
+        throw new IllegalStateException("The number of threads was not valid.");
+      }
+      if (threads < 1) {
+        throw new IllegalStateException("At least one thread is needed.");
+      }
+      return null;
+    }
+  }
+
+  private class ReadFunction implements Function<String, Void> {
+    @Override
+    public Void apply(String s) {
+      if (s.equalsIgnoreCase("mapped") || s.equalsIgnoreCase("parallel")
+          || s.equalsIgnoreCase("stream") || s.equalsIgnoreCase("lazy")) {
+        readMode = s.toLowerCase();
+      } else {
+        throw new IllegalStateException("The way of reading the input was not recognized.");
+      }
+      return null;
+    }
+  }
+
+  private class ModelFunction implements Function<String, Void> {
+    @Override
+    public Void apply(String s) {
+      if (s.equalsIgnoreCase("compact")) {
+        compact = true;
+      } else if (s.equalsIgnoreCase("tree")) {
+        compact = false;
+      } else {
+        throw new IllegalStateException("The type of model was not recognized.");
+      }
+      return null;
+    }
+  }
+
+  private class ConcurrentFunction implements Function<String, Void> {
+    @Override
+    public Void apply(String s) {
+      if (s.equalsIgnoreCase("on")) {
+        concurrent = true;
+      } else if (s.equalsIgnoreCase("off")) {
+        concurrent = false;
+      } else {
+        throw new IllegalStateException("Concurrent reads can only be turned on or off.");
+      }
+      return null;
+    }
+  }
+
+  private class UndoFunction implements Function<String, Void> {
+    @Override
+    public Void apply(String s) {
+      undoMemory = toBytes(s, "undo");
+      return null;
+    }
+  }
+
+  /**
+   * Reads a number of megabytes given for the given use of memory, in bytes.
+   *
+   * @throws IllegalStateException if the number is not valid, negative, or too many bytes
+   */
+  private static long toBytes(String megabytes, String use) {
+    long bytes;
+    try {
+      bytes = Math.multiplyExact(Long.parseLong(megabytes), 1L << 20);
+    } catch (NumberFormatException | ArithmeticException e) {
+      throw new IllegalStateException("The " + use + " memory was not valid.");
+    }
+    if (bytes < 0) {
+      throw new IllegalStateException("The " + use + " memory cannot be negative.");
+    }
+    return bytes;
+  }
+
+  private class BakeFunction implements Function<String, Void> {
+    @Override
+    public Void apply(String s) {
+      bakeMemory = toBytes(s, "baking");
+      return null;
+    }
+  }
+
+  private class SimplifyFunction implements Function<String, Void> {
+    @Override
+    public Void apply(String s) {
+      // either one tolerance for everything, or position,size,color,angle
+      String[] tolerances = s.split(",");
+      try {
+        if (tolerances.length == 1) {
+          simplifier = KeyframeSimplifier.withTolerance(Double.parseDouble(tolerances[0]));
+        } else if (tolerances.length == 4) {
+          simplifier = new KeyframeSimplifier.Builder()
+              .positionTolerance(Double.parseDouble(tolerances[0]))
+              .sizeTolerance(Double.parseDouble(tolerances[1]))
+              .colorTolerance(Double.parseDouble(tolerances[2]))
+              .angleTolerance(Double.parseDouble(tolerances[3]))
+              .build();
+        } else {
+          throw new IllegalStateException("Simplifying needs one tolerance or four.");
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IllegalStateException("The simplifying tolerance was not valid.");
+      }
+      return null;
+    }
+  }
+
   private class ViewFunction implements Function<String, Void> {
     @Override
     public Void apply(String s) {
-      AnimationBuilder<AnimatorModel> builder = new AnimatorModelImpl.Builder();
+      AnimationBuilder<AnimatorModel> builder;
+      if (compact) {
+        builder = new CompactAnimatorModel.Builder();
+      } else {
+        builder = new AnimatorModelImpl.Builder();
+      }
       AnimatorModel model;
       Consumer<AnimatorAction> callback;
 
       if (in == null) {
         throw new IllegalStateException("No input file was provided");
       } else {
-        model = AnimationReader.parseFile(in, builder);
-        callback = new AnimatorActionConsumerImpl(model);
+        model = readModel(builder);
+        if (simplifier != null) {
+          simplifier.simplify(model);
+        }
+        if (concurrent) {
+          model = new ConcurrentAnimatorModel(model);
+        }
+        callback = new UndoJournal(model, undoMemory);
+      }
+
+      // the views that show the same ticks over and over read them from a cache, if asked to
+      ReadOnlyAnimatorModel shown = model;
+      if (bakeMemory > 0) {
+        shown = new BakedAnimatorModel(model, bakeMemory);
       }
 
       if (s.equalsIgnoreCase("svg")) {
-        SVGView svg = new SVGViewImpl(model, fps);
+        SVGView svg = new SVGViewImpl(model, fps, threads);
         try {
           svg.outputSVG(out);
         } catch (IOException e) {
           throw new IllegalStateException("The output was not able to be written to.");
         }
       } else if (s.equalsIgnoreCase("visual")) {
-        VisualView visual = new SwingView(model, fps);
+        VisualView visual = new SwingView(shown, fps);
         visual.renderVisual();
       } else if (s.equalsIgnoreCase("text")) {
         TextView text = new TextAnimatorView(model);
@@ -140,23 +348,32 @@ public class ArgumentsProcessImpl implements ArgumentsProcessor {
         } catch (IOException e) {
           throw new IllegalStateException("The output was not able to be written to.");
         }
+      } else if (s.equalsIgnoreCase("binary")) {
+        BinaryView binary = new BinaryAnimatorView(model);
+        try {
+          binary.outputBinary(outBytes);
+        } catch (IOException e) {
+          throw new IllegalStateException("The output was not able to be written to.");
+        }
       } else if (s.equalsIgnoreCase("edit")) {
-        EditorView editorView = new EditorViewImpl(model, callback);
+        EditorView editorView = new EditorViewImpl(shown, callback);
         editorView.setCallback(new EditorActionConsumerImpl(editorView));
         editorView.renderVisual();
       } else if (s.equalsIgnoreCase("play")) {
-        PlayerView playerView = new PlayerViewImpl(model, fps);
+        PlayerView playerView = new PlayerViewImpl(shown, fps);
         playerView.setCallback(new PlayerActionConsumerImpl(playerView));
       } else {
         throw new IllegalStateException("The type of view was not recognized.");
       }
 
-      if (closable) {
-        try {
-          ((Closeable) out).close();
-        } catch (IOException e) {
-          System.out.println("Ran into an error with the output file.");
+      try {
+        if (closable) {
+          out.close();
+        } else {
+          out.flush();
         }
+      } catch (IOException e) {
+        System.out.println("Ran into an error with the output file.");
       }
 
       return null;
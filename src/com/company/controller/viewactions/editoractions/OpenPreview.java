@@ -1,6 +1,7 @@
 package com.company.controller.viewactions.editoractions;
 
 import com.company.controller.viewactions.playeractions.PlayerActionConsumerImpl;
+import com.company.model.BakedAnimatorModel;
 import com.company.model.ReadOnlyAnimatorModel;
 import com.company.view.swing.editor.EditorView;
 import com.company.view.swing.player.PlayerView;
@@ -23,7 +24,9 @@ public class OpenPreview implements EditorAction {
 
   @Override
   public void actOn(EditorView editorView) throws IllegalStateException {
-    PlayerView view = new PlayerViewImpl(model, 20);
+    // the preview plays the animation as it is now, while the editor keeps changing the model, and
+    // keeps the ticks it has worked out for when it loops
+    PlayerView view = new PlayerViewImpl(new BakedAnimatorModel(model.snapshot()), 20);
     view.setCallback(new PlayerActionConsumerImpl(view));
     view.renderVisual();
   }
@@ -0,0 +1,24 @@
+package com.company.controller.viewactions.editoractions;
+
+import com.company.view.swing.editor.EditorView;
+
+/**
+ * Action that tells the editor view to remove the keyframes that the animation barely needs.
+ */
+public class SimplifyAnimation implements EditorAction {
+  private final double tolerance;
+
+  /**
+   * Creates an action to simplify the animation with the same tolerance for every attribute.
+   *
+   * @param tolerance how many pixels, color units or degrees a shape may be off by
+   */
+  public SimplifyAnimation(double tolerance) {
+    this.tolerance = tolerance;
+  }
+
+  @Override
+  public void actOn(EditorView view) {
+    view.simplifyKeyframes(tolerance);
+  }
+}
@@ -1,6 +1,6 @@
 package com.company.controller.viewactions.menuactions;
 
-import com.company.controller.animatoractions.AnimatorActionConsumerImpl;
+import com.company.controller.animatoractions.UndoJournal;
 import com.company.controller.viewactions.editoractions.EditorActionConsumerImpl;
 import com.company.model.AnimatorModel;
 import com.company.model.AnimatorModelImpl;
@@ -16,7 +16,7 @@ public class NewProject implements MenuAction {
   public void actOn(MenuView view) {
     AnimatorModel model = new AnimatorModelImpl();
 
-    EditorView editorView = new EditorViewImpl(model, new AnimatorActionConsumerImpl(model));
+    EditorView editorView = new EditorViewImpl(model, new UndoJournal(model));
     editorView.setCallback(new EditorActionConsumerImpl(editorView));
     editorView.renderVisual();
 
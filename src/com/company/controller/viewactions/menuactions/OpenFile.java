@@ -1,22 +1,23 @@
 package com.company.controller.viewactions.menuactions;
 
-import com.company.controller.animatoractions.AnimatorActionConsumerImpl;
+import com.company.controller.animatoractions.UndoJournal;
 import com.company.controller.viewactions.editoractions.EditorActionConsumerImpl;
 import com.company.model.AnimatorModel;
 import com.company.model.AnimatorModelImpl;
-import com.company.util.AnimationBuilder;
 import com.company.util.AnimationReader;
+import com.company.util.BinaryAnimationReader;
 import com.company.view.swing.editor.EditorView;
 import com.company.view.swing.editor.EditorViewImpl;
 import com.company.view.swing.menu.MenuView;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
- * Opens the editor to a model read in from a file.
+ * Opens the editor to a model read in from a file, in the binary format if the file has its
+ * extension, or else in the text format. Text files are read lazily, so that the editor opens
+ * without reading the keyframes of shapes that aren't shown.
  */
 public class OpenFile implements MenuAction {
   private final String fileName;
@@ -33,11 +34,16 @@ public class OpenFile implements MenuAction {
   @Override
   public void actOn(MenuView view) {
     try {
-      BufferedReader input = Files.newBufferedReader(Paths.get(fileName));
-      AnimationBuilder<AnimatorModel> builder = new AnimatorModelImpl.Builder();
-      AnimatorModel model = AnimationReader.parseFile(input, builder);
+      AnimatorModelImpl.Builder builder = new AnimatorModelImpl.Builder();
+      Path path = Paths.get(fileName);
+      AnimatorModel model;
+      if (BinaryAnimationReader.isBinaryFile(path)) {
+        model = BinaryAnimationReader.parseFile(path, builder);
+      } else {
+        model = AnimationReader.parseFileLazily(path, builder);
+      }
 
-      EditorView editorView = new EditorViewImpl(model, new AnimatorActionConsumerImpl(model));
+      EditorView editorView = new EditorViewImpl(model, new UndoJournal(model));
       editorView.setCallback(new EditorActionConsumerImpl(editorView));
       editorView.renderVisual();
 
@@ -0,0 +1,887 @@
+package com.company.model;
+
+import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Abstract class that represents the parts of an animator model that don't depend on how
+ * keyframes are stored: the canvas and the layers that give the shapes their drawing order.
+ */
+public abstract class AAnimatorModel implements AnimatorModel {
+  protected static final String DEFAULT_LAYER_NAME = "default";
+
+  private final Map<String, Layer> layers;
+  // The layer names and the shape names in drawing order, or null if the layers have changed
+  // since they were last worked out.
+  private List<String> layerOrder;
+  private String[] drawOrder;
+  // The first and last tick of every shape's timeline, counted so that the first and last tick
+  // of the whole animation are known without looking through every timeline.
+  private final TickCounts firstTicks;
+  private final TickCounts lastTicks;
+  // When each shape is drawn, so that shapes that aren't drawn yet can be skipped.
+  private final LifetimeIndex lifetimes;
+  // Read-only views of the keyframes of every shape, in the order the shapes were created.
+  private final Map<String, SortedSet<Frame>> keyframeViews;
+  private final Map<String, SortedSet<Frame>> readOnlyKeyframes;
+  // The keyframes of every shape as persistent maps shared with the snapshots taken of this model,
+  // and the shapes in the order they were created. Both are null until the first snapshot is
+  // taken, and are kept up to date as the model changes after that.
+  private PersistentSortedMap<String, ModelSnapshot.Timeline> frozenTimelines;
+  private PersistentSortedMap<Long, String> frozenCreationOrder;
+  private long shapesCreated;
+  // The unmodifiable shape names in each layer for snapshots, as lists and as sets, or null if the
+  // layers have changed since they were last copied.
+  private Map<String, List<String>> frozenLayers;
+  private Map<String, Set<String>> frozenLayerSets;
+  // Increases every time the model changes.
+  private long version;
+  private final List<Consumer<ModelChangeEvent>> listeners;
+
+  private int canvasWidth;
+  private int canvasHeight;
+
+  private int canvasX;
+  private int canvasY;
+
+  /**
+   * Default constructor that initializes the default layer and canvas, with no shapes.
+   */
+  public AAnimatorModel() {
+    this.layers = new LinkedHashMap<>();
+    layers.put(DEFAULT_LAYER_NAME, new Layer(1));
+    this.layerOrder = null;
+    this.drawOrder = null;
+    this.firstTicks = new TickCounts();
+    this.lastTicks = new TickCounts();
+    this.lifetimes = new LifetimeIndex();
+    this.keyframeViews = new LinkedHashMap<>();
+    this.readOnlyKeyframes = Collections.unmodifiableMap(keyframeViews);
+    this.frozenTimelines = null;
+    this.frozenCreationOrder = null;
+    this.shapesCreated = 0;
+    this.frozenLayers = null;
+    this.frozenLayerSets = null;
+    this.version = 0;
+    this.listeners = new ArrayList<>();
+
+    this.canvasWidth = 640;
+    this.canvasHeight = 400;
+
+    this.canvasX = 0;
+    this.canvasY = 0;
+  }
+
+  @Override
+  public void createKeyframe(String shapeName, Shape shape, int tick) {
+    this.createKeyframe(shapeName, shape, tick, DEFAULT_LAYER_NAME);
+  }
+
+  @Override
+  public Map<String, SortedSet<Frame>> getKeyframes() {
+    return readOnlyKeyframes;
+  }
+
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public ReadOnlyAnimatorModel snapshot() {
+    if (frozenTimelines == null) {
+      // from now on every change to the keyframes is copied into the persistent maps as well
+      frozenTimelines = PersistentSortedMap.empty();
+      frozenCreationOrder = PersistentSortedMap.empty();
+      for (Map.Entry<String, SortedSet<Frame>> entry : keyframeViews.entrySet()) {
+        // shapes that haven't been read are read by snapshots when they need them
+        ModelSnapshot.Timeline timeline = this.unreadTimeline(entry.getKey(), shapesCreated);
+        if (timeline == null) {
+          PersistentSortedMap<Integer, Frame> frames = PersistentSortedMap.empty();
+          for (Frame frame : entry.getValue()) {
+            frames = frames.put((int) frame.getTime(),
+                new FrameImpl(frame.getTime(), frame.getShape().copy()));
+          }
+          timeline = new ModelSnapshot.Timeline(shapesCreated, frames);
+        }
+        this.addFrozenShape(entry.getKey(), timeline);
+      }
+    }
+    if (frozenLayers == null) {
+      Map<String, List<String>> layerNames = new LinkedHashMap<>();
+      Map<String, Set<String>> layerSets = new HashMap<>();
+      for (String layerName : this.getLayers()) {
+        List<String> names = this.getShapesInLayer(layerName);
+        layerNames.put(layerName, Collections.unmodifiableList(new ArrayList<>(names)));
+        layerSets.put(layerName, Collections.unmodifiableSet(new HashSet<>(names)));
+      }
+      frozenLayers = Collections.unmodifiableMap(layerNames);
+      frozenLayerSets = layerSets;
+    }
+    return new ModelSnapshot(this, frozenTimelines, frozenCreationOrder, this.getDrawOrder(),
+        frozenLayers, frozenLayerSets);
+  }
+
+  @Override
+  public void addChangeListener(Consumer<ModelChangeEvent> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeChangeListener(Consumer<ModelChangeEvent> listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public int getCanvasWidth() {
+    return canvasWidth;
+  }
+
+  @Override
+  public void setCanvasWidth(int canvasWidth) {
+    this.canvasWidth = canvasWidth;
+    this.modelChanged(new ModelChangeEvent(ModelChangeType.CanvasChanged, null, -1, null));
+  }
+
+  @Override
+  public int getCanvasHeight() {
+    return canvasHeight;
+  }
+
+  @Override
+  public void setCanvasHeight(int canvasHeight) {
+    this.canvasHeight = canvasHeight;
+    this.modelChanged(new ModelChangeEvent(ModelChangeType.CanvasChanged, null, -1, null));
+  }
+
+  @Override
+  public int getCanvasX() {
+    return canvasX;
+  }
+
+  @Override
+  public void setCanvasX(int canvasX) {
+    this.canvasX = canvasX;
+    this.modelChanged(new ModelChangeEvent(ModelChangeType.CanvasChanged, null, -1, null));
+  }
+
+  @Override
+  public int getCanvasY() {
+    return canvasY;
+  }
+
+  @Override
+  public void setCanvasY(int canvasY) {
+    this.canvasY = canvasY;
+    this.modelChanged(new ModelChangeEvent(ModelChangeType.CanvasChanged, null, -1, null));
+  }
+
+  @Override
+  public double lastTick() {
+    return lastTicks.isEmpty() ? 1 : Math.max(1, lastTicks.max());
+  }
+
+  @Override
+  public double firstTick() {
+    return firstTicks.isEmpty() ? 0 : firstTicks.min();
+  }
+
+  @Override
+  public void moveLayerUp(String layerName) {
+    this.checkLayer(layerName);
+
+    Layer bottomLayer = layers.get(layerName);
+    int order = bottomLayer.getOrder();
+    for (Layer topLayer : layers.values()) {
+      if (topLayer.getOrder() == order - 1) {
+        // above the current layer, move this down and move our layer up
+        topLayer.setOrder(order);
+        bottomLayer.setOrder(order - 1);
+        this.layersChanged(layerName);
+      }
+    }
+  }
+
+  @Override
+  public void moveLayerDown(String layerName) {
+    this.checkLayer(layerName);
+
+    Layer topLayer = layers.get(layerName);
+    int order = topLayer.getOrder();
+    for (Layer bottomLayer : layers.values()) {
+      if (bottomLayer.getOrder() == order + 1) {
+        // below the current layer, move this up and move our layer down
+        topLayer.setOrder(order + 1);
+        bottomLayer.setOrder(order);
+        this.layersChanged(layerName);
+      }
+    }
+  }
+
+  @Override
+  public void addLayer(String layerName) {
+    if (layerName.equals(DEFAULT_LAYER_NAME)) {
+      // do nothing
+      return;
+    }
+    if (layers.containsKey(layerName)) {
+      throw new IllegalArgumentException("Cannot add existing layer name " + layerName);
+    }
+
+    layers.put(layerName, new Layer(layers.size() + 1));
+    this.layersChanged(layerName);
+  }
+
+  @Override
+  public void deleteLayer(String layerName) {
+    this.checkLayer(layerName);
+
+    // copy the names, since deleting a shape removes it from the layer
+    for (String toRemove : new ArrayList<>(layers.get(layerName).getNames())) {
+      this.deleteShape(toRemove);
+    }
+    layers.remove(layerName);
+
+    // keep class invariant that layer orders are the first n natural numbers
+    this.updateLayerOrders();
+    this.layersChanged(layerName);
+  }
+
+  @Override
+  public List<String> getShapesInLayer(String layerName) {
+    this.checkLayer(layerName);
+    // read only, so that the shapes can't change without the drawing order being worked out again
+    return Collections.unmodifiableList(layers.get(layerName).getNames());
+  }
+
+  @Override
+  public boolean isShapeInLayer(String shapeName, String layerName) {
+    this.checkLayer(layerName);
+    return layers.get(layerName).containsName(shapeName);
+  }
+
+  @Override
+  public Collection<String> getLayers() {
+    if (layerOrder == null) {
+      // reverse layers map to sort by key
+      SortedMap<Layer, String> reverseLayers = new TreeMap<>();
+      for (Map.Entry<String, Layer> entry : layers.entrySet()) {
+        reverseLayers.put(entry.getValue(), entry.getKey());
+      }
+      layerOrder = Collections.unmodifiableList(new ArrayList<>(reverseLayers.values()));
+    }
+    return layerOrder;
+  }
+
+  /**
+   * Ensures that a layer with the given name exists.
+   *
+   * @param layerName the name of the layer
+   * @throws IllegalArgumentException if the layer does not exist
+   */
+  protected final void checkLayer(String layerName) {
+    if (!layers.containsKey(layerName)) {
+      throw new IllegalArgumentException("Invalid layer name " + layerName);
+    }
+  }
+
+  /**
+   * Adds the shape with the given name to the end of the given layer, if it is not already in it.
+   *
+   * @param layerName the name of the layer, which must exist
+   * @param shapeName the name of the shape
+   * @return whether the shape was added, or false if it was already in the layer
+   */
+  protected final boolean addToLayer(String layerName, String shapeName) {
+    if (layers.get(layerName).addName(shapeName)) {
+      drawOrder = null;
+      frozenLayers = null;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Tells listeners that a keyframe was added to or replaced in an existing shape, and that the
+   * drawing order changed too if the shape was added to another layer with it.
+   *
+   * @param type         whether the keyframe was added or changed
+   * @param shapeName    the name of the shape
+   * @param tick         the tick of the keyframe
+   * @param layerName    the layer the keyframe was created in
+   * @param addedToLayer whether the shape was added to that layer by the keyframe
+   */
+  protected final void keyframeCreated(ModelChangeType type, String shapeName, int tick,
+                                       String layerName, boolean addedToLayer) {
+    this.modelChanged(new ModelChangeEvent(type, shapeName, tick, layerName));
+    if (addedToLayer) {
+      this.modelChanged(
+          new ModelChangeEvent(ModelChangeType.LayersChanged, shapeName, -1, layerName));
+    }
+  }
+
+  /**
+   * Removes the shape with the given name from every layer it is in.
+   *
+   * @param shapeName the name of the shape
+   * @return the name of a layer the shape was in, or null if it wasn't in any
+   */
+  protected final String removeFromLayers(String shapeName) {
+    String removedFrom = null;
+    for (Map.Entry<String, Layer> entry : layers.entrySet()) {
+      if (entry.getValue().removeShapeIfPresent(shapeName)) {
+        drawOrder = null;
+        frozenLayers = null;
+        removedFrom = entry.getKey();
+      }
+    }
+    return removedFrom;
+  }
+
+  /**
+   * Records that the model has changed, so that its version increases, and tells every listener
+   * about the change. Must be called by every method that changes the model, once the change has
+   * been made.
+   *
+   * @param event the change that was made
+   */
+  protected final void modelChanged(ModelChangeEvent event) {
+    version += 1;
+    if (frozenTimelines != null) {
+      this.freezeChange(event);
+    }
+    // copied, so that listeners can stop listening while they are being told about the change
+    for (Consumer<ModelChangeEvent> listener : new ArrayList<>(listeners)) {
+      listener.accept(event);
+    }
+  }
+
+  /**
+   * Copies the given change into the persistent keyframes shared with snapshots, copying only the
+   * path to the keyframe that changed. The snapshots already taken keep the keyframes as they were.
+   *
+   * @param event the change to the model, which has already been made
+   */
+  private void freezeChange(ModelChangeEvent event) {
+    String name = event.getShapeName();
+    int tick = event.getTick();
+    switch (event.getType()) {
+      case ShapeCreated:
+        this.addFrozenShape(name, new ModelSnapshot.Timeline(shapesCreated,
+            PersistentSortedMap.<Integer, Frame>empty()
+                .put(tick, new FrameImpl(tick, this.copyKeyframe(name, tick)))));
+        break;
+      case KeyframeAdded:
+      case KeyframeChanged:
+        frozenTimelines = frozenTimelines.put(name,
+            frozenTimelines.get(name).with(tick, this.copyKeyframe(name, tick)));
+        break;
+      case KeyframeRemoved:
+        frozenTimelines = frozenTimelines.put(name, frozenTimelines.get(name).without(tick));
+        break;
+      case ShapeDeleted:
+        frozenCreationOrder = frozenCreationOrder.remove(frozenTimelines.get(name).sequence);
+        frozenTimelines = frozenTimelines.remove(name);
+        break;
+      default:
+        // snapshots copy the canvas and the layers when they are taken
+        break;
+    }
+  }
+
+  /**
+   * Adds a new shape to the persistent keyframes shared with snapshots.
+   *
+   * @param shapeName the name of the shape
+   * @param timeline  its keyframes, made with the number of shapes created so far
+   */
+  private void addFrozenShape(String shapeName, ModelSnapshot.Timeline timeline) {
+    frozenTimelines = frozenTimelines.put(shapeName, timeline);
+    frozenCreationOrder = frozenCreationOrder.put(shapesCreated, shapeName);
+    shapesCreated += 1;
+  }
+
+  /**
+   * Gets the keyframes of the given shape for snapshots, if the model hasn't read them yet, so
+   * that snapshots can read them only once they need them as well. Models whose keyframes are
+   * always read give null.
+   *
+   * @param shapeName the name of the shape
+   * @param sequence  the number of shapes created before it
+   * @return keyframes that are read when they are first needed, or null if the shape's keyframes
+   *         have been read
+   */
+  ModelSnapshot.Timeline unreadTimeline(String shapeName, long sequence) {
+    return null;
+  }
+
+  /**
+   * Copies the shape of the given shape's keyframe at the given tick, which must exist.
+   *
+   * @param shapeName the name of the shape
+   * @param tick      the tick of the keyframe
+   * @return a copy of the shape at that keyframe
+   */
+  private Shape copyKeyframe(String shapeName, int tick) {
+    return keyframeViews.get(shapeName).tailSet(new FrameImpl(tick, null)).first().getShape()
+        .copy();
+  }
+
+  /**
+   * Makes the keyframes of a new shape visible through {@link #getKeyframes()}.
+   *
+   * @param shapeName the name of the shape
+   * @param keyframes a read-only view of the keyframes of the shape
+   */
+  protected final void addKeyframeView(String shapeName, SortedSet<Frame> keyframes) {
+    keyframeViews.put(shapeName, keyframes);
+  }
+
+  /**
+   * Removes the keyframes of a deleted shape from {@link #getKeyframes()}, and forgets when it was
+   * drawn.
+   *
+   * @param shapeName the name of the shape
+   */
+  protected final void removeKeyframeView(String shapeName) {
+    keyframeViews.remove(shapeName);
+    lifetimes.remove(shapeName);
+  }
+
+  /**
+   * Records that a shape's timeline now starts and ends at the given ticks. Must be called
+   * whenever a timeline is made or changed, after {@link #removeTimelineBounds(int, int)} with
+   * the ticks it started and ended at before, if it already existed.
+   *
+   * @param shapeName the name of the shape
+   * @param first     the tick of the first keyframe of the timeline
+   * @param last      the tick of the last keyframe of the timeline
+   */
+  protected final void addTimelineBounds(String shapeName, int first, int last) {
+    firstTicks.add(first);
+    lastTicks.add(last);
+    lifetimes.put(shapeName, first, last);
+  }
+
+  /**
+   * Records that a shape's timeline no longer starts and ends at the given ticks, because it is
+   * about to change or be deleted.
+   *
+   * @param first the tick the first keyframe of the timeline was at
+   * @param last  the tick the last keyframe of the timeline was at
+   */
+  protected final void removeTimelineBounds(int first, int last) {
+    firstTicks.remove(first);
+    lastTicks.remove(last);
+  }
+
+  /**
+   * Gets the names of every shape in drawing order: shapes at the start are obscured by shapes at
+   * the end. The order is only worked out again after the layers or the shapes in them change, so
+   * drawing a frame only has to go through an array that is already made. The array must not be
+   * modified.
+   *
+   * @return the shape names in drawing order
+   */
+  protected final String[] getDrawOrder() {
+    if (drawOrder == null) {
+      List<String> names = new ArrayList<>();
+      for (Layer layer : this.getOrderedLayers()) {
+        names.addAll(layer.getNames());
+      }
+      drawOrder = names.toArray(new String[0]);
+    }
+    return drawOrder;
+  }
+
+  /**
+   * Finds the next shape in drawing order that is drawn at the given tick, which is every shape
+   * whose first keyframe is at or before the tick. Shapes that aren't drawn yet are skipped
+   * without looking at their timelines, so going through the shapes drawn at a tick takes time
+   * proportional to how many are drawn rather than to how many there are.
+   *
+   * @param tick the tick
+   * @param from the index in {@link #getDrawOrder()} to start looking from
+   * @return the index in {@link #getDrawOrder()} of the next shape drawn at the tick, or -1 if
+   *         there are no more
+   */
+  protected final int nextDrawnShape(int tick, int from) {
+    return lifetimes.nextAlive(this.getDrawOrder(), tick, from);
+  }
+
+  /**
+   * Gets whether the shape at the given index in the drawing order stays the same from the given
+   * tick on, because the tick is at or after its last keyframe. The shape must be drawn at the
+   * tick, as found by {@link #nextDrawnShape(int, int)}.
+   *
+   * @param index the index of the shape in {@link #getDrawOrder()}
+   * @param tick  the tick
+   * @return whether the shape is its last keyframe at the tick
+   */
+  protected final boolean isStaticAt(int index, int tick) {
+    return lifetimes.isStatic(index, tick);
+  }
+
+  /**
+   * Gets the state at the given index of the given list of states, adding a new state to the end
+   * of the list if it is not that long.
+   *
+   * @param states the list of states, at least as long as the index
+   * @param index  the index of the state
+   * @return the state at the index
+   */
+  protected static ShapeState stateAt(List<ShapeState> states, int index) {
+    if (index < states.size()) {
+      return states.get(index);
+    }
+    ShapeState state = new ShapeState();
+    states.add(state);
+    return state;
+  }
+
+  /**
+   * Forgets the drawing order of the layers and shapes, since the layers have changed.
+   *
+   * @param layerName the name of the layer that was added, deleted or moved
+   */
+  private void layersChanged(String layerName) {
+    layerOrder = null;
+    drawOrder = null;
+    frozenLayers = null;
+    this.modelChanged(new ModelChangeEvent(ModelChangeType.LayersChanged, null, -1, layerName));
+  }
+
+  /**
+   * Gets the layers in drawing order as a list.
+   *
+   * @return the layers in drawing order as a list
+   */
+  private List<Layer> getOrderedLayers() {
+    List<Layer> layerList = new ArrayList<>(layers.values());
+    Collections.sort(layerList);
+    return layerList;
+  }
+
+  /**
+   * Updates the layer orders to the numbers 1-n where n is the number of layers, preserving the
+   * existing order.
+   */
+  private void updateLayerOrders() {
+    int newOrder = 1;
+    for (Layer layer : this.getOrderedLayers()) {
+      layer.setOrder(newOrder);
+      newOrder += 1;
+    }
+  }
+
+  /**
+   * A multiset of ticks, which counts how many times each tick has been added so that the
+   * smallest and largest tick can be found quickly.
+   */
+  private static class TickCounts {
+    private final TreeMap<Integer, Integer> counts;
+
+    /**
+     * Constructs an empty multiset.
+     */
+    public TickCounts() {
+      this.counts = new TreeMap<>();
+    }
+
+    /**
+     * Adds one of the given tick.
+     * @param tick the tick to add
+     */
+    public void add(int tick) {
+      counts.merge(tick, 1, Integer::sum);
+    }
+
+    /**
+     * Removes one of the given tick, which must have been added.
+     * @param tick the tick to remove
+     */
+    public void remove(int tick) {
+      int count = counts.get(tick);
+      if (count == 1) {
+        counts.remove(tick);
+      } else {
+        counts.put(tick, count - 1);
+      }
+    }
+
+    /**
+     * Gets whether no ticks have been added.
+     * @return whether this is empty
+     */
+    public boolean isEmpty() {
+      return counts.isEmpty();
+    }
+
+    /**
+     * Gets the smallest tick, if this isn't empty.
+     * @return the smallest tick
+     */
+    public int min() {
+      return counts.firstKey();
+    }
+
+    /**
+     * Gets the largest tick, if this isn't empty.
+     * @return the largest tick
+     */
+    public int max() {
+      return counts.lastKey();
+    }
+  }
+
+  /**
+   * Index of when each shape is drawn: from its first keyframe on, changing until its last
+   * keyframe and staying the same after it. The shapes are kept sorted by their first keyframe,
+   * and the ones drawn at the last tick asked about are marked in a bit set by their place in the
+   * drawing order. Moving to another tick only marks or unmarks the shapes that start between the
+   * two ticks, and the marked shapes are found in drawing order by going through the set bits.
+   */
+  private static class LifetimeIndex {
+    // The first and last tick of every shape.
+    private final Map<String, int[]> bounds;
+    // The drawing order the index was built for, or null if the bounds have changed since.
+    private String[] order;
+    // The first and last tick of each shape, by its index in the drawing order.
+    private int[] first;
+    private int[] last;
+    // The indices in the drawing order sorted by first tick, and the first tick of each.
+    private int[] byFirst;
+    private int[] sortedFirst;
+    // The shapes drawn at the tick, which are the first aliveCount shapes of byFirst.
+    private final BitSet alive;
+    private int aliveCount;
+    private int aliveTick;
+
+    /**
+     * Constructs an index with no shapes.
+     */
+    public LifetimeIndex() {
+      this.bounds = new HashMap<>();
+      this.alive = new BitSet();
+      this.order = null;
+    }
+
+    /**
+     * Records the first and last tick of the given shape.
+     * @param shapeName the name of the shape
+     * @param firstTick the tick of its first keyframe
+     * @param lastTick  the tick of its last keyframe
+     */
+    public void put(String shapeName, int firstTick, int lastTick) {
+      int[] old = bounds.put(shapeName, new int[]{firstTick, lastTick});
+      if (old == null || old[0] != firstTick || old[1] != lastTick) {
+        order = null;
+      }
+    }
+
+    /**
+     * Forgets the given shape. The drawing order changes when a shape is deleted, so the index is
+     * built again anyway.
+     * @param shapeName the name of the shape
+     */
+    public void remove(String shapeName) {
+      bounds.remove(shapeName);
+    }
+
+    /**
+     * Finds the next shape at or after the given index of the drawing order that is drawn at the
+     * given tick.
+     * @param drawOrder the drawing order
+     * @param tick      the tick
+     * @param from      the index to start looking from
+     * @return the index of the next shape drawn, or -1 if there are no more
+     */
+    public int nextAlive(String[] drawOrder, int tick, int from) {
+      if (drawOrder != order) {
+        this.build(drawOrder);
+      }
+      if (tick != aliveTick) {
+        this.moveTo(tick);
+      }
+      return alive.nextSetBit(from);
+    }
+
+    /**
+     * Gets whether the shape at the given index of the drawing order is at or after its last
+     * keyframe at the given tick.
+     * @param index the index of the shape
+     * @param tick  the tick
+     * @return whether the shape stays the same from the tick on
+     */
+    public boolean isStatic(int index, int tick) {
+      return tick >= last[index];
+    }
+
+    /**
+     * Builds the index for the given drawing order, with no shapes marked as drawn.
+     * @param drawOrder the drawing order
+     */
+    private void build(String[] drawOrder) {
+      int count = drawOrder.length;
+      first = new int[count];
+      last = new int[count];
+      long[] keys = new long[count];
+      for (int i = 0; i < count; i++) {
+        int[] shapeBounds = bounds.get(drawOrder[i]);
+        // shapes without keyframes are never drawn
+        first[i] = shapeBounds == null ? Integer.MAX_VALUE : shapeBounds[0];
+        last[i] = shapeBounds == null ? Integer.MAX_VALUE : shapeBounds[1];
+        keys[i] = ((long) first[i] << 32) | i;
+      }
+      Arrays.sort(keys);
+
+      byFirst = new int[count];
+      sortedFirst = new int[count];
+      for (int i = 0; i < count; i++) {
+        byFirst[i] = (int) keys[i];
+        sortedFirst[i] = (int) (keys[i] >>> 32);
+      }
+      alive.clear();
+      aliveCount = 0;
+      aliveTick = -1;
+      order = drawOrder;
+    }
+
+    /**
+     * Marks the shapes drawn at the given tick, starting from the ones drawn at the last tick.
+     * @param tick the tick
+     */
+    private void moveTo(int tick) {
+      // the number of shapes whose first tick is at or before the tick
+      int count = upperBound(sortedFirst, tick);
+      for (int i = aliveCount; i < count; i++) {
+        alive.set(byFirst[i]);
+      }
+      for (int i = count; i < aliveCount; i++) {
+        alive.clear(byFirst[i]);
+      }
+      aliveCount = count;
+      aliveTick = tick;
+    }
+
+    /**
+     * Finds how many of the given sorted values are at or below the given value.
+     * @param sorted the values, in increasing order
+     * @param value  the value
+     * @return the number of values at or below it
+     */
+    private static int upperBound(int[] sorted, int value) {
+      int low = 0;
+      int high = sorted.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (sorted[mid] <= value) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * A class to hold both depth information and the shapes information layers have: what order
+   * this layer is drawn in compared to other layers and what shapes comprise this layer.
+   */
+  private static class Layer implements Comparable<Layer> {
+    // The drawing order: layers with earlier orders are drawn first and are occluded by later
+    // layers.
+    private int order;
+    // The names of each shape in this layer.
+    private final List<String> names;
+    // The same names, to find whether a shape is in this layer without searching the list.
+    private final Set<String> nameSet;
+
+    /**
+     * Constructs a layer.
+     * @param order the order this layer is drawn in compared to others
+     */
+    public Layer(int order) {
+      this.order = order;
+      this.names = new ArrayList<String>();
+      this.nameSet = new HashSet<>();
+    }
+
+    /**
+     * Gets the drawing order.
+     * @return the drawing order
+     */
+    public int getOrder() {
+      return order;
+    }
+
+    /**
+     * Sets the drawing order.
+     * @param order the drawing order to set
+     */
+    public void setOrder(int order) {
+      this.order = order;
+    }
+
+    /**
+     * Gets the shape names in this layer.
+     * @return the shape names in this layer
+     */
+    public List<String> getNames() {
+      return names;
+    }
+
+    /**
+     * Adds a shape name to the layer if not already present.
+     * @param shapeName the shape name to add
+     * @return whether the shape name was added
+     */
+    public boolean addName(String shapeName) {
+      if (nameSet.add(shapeName)) {
+        names.add(shapeName);
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Gets whether the shape with the given name is in this layer.
+     * @param shapeName the shape name to look for
+     * @return whether the shape is in this layer
+     */
+    public boolean containsName(String shapeName) {
+      return nameSet.contains(shapeName);
+    }
+
+    /**
+     * Removes the shape with the given name if that shape is in this layer.
+     * @param shapeName the shape name to possibly remove
+     * @return whether the shape was in this layer
+     */
+    public boolean removeShapeIfPresent(String shapeName) {
+      return nameSet.remove(shapeName) && names.remove(shapeName);
+    }
+
+    @Override
+    public int compareTo(Layer o) {
+      return order - o.order;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package com.company.model;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Abstract class that represents an unmodifiable, live sorted set of keyframes whose frames can be
+ * accessed by index. Subclasses only describe how to get the time and frame at an index, so that
+ * timelines that aren't stored as {@link Frame} objects can still be exposed as sets of frames,
+ * creating the frames only when they are asked for.
+ */
+abstract class AFrameSetView extends AbstractSet<Frame> implements SortedSet<Frame> {
+
+  /**
+   * Gets the time of the keyframe at the given index.
+   *
+   * @param index the index of the keyframe, between 0 and the size of the set
+   * @return the time of that keyframe
+   */
+  protected abstract double timeAt(int index);
+
+  /**
+   * Gets the keyframe at the given index.
+   *
+   * @param index the index of the keyframe, between 0 and the size of the set
+   * @return that keyframe
+   */
+  protected abstract Frame frameAt(int index);
+
+  @Override
+  public Iterator<Frame> iterator() {
+    return new Iterator<Frame>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < size();
+      }
+
+      @Override
+      public Frame next() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException("No more keyframes");
+        }
+        index += 1;
+        return frameAt(index - 1);
+      }
+    };
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof Frame)) {
+      return false;
+    }
+    double time = ((Frame) o).getTime();
+    int index = this.indexOf(time);
+    return index < this.size() && this.timeAt(index) == time;
+  }
+
+  @Override
+  public Comparator<? super Frame> comparator() {
+    // frames are in their natural order
+    return null;
+  }
+
+  @Override
+  public Frame first() {
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("No keyframes");
+    }
+    return this.frameAt(0);
+  }
+
+  @Override
+  public Frame last() {
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("No keyframes");
+    }
+    return this.frameAt(this.size() - 1);
+  }
+
+  @Override
+  public SortedSet<Frame> subSet(Frame fromElement, Frame toElement) {
+    if (fromElement.compareTo(toElement) > 0) {
+      throw new IllegalArgumentException("Range ends before it starts");
+    }
+    return new Range(this, fromElement.getTime(), toElement.getTime());
+  }
+
+  @Override
+  public SortedSet<Frame> headSet(Frame toElement) {
+    return new Range(this, Double.NEGATIVE_INFINITY, toElement.getTime());
+  }
+
+  @Override
+  public SortedSet<Frame> tailSet(Frame fromElement) {
+    return new Range(this, fromElement.getTime(), Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Finds the index of the first keyframe at or after the given time with a binary search.
+   *
+   * @param time the time to search for
+   * @return the index of the first keyframe at or after the time, or the size of this set if
+   *     there is none
+   */
+  protected int indexOf(double time) {
+    int low = 0;
+    int high = this.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (this.timeAt(mid) < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * A live view of the keyframes of another set that are in a range of times.
+   */
+  private static class Range extends AFrameSetView {
+    private final AFrameSetView frames;
+    // The start of the range, inclusive.
+    private final double from;
+    // The end of the range, exclusive.
+    private final double to;
+
+    /**
+     * Creates a view of the keyframes of the given set that are in the given range of times. A
+     * range that ends before it starts is empty.
+     *
+     * @param frames the set to view
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, exclusive
+     */
+    Range(AFrameSetView frames, double from, double to) {
+      this.frames = frames;
+      this.from = from;
+      this.to = Math.max(from, to);
+    }
+
+    private int start() {
+      return frames.indexOf(from);
+    }
+
+    @Override
+    protected double timeAt(int index) {
+      return frames.timeAt(this.start() + index);
+    }
+
+    @Override
+    protected Frame frameAt(int index) {
+      return frames.frameAt(this.start() + index);
+    }
+
+    @Override
+    public int size() {
+      return frames.indexOf(to) - this.start();
+    }
+
+    @Override
+    public SortedSet<Frame> subSet(Frame fromElement, Frame toElement) {
+      return new Range(frames, Math.max(from, fromElement.getTime()),
+          Math.min(to, toElement.getTime()));
+    }
+
+    @Override
+    public SortedSet<Frame> headSet(Frame toElement) {
+      return new Range(frames, from, Math.min(to, toElement.getTime()));
+    }
+
+    @Override
+    public SortedSet<Frame> tailSet(Frame fromElement) {
+      return new Range(frames, Math.max(from, fromElement.getTime()), to);
+    }
+  }
+}
@@ -70,6 +70,22 @@ public interface AnimatorModel extends ReadOnlyAnimatorModel {
    */
   void removeKeyframe(String shapeName, int tick);
 
+  /**
+   * Removes the keyframes for the given shape at each of the given points in time, as removing
+   * them one at a time would. Models that would move their other keyframes on every removal
+   * remove them all at once instead.
+   *
+   * @param shapeName name of the shape whose keyframes are to be removed
+   * @param ticks     ticks at which to remove the keyframes
+   * @throws IllegalArgumentException if a keyframe does not exist for the given shape at one of
+   *                                  the given ticks
+   */
+  default void removeKeyframes(String shapeName, int[] ticks) {
+    for (int tick : ticks) {
+      this.removeKeyframe(shapeName, tick);
+    }
+  }
+
   /**
    * Deletes the shape from the model entirely.
    *
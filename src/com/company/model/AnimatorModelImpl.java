@@ -1,53 +1,53 @@
 package com.company.model;
 
-import com.company.model.shape.PosnImpl;
+import com.company.model.shape.Interner;
 import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
 import com.company.model.shape.ShapeType;
 import com.company.util.AnimationBuilder;
+import com.company.util.KeyframeSource;
+import com.company.util.LazyAnimationBuilder;
 
-import java.awt.Color;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
-import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
  * Represents an animator model that computes the frames at a given time based on linear
- * interpolation of keyframes.
+ * interpolation of keyframes. Shapes built with keyframes to be read later only have their
+ * timelines made once something needs them. The keyframes given by {@link #getKeyframes()} may be
+ * read from more than one thread at a time while the model isn't being edited, even if that reads
+ * them, and snapshots read them again only when they need them themselves.
  */
-public class AnimatorModelImpl implements AnimatorModel {
+public class AnimatorModelImpl extends AAnimatorModel {
+  // The timeline of every shape, which is null for shapes that haven't been edited since they
+  // were built with keyframes to be read later.
   private final Map<String, NavigableSet<Frame>> timelines;
-  private final Map<String, Layer> layers;
-
-  private int canvasWidth;
-  private int canvasHeight;
-
-  private int canvasX;
-  private int canvasY;
-
-  private static final String DEFAULT_LAYER_NAME = "default";
+  // The keyframes of those shapes, which are read the first time they are needed. Only changed by
+  // edits, so that reading the keyframes never changes the maps.
+  private final Map<String, PendingTimeline> unread;
+  // Remembers the keyframe segment each shape was last evaluated in, so that playing the
+  // animation tick by tick doesn't search every timeline again on every tick.
+  private final Map<String, PlaybackCursor> cursors;
 
   /**
    * Default constructor that does not initialize any shapes.
    */
   public AnimatorModelImpl() {
+    super();
     this.timelines = new LinkedHashMap<>();
-    this.layers = new LinkedHashMap<>();
-    layers.put(DEFAULT_LAYER_NAME, new Layer(1));
-
-    this.canvasWidth = 640;
-    this.canvasHeight = 400;
-
-    this.canvasX = 0;
-    this.canvasY = 0;
+    this.unread = new HashMap<>();
+    this.cursors = new HashMap<>();
   }
 
   @Override
@@ -58,44 +58,118 @@ public class AnimatorModelImpl implements AnimatorModel {
 
     Map<String, Shape> shapes = new LinkedHashMap<>();
 
-    for (Layer layer : this.getOrderedLayers()) {
-      for (String name : layer.getNames()) {
-        NavigableSet<Frame> frames = timelines.get(name);
-
-        Frame prevFrame = frames.floor(new FrameImpl(tick, null));
-        Frame nextFrame = frames.higher(new FrameImpl(tick, null));
-        if (prevFrame != null && nextFrame == null) {
-          // no frame after this time, use latest frame
-          shapes.put(name, prevFrame.getShape());
-        } else if (prevFrame != null) {
-          // both frames exist, interpolate
-          shapes.put(name, prevFrame.interpolateShape(
-              nextFrame, (tick - prevFrame.getTime()) /
-                  (nextFrame.getTime() - prevFrame.getTime())));
-        }
-        // If the time is before the first keyframe for this shape, don't draw the shape
+    // shapes before their first keyframe aren't drawn, so they are skipped
+    String[] drawOrder = this.getDrawOrder();
+    for (int i = this.nextDrawnShape(tick, 0); i >= 0; i = this.nextDrawnShape(tick, i + 1)) {
+      String name = drawOrder[i];
+      if (this.isStaticAt(i, tick)) {
+        shapes.put(name, this.timeline(name).last().getShape());
+      } else {
+        shapes.put(name, this.cursorAt(name, tick).shapeAt(tick));
       }
     }
     return shapes;
   }
 
   @Override
-  public Map<String, SortedSet<Frame>> getKeyframes() {
-    return new LinkedHashMap<>(this.timelines);
+  public Shape shapeAt(String shapeName, int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+    if (!timelines.containsKey(shapeName)) {
+      throw new IllegalArgumentException("Shape does not exist " + shapeName);
+    }
+    return this.cursorAt(shapeName, tick).shapeAt(tick);
+  }
+
+  @Override
+  public int statesAt(int tick, List<ShapeState> states) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+
+    int count = 0;
+    // shapes before their first keyframe aren't drawn, and shapes after their last keyframe don't
+    // change, so only the timelines of shapes that are changing are searched
+    String[] drawOrder = this.getDrawOrder();
+    for (int i = this.nextDrawnShape(tick, 0); i >= 0; i = this.nextDrawnShape(tick, i + 1)) {
+      String name = drawOrder[i];
+      ShapeState state = stateAt(states, count);
+      state.name = name;
+      if (this.isStaticAt(i, tick)) {
+        state.set(this.timeline(name).last().getShape());
+      } else {
+        PlaybackCursor cursor = this.cursorAt(name, tick);
+        Frame prevFrame = cursor.prev;
+        Frame nextFrame = cursor.next;
+        prevFrame.getShape().interpolateInto(nextFrame.getShape(),
+            (tick - prevFrame.getTime()) / (nextFrame.getTime() - prevFrame.getTime()), state);
+      }
+      count += 1;
+    }
+    return count;
   }
 
   /**
-   * Adds a new keyframe at the given time, with the given shape. This will overwrite any existing
-   * keyframes at the existing time, which is defined with nanosecond precision: any keyframe
-   * nanosecond or closer to the given time will be replaced with this new one.
+   * Gets the timeline of the given shape, reading its keyframes first if they haven't been.
    *
-   * @param shapeName The name of the shape for which the keyframe is being created for
-   * @param shape     The shape in the keyframe
-   * @param tick      The time the keyframe is at
+   * @param shapeName the name of the shape
+   * @return the timeline of the shape, or null if there is no such shape
+   * @throws IllegalStateException if the keyframes can't be read
    */
+  private NavigableSet<Frame> timeline(String shapeName) {
+    NavigableSet<Frame> timeline = timelines.get(shapeName);
+    if (timeline == null) {
+      PendingTimeline pending = unread.get(shapeName);
+      if (pending != null) {
+        timeline = pending.read(shapeName);
+      }
+    }
+    return timeline;
+  }
+
+  /**
+   * Gets the timeline of the given shape to change it, reading its keyframes first if they
+   * haven't been. Snapshots taken before the change read the shape's keyframes for themselves.
+   *
+   * @param shapeName the name of the shape
+   * @return the timeline of the shape, or null if there is no such shape
+   * @throws IllegalStateException if the keyframes can't be read
+   */
+  private NavigableSet<Frame> timelineToEdit(String shapeName) {
+    NavigableSet<Frame> timeline = this.timeline(shapeName);
+    if (unread.remove(shapeName) != null) {
+      timelines.put(shapeName, timeline);
+    }
+    return timeline;
+  }
+
   @Override
-  public void createKeyframe(String shapeName, Shape shape, int tick) {
-    this.createKeyframe(shapeName, shape, tick, DEFAULT_LAYER_NAME);
+  ModelSnapshot.Timeline unreadTimeline(String shapeName, long sequence) {
+    PendingTimeline pending = unread.get(shapeName);
+    if (pending == null) {
+      return null;
+    }
+    // read again rather than shared with the model, whose keyframes can change once read
+    return new ModelSnapshot.Timeline(sequence, pending.source.firstTick(),
+        () -> pending.readAgain(shapeName));
+  }
+
+  /**
+   * Gets the playback cursor of the given shape, moved to the given tick.
+   *
+   * @param shapeName the name of the shape
+   * @param tick      the tick to move the cursor to
+   * @return the cursor of the shape, positioned at the segment containing the tick
+   */
+  private PlaybackCursor cursorAt(String shapeName, int tick) {
+    PlaybackCursor cursor = cursors.get(shapeName);
+    if (cursor == null) {
+      cursor = new PlaybackCursor(this.timeline(shapeName));
+      cursors.put(shapeName, cursor);
+    }
+    cursor.moveTo(tick);
+    return cursor;
   }
 
   /**
@@ -109,83 +183,62 @@ public class AnimatorModelImpl implements AnimatorModel {
    */
   @Override
   public void createKeyframe(String shapeName, Shape shape, int tick, String layerName) {
-    if (!layers.containsKey(layerName)) {
-      throw new IllegalArgumentException("Invalid layer name " + layerName);
-    }
+    this.checkLayer(layerName);
 
     if (tick < 0) {
       throw new IllegalArgumentException("Time cannot be negative");
     }
 
+    ModelChangeType change;
     if (this.timelines.containsKey(shapeName)) {
+      // the timeline is changing, so the cursor's segment may no longer exist
+      cursors.remove(shapeName);
 
-      SortedSet<Frame> timeline = timelines.get(shapeName);
+      NavigableSet<Frame> timeline = this.timelineToEdit(shapeName);
 
       if (timeline.first().getShape().getShapeType() != shape.getShapeType()) {
         throw new IllegalArgumentException("Shape is not the same type as other keyframes.");
       }
 
-      timeline.removeIf(frame -> Math.abs(frame.getTime() - tick) < 1e-9);
-
-      this.timelines.get(shapeName).add(new FrameImpl(tick, shape));
+      // frames are ordered by time alone, so this finds the keyframe at the same tick
+      Frame newFrame = new FrameImpl(tick, shape);
+      this.removeTimelineBounds(timeline);
+      change = timeline.remove(newFrame)
+          ? ModelChangeType.KeyframeChanged : ModelChangeType.KeyframeAdded;
+      timeline.add(newFrame);
+      this.addTimelineBounds(shapeName, timeline);
     } else {
       TreeSet<Frame> newFrames = new TreeSet<>();
       newFrames.add(new FrameImpl(tick, shape));
 
       this.timelines.put(shapeName, newFrames);
+      this.addKeyframeView(shapeName, Collections.unmodifiableSortedSet(newFrames));
+      this.addTimelineBounds(shapeName, newFrames);
+      change = ModelChangeType.ShapeCreated;
     }
 
-    layers.get(layerName).addName(shapeName);
-  }
-
-  @Override
-  public int getCanvasWidth() {
-    return canvasWidth;
-  }
-
-  @Override
-  public void setCanvasWidth(int canvasWidth) {
-    this.canvasWidth = canvasWidth;
-  }
-
-  @Override
-  public int getCanvasHeight() {
-    return canvasHeight;
-  }
-
-  @Override
-  public void setCanvasHeight(int canvasHeight) {
-    this.canvasHeight = canvasHeight;
-  }
-
-  @Override
-  public int getCanvasX() {
-    return canvasX;
-  }
-
-  @Override
-  public void setCanvasX(int canvasX) {
-    this.canvasX = canvasX;
-  }
-
-  @Override
-  public int getCanvasY() {
-    return canvasY;
-  }
-
-  @Override
-  public void setCanvasY(int canvasY) {
-    this.canvasY = canvasY;
+    boolean addedToLayer = this.addToLayer(layerName, shapeName);
+    if (change == ModelChangeType.ShapeCreated) {
+      this.modelChanged(new ModelChangeEvent(change, shapeName, tick, layerName));
+    } else {
+      this.keyframeCreated(change, shapeName, tick, layerName, addedToLayer);
+    }
   }
 
   @Override
   public void removeKeyframe(String shapeName, int tick) {
-    SortedSet<Frame> frames = this.timelines.get(shapeName);
+    NavigableSet<Frame> frames = this.timelineToEdit(shapeName);
     for (Frame frame : frames) {
       if (frame.getTime() == tick) {
-        frames.remove(frame);
-        if (frames.size() == 0) {
+        if (frames.size() == 1) {
           this.deleteShape(shapeName);
+        } else {
+          cursors.remove(shapeName);
+          this.removeTimelineBounds(frames);
+          frames.remove(frame);
+          this.addTimelineBounds(shapeName, frames);
+          this.modelChanged(
+              new ModelChangeEvent(ModelChangeType.KeyframeRemoved, shapeName, tick, null));
         }
         return;
       }
@@ -197,139 +250,52 @@ public class AnimatorModelImpl implements AnimatorModel {
   @Override
   public void deleteShape(String shapeName) {
     if (timelines.containsKey(shapeName)) {
+      this.removeTimelineBounds(this.timelineToEdit(shapeName));
       timelines.remove(shapeName);
-      for (Layer layer : layers.values()) {
-        layer.removeShapeIfPresent(shapeName);
-      }
+      this.removeKeyframeView(shapeName);
+      cursors.remove(shapeName);
+      String layerName = this.removeFromLayers(shapeName);
+      this.modelChanged(
+          new ModelChangeEvent(ModelChangeType.ShapeDeleted, shapeName, -1, layerName));
     } else {
       throw new IllegalArgumentException("Cannot remove nonexistent shape " + shapeName);
     }
   }
 
-  @Override
-  public double lastTick() {
-    Frame maxFrame = new FrameImpl(1, null);
-    for (SortedSet<Frame> allFrames : this.timelines.values()) {
-      Frame newLastFrame = Collections.max(allFrames);
-      if (maxFrame.compareTo(newLastFrame) < 0) {
-        maxFrame = newLastFrame;
-      }
-    }
-    return maxFrame.getTime();
-  }
-
-  @Override
-  public void moveLayerUp(String layerName) {
-    if (!layers.containsKey(layerName)) {
-      throw new IllegalArgumentException("Invalid layer name " + layerName);
-    }
-
-    Layer bottomLayer = layers.get(layerName);
-    int order = bottomLayer.getOrder();
-    for (Layer topLayer : layers.values()) {
-      if (topLayer.getOrder() == order - 1) {
-        // above the current layer, move this down and move our layer up
-        topLayer.setOrder(order);
-        bottomLayer.setOrder(order - 1);
-      }
-    }
-  }
-
-  @Override
-  public void moveLayerDown(String layerName) {
-    if (!layers.containsKey(layerName)) {
-      throw new IllegalArgumentException("Invalid layer name " + layerName);
-    }
-
-    Layer topLayer = layers.get(layerName);
-    int order = topLayer.getOrder();
-    for (Layer bottomLayer : layers.values()) {
-      if (bottomLayer.getOrder() == order + 1) {
-        // below the current layer, move this up and move our layer down
-        topLayer.setOrder(order + 1);
-        bottomLayer.setOrder(order);
-      }
-    }
-  }
-
-  @Override
-  public void addLayer(String layerName) {
-    if (layerName.equals(DEFAULT_LAYER_NAME)) {
-      // do nothing
-      return;
-    }
-    if (layers.containsKey(layerName)) {
-      throw new IllegalArgumentException("Cannot add existing layer name " + layerName);
-    }
-
-    layers.put(layerName, new Layer(layers.size() + 1));
-  }
-
-  @Override
-  public void deleteLayer(String layerName) {
-    if (!layers.containsKey(layerName)) {
-      throw new IllegalArgumentException("Invalid layer name " + layerName);
-    }
-
-    for (String toRemove : layers.get(layerName).getNames()) {
-      this.deleteShape(toRemove);
-    }
-    layers.remove(layerName);
-
-    // keep class invariant that layer orders are the first n natural numbers
-    this.updateLayerOrders();
-  }
-
-  @Override
-  public List<String> getShapesInLayer(String layerName) {
-    if (!layers.containsKey(layerName)) {
-      throw new IllegalArgumentException("Invalid layer name " + layerName);
-    }
-    return layers.get(layerName).getNames();
-  }
-
   /**
-   * Gets the layers in drawing order as a list.
+   * Records the first and last tick of the given timeline, which must not be empty.
    *
-   * @return the layers in drawing order as a list
+   * @param shapeName the name of the shape
+   * @param timeline  the timeline of the shape
    */
-  private List<Layer> getOrderedLayers() {
-    List<Layer> layerList = new ArrayList<>(layers.values());
-    Collections.sort(layerList);
-    return layerList;
+  private void addTimelineBounds(String shapeName, NavigableSet<Frame> timeline) {
+    this.addTimelineBounds(shapeName, (int) timeline.first().getTime(),
+        (int) timeline.last().getTime());
   }
 
   /**
-   * Updates the layer orders to the numbers 1-n where n is the number of layers, preserving the
-   * existing order.
+   * Forgets the first and last tick of the given timeline, which must not be empty.
+   *
+   * @param timeline the timeline of a shape
    */
-  private void updateLayerOrders() {
-    Map<Layer, Integer> newOrders = new HashMap<>();
-    int newOrder = 1;
-    for (Layer layer : this.getOrderedLayers()) {
-      layer.setOrder(newOrder);
-      newOrder += 1;
-    }
-  }
-
-  @Override
-  public Collection<String> getLayers() {
-    // reverse layers map to sort by key
-    SortedMap<Layer, String> reverseLayers = new TreeMap<>();
-    for (Map.Entry<String, Layer> entry : layers.entrySet()) {
-      reverseLayers.put(entry.getValue(), entry.getKey());
-    }
-    return reverseLayers.values();
+  private void removeTimelineBounds(NavigableSet<Frame> timeline) {
+    this.removeTimelineBounds((int) timeline.first().getTime(), (int) timeline.last().getTime());
   }
 
   /**
-   * Inner class that allows you to build an animator model implementation.
+   * Inner class that allows you to build an animator model implementation. Keyframes are collected
+   * for each shape as they are given, then sorted once and made into timelines when the model is
+   * built, rather than being inserted into the model's timelines one at a time. Keyframes given as
+   * a source are only read once the model needs them.
    */
-  public static final class Builder implements AnimationBuilder<AnimatorModel> {
-    private final AnimatorModel model;
+  public static final class Builder implements LazyAnimationBuilder<AnimatorModel> {
+    private final AnimatorModelImpl model;
     private final Map<String, ShapeType> shapeTypes;
     // Maps the shapes names to layer names.
     private final Map<String, String> layers;
+    // The keyframes given for each shape that haven't been added to the model, in the order the
+    // shapes were first given keyframes.
+    private final Map<String, PendingTimeline> pending;
 
     /**
      * Creates a new builder with a default empty model.
@@ -338,10 +304,29 @@ public class AnimatorModelImpl implements AnimatorModel {
       this.model = new AnimatorModelImpl();
       this.shapeTypes = new HashMap<>();
       this.layers = new HashMap<>();
+      this.pending = new LinkedHashMap<>();
     }
 
     @Override
     public AnimatorModel build() {
+      for (Map.Entry<String, PendingTimeline> entry : pending.entrySet()) {
+        PendingTimeline timeline = entry.getValue();
+        if (timeline.source != null) {
+          // the timeline is made when it is first needed
+          model.timelines.put(entry.getKey(), null);
+          model.unread.put(entry.getKey(), timeline);
+          model.addKeyframeView(entry.getKey(), model.new UnreadKeyframes(entry.getKey()));
+          model.addTimelineBounds(entry.getKey(), timeline.source.firstTick(),
+              timeline.source.lastTick());
+        } else {
+          NavigableSet<Frame> frames = timeline.toTimeline();
+          model.timelines.put(entry.getKey(), frames);
+          model.addKeyframeView(entry.getKey(), Collections.unmodifiableSortedSet(frames));
+          model.addTimelineBounds(entry.getKey(), frames);
+        }
+        model.addToLayer(timeline.layerName, entry.getKey());
+      }
+      pending.clear();
       return this.model;
     }
 
@@ -385,84 +370,377 @@ public class AnimatorModelImpl implements AnimatorModel {
     @Override
     public AnimationBuilder<AnimatorModel> addKeyframe(
         String name, int t, int x, int y, int w, int h, int r, int g, int b, double a) {
-      Shape newShape = shapeTypes.get(name).getShape(new PosnImpl(x, y), w, h, new Color(r, g, b)
-              , a);
-      String layerName = layers.get(name);
-      try {
-        model.addLayer(layerName);
-      } catch (IllegalArgumentException e) {
-        // the layer is already in the model, no need to do anything
+      if (t < 0) {
+        throw new IllegalArgumentException("Time cannot be negative");
+      }
+      Shape newShape = shapeTypes.get(name).getShape(Interner.posn(x, y), w, h,
+          Interner.color(r, g, b), a);
+      this.pendingTimeline(name).add(t, newShape);
+      return this;
+    }
+
+    @Override
+    public LazyAnimationBuilder<AnimatorModel> addLazyKeyframes(String name,
+                                                                KeyframeSource keyframes) {
+      ShapeType type = shapeTypes.get(name);
+      if (type == null) {
+        throw new IllegalArgumentException("Shape was not declared " + name);
+      } else if (pending.containsKey(name)) {
+        throw new IllegalArgumentException("Shape already has keyframes " + name);
+      }
+      PendingTimeline timeline = this.pendingTimeline(name);
+      timeline.type = type;
+      timeline.source = keyframes;
+      return this;
+    }
+
+    /**
+     * Gets the keyframes given so far for the given shape, starting them if there are none.
+     *
+     * @param name the name of the shape
+     * @return the keyframes of the shape
+     */
+    private PendingTimeline pendingTimeline(String name) {
+      PendingTimeline timeline = pending.get(name);
+      if (timeline == null) {
+        // the layer is made when its first shape is, so layers stay in the same order
+        String layerName = layers.get(name);
+        if (!model.getLayers().contains(layerName)) {
+          model.addLayer(layerName);
+        }
+        timeline = new PendingTimeline(layerName);
+        pending.put(name, timeline);
+      } else if (timeline.source != null) {
+        throw new IllegalArgumentException("Shape's keyframes are to be read later " + name);
+      }
+      return timeline;
+    }
+  }
+
+  /**
+   * Builder that only takes the keyframes of one shape whose keyframes are being read, adding them
+   * to its pending timeline.
+   */
+  private static class TimelineReader implements AnimationBuilder<AnimatorModel> {
+    private final String shapeName;
+    private final PendingTimeline timeline;
+
+    /**
+     * Creates a builder for the keyframes of the given shape.
+     * @param shapeName the name of the shape
+     * @param timeline  the timeline to add the keyframes to
+     */
+    TimelineReader(String shapeName, PendingTimeline timeline) {
+      this.shapeName = shapeName;
+      this.timeline = timeline;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> addMotion(
+        String name,
+        int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1, double a1,
+        int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2, double a2) {
+      return addKeyframe(name, t1, x1, y1, w1, h1, r1, g1, b1, a1)
+          .addKeyframe(name, t2, x2, y2, w2, h2, r2, g2, b2, a2);
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> addKeyframe(
+        String name, int t, int x, int y, int w, int h, int r, int g, int b, double a) {
+      if (!name.equals(shapeName)) {
+        throw new IllegalStateException("Read keyframes of " + name + " instead of " + shapeName);
+      } else if (t < 0) {
+        throw new IllegalArgumentException("Time cannot be negative");
       }
-      this.model.createKeyframe(name, newShape, t, layers.get(name));
+      timeline.add(t, timeline.type.getShape(Interner.posn(x, y), w, h,
+          Interner.color(r, g, b), a));
       return this;
     }
+
+    @Override
+    public AnimatorModel build() {
+      throw new IllegalStateException("Only keyframes can be read into a timeline");
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> setBounds(int x, int y, int width, int height) {
+      throw new IllegalStateException("Only keyframes can be read into a timeline");
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareShape(String name, String type, String layer) {
+      throw new IllegalStateException("Only keyframes can be read into a timeline");
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareShape(String name, String type) {
+      throw new IllegalStateException("Only keyframes can be read into a timeline");
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareLayer(String layerName) {
+      throw new IllegalStateException("Only keyframes can be read into a timeline");
+    }
   }
 
   /**
-   * A class to hold both depth information and the shapes information layers have: what order
-   * this layer is drawn in compared to other layers and what shapes comprise this layer.
+   * Read-only view of the keyframes of a shape that haven't been read yet, which reads them as
+   * soon as anything is asked of it.
    */
-  private static class Layer implements Comparable<Layer> {
-    // The drawing order: layers with earlier orders are drawn first and are occluded by later
-    // layers.
-    private int order;
-    // The names of each shape in this layer.
-    private final List<String> names;
+  private class UnreadKeyframes extends AbstractSet<Frame> implements SortedSet<Frame> {
+    private final String shapeName;
+    // Set once by whichever thread reads the keyframes first.
+    private volatile SortedSet<Frame> keyframes;
 
     /**
-     * Constructs a layer.
-     * @param order the order this layer is drawn in compared to others
+     * Creates a view of the keyframes of the given shape.
+     * @param shapeName the name of the shape
      */
-    public Layer(int order) {
-      this.order = order;
-      this.names = new ArrayList<String>();
+    UnreadKeyframes(String shapeName) {
+      this.shapeName = shapeName;
     }
 
     /**
-     * Gets the drawing order.
-     * @return the drawing order
+     * Gets a read-only view of the shape's timeline, reading it if it hasn't been.
      */
-    public int getOrder() {
-      return order;
+    private SortedSet<Frame> keyframes() {
+      if (keyframes == null) {
+        keyframes = Collections.unmodifiableSortedSet(timeline(shapeName));
+      }
+      return keyframes;
+    }
+
+    @Override
+    public Iterator<Frame> iterator() {
+      return this.keyframes().iterator();
+    }
+
+    @Override
+    public int size() {
+      return this.keyframes().size();
     }
 
+    @Override
+    public boolean contains(Object o) {
+      return this.keyframes().contains(o);
+    }
+
+    @Override
+    public Comparator<? super Frame> comparator() {
+      return this.keyframes().comparator();
+    }
+
+    @Override
+    public SortedSet<Frame> subSet(Frame fromElement, Frame toElement) {
+      return this.keyframes().subSet(fromElement, toElement);
+    }
+
+    @Override
+    public SortedSet<Frame> headSet(Frame toElement) {
+      return this.keyframes().headSet(toElement);
+    }
+
+    @Override
+    public SortedSet<Frame> tailSet(Frame fromElement) {
+      return this.keyframes().tailSet(fromElement);
+    }
+
+    @Override
+    public Frame first() {
+      return this.keyframes().first();
+    }
+
+    @Override
+    public Frame last() {
+      return this.keyframes().last();
+    }
+  }
+
+  /**
+   * The keyframes given to a builder for one shape, in the order they were given. Later keyframes
+   * replace earlier ones at the same tick, as they would if they were added to the model one at a
+   * time.
+   */
+  private static class PendingTimeline {
+    private final String layerName;
+    // Where to read the keyframes from, and the type of shape to read them as, if they are to be
+    // read when they are first needed rather than given.
+    private KeyframeSource source;
+    private ShapeType type;
+    // The timeline read from the source, once it has been.
+    private NavigableSet<Frame> timeline;
+    private int[] ticks;
+    private Shape[] shapes;
+    private int size;
+
     /**
-     * Sets the drawing order.
-     * @param order the drawing order to set
+     * Constructs an empty timeline for a shape in the given layer.
+     * @param layerName the layer of the shape
      */
-    public void setOrder(int order) {
-      this.order = order;
+    PendingTimeline(String layerName) {
+      this.layerName = layerName;
+      this.ticks = new int[8];
+      this.shapes = new Shape[8];
+      this.size = 0;
     }
 
     /**
-     * Gets the shape names in this layer.
-     * @return the shape names in this layer
+     * Adds a keyframe to the end of this timeline.
+     * @param tick  the tick of the keyframe
+     * @param shape the shape at that tick
+     * @throws IllegalArgumentException if the shape is not the same type as the others
      */
-    public List<String> getNames() {
-      return names;
+    void add(int tick, Shape shape) {
+      if (size > 0 && shapes[0].getShapeType() != shape.getShapeType()) {
+        throw new IllegalArgumentException("Shape is not the same type as other keyframes.");
+      }
+      if (size == ticks.length) {
+        ticks = Arrays.copyOf(ticks, size * 2);
+        shapes = Arrays.copyOf(shapes, size * 2);
+      }
+      ticks[size] = tick;
+      shapes[size] = shape;
+      size += 1;
     }
 
     /**
-     * Adds a shape name to the layer if not already present.
-     * @param shapeName the shape name to add
+     * Gets the timeline read from the source, reading it the first time. Safe to call from any
+     * thread.
+     *
+     * @param shapeName the name of the shape
+     * @return the timeline
+     * @throws IllegalStateException if the keyframes can't be read
      */
-    public void addName(String shapeName) {
-      if (!names.contains(shapeName)) {
-        names.add(shapeName);
+    synchronized NavigableSet<Frame> read(String shapeName) {
+      if (timeline == null) {
+        timeline = this.readAgain(shapeName);
       }
+      return timeline;
     }
 
     /**
-     * Removes the shape with the given name if that shape is in this layer.
-     * @param shapeName the shape name to possibly remove
+     * Reads a new timeline from the source, with shapes that nothing else refers to. Safe to call
+     * from any thread.
+     *
+     * @param shapeName the name of the shape
+     * @return the timeline
+     * @throws IllegalStateException if the keyframes can't be read
      */
-    public void removeShapeIfPresent(String shapeName) {
-      names.remove(shapeName);
+    NavigableSet<Frame> readAgain(String shapeName) {
+      PendingTimeline keyframes = new PendingTimeline(layerName);
+      keyframes.type = type;
+      source.readInto(new TimelineReader(shapeName, keyframes));
+      NavigableSet<Frame> read = keyframes.toTimeline();
+      // the source said where the timeline starts and ends, which the lifetimes already use
+      if (read.isEmpty() || (int) read.first().getTime() != source.firstTick()
+          || (int) read.last().getTime() != source.lastTick()) {
+        throw new IllegalStateException("The keyframes read for " + shapeName
+            + " don't start and end where they were said to.");
+      }
+      return read;
     }
 
-    @Override
-    public int compareTo(Layer o) {
-      return order - o.order;
+    /**
+     * Sorts the keyframes by tick, keeping only the last one given at each tick.
+     * @return the keyframes as a timeline
+     */
+    NavigableSet<Frame> toTimeline() {
+      // sort by tick, then by the order the keyframes were given in
+      long[] keys = new long[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = ((long) ticks[i] << 32) | i;
+      }
+      Arrays.sort(keys);
+
+      List<Frame> frames = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        if (i + 1 == size || keys[i + 1] >>> 32 != keys[i] >>> 32) {
+          int index = (int) keys[i];
+          frames.add(new FrameImpl(ticks[index], shapes[index]));
+        }
+      }
+      return new TreeSet<>(frames);
+    }
+  }
+
+  /**
+   * Tracks the keyframes surrounding the tick a shape was last evaluated at. Moving forwards by a
+   * tick is constant time: the cursor only steps to the following keyframe once the tick passes
+   * it. Moving backwards, or far ahead, searches the timeline again.
+   *
+   * <p>A cursor must be discarded whenever its timeline is modified.</p>
+   */
+  private static class PlaybackCursor {
+    // How many keyframes the cursor steps through before a search becomes cheaper.
+    private static final int MAX_STEPS = 8;
+
+    private final NavigableSet<Frame> frames;
+    // The last keyframe at or before the current tick, or null if there is none.
+    private Frame prev;
+    // The first keyframe after the current tick, or null if there is none.
+    private Frame next;
+    // The keyframes after next, or null if the cursor has not been positioned yet.
+    private Iterator<Frame> following;
+
+    /**
+     * Constructs a cursor over the given timeline that has not been positioned yet.
+     * @param frames the timeline of the shape
+     */
+    PlaybackCursor(NavigableSet<Frame> frames) {
+      this.frames = frames;
+      this.prev = null;
+      this.next = null;
+      this.following = null;
+    }
+
+    /**
+     * Moves this cursor so that it surrounds the given tick.
+     * @param tick the tick to move to
+     */
+    void moveTo(int tick) {
+      if (following == null || (prev != null && tick < prev.getTime())) {
+        this.seek(tick);
+        return;
+      }
+
+      int steps = 0;
+      while (next != null && next.getTime() <= tick) {
+        steps += 1;
+        if (steps > MAX_STEPS) {
+          this.seek(tick);
+          return;
+        }
+        prev = next;
+        next = following.hasNext() ? following.next() : null;
+      }
+    }
+
+    /**
+     * Gets the shape at the given tick, which the cursor must have been moved to.
+     * @param tick the tick the cursor is at
+     * @return the shape, or null if the tick is before the first keyframe
+     */
+    Shape shapeAt(int tick) {
+      if (prev != null && next == null) {
+        // no frame after this time, use latest frame
+        return prev.getShape();
+      } else if (prev != null) {
+        // both frames exist, interpolate
+        return prev.interpolateShape(
+            next, (tick - prev.getTime()) / (next.getTime() - prev.getTime()));
+      }
+      return null;
+    }
+
+    /**
+     * Searches the timeline for the keyframes surrounding the given tick.
+     * @param tick the tick to search for
+     */
+    private void seek(int tick) {
+      Frame probe = new FrameImpl(tick, null);
+      prev = frames.floor(probe);
+      following = frames.tailSet(probe, false).iterator();
+      next = following.hasNext() ? following.next() : null;
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,342 @@
+package com.company.model;
+
+import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
+import com.company.model.shape.ShapeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+
+/**
+ * Read-only model that keeps the states of the shapes at the ticks it has been asked for, so that
+ * playing the same ticks again, as a looping player or a scrubbing editor does, reads them back
+ * instead of tweening every shape again. States are worked out for a block of ticks at a time and
+ * kept in arrays of primitive values. The blocks used least recently are thrown away once they
+ * take up more than the given number of bytes.
+ *
+ * <p>When the model changes, the blocks with ticks that the change could affect are thrown away
+ * and worked out again when they are next needed. The cache is not safe to read from more than one
+ * thread at a time.</p>
+ */
+public final class BakedAnimatorModel implements ReadOnlyAnimatorModel {
+  /**
+   * The number of bytes a cache takes up if it isn't given another budget.
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 32L << 20;
+
+  // The number of ticks worked out at a time.
+  private static final int BLOCK_TICKS = 16;
+  // Rough sizes, in bytes, of a block and of each state in it, for keeping within the budget.
+  private static final int BLOCK_SIZE = 128;
+  private static final int STATE_SIZE = 5 * 8 + 3 * 4;
+
+  private final ReadOnlyAnimatorModel model;
+  private final long memoryBudget;
+  // The blocks by their index, with the least recently used first.
+  private final LinkedHashMap<Integer, Block> blocks;
+  private final List<ShapeState> scratch;
+  private long memoryUsed;
+
+  /**
+   * Creates a cache over the given model that takes up at most about the given number of bytes.
+   *
+   * @param model        the model to read states from
+   * @param memoryBudget the number of bytes the cache may take up
+   * @throws IllegalArgumentException if the model is null or the budget is negative
+   */
+  public BakedAnimatorModel(ReadOnlyAnimatorModel model, long memoryBudget) {
+    if (model == null) {
+      throw new IllegalArgumentException("Null model not allowed");
+    } else if (memoryBudget < 0) {
+      throw new IllegalArgumentException("Memory budget cannot be negative");
+    }
+    this.model = model;
+    this.memoryBudget = memoryBudget;
+    this.blocks = new LinkedHashMap<>(16, 0.75f, true);
+    this.scratch = new ArrayList<>();
+    this.memoryUsed = 0;
+    // registered before any view listens through this model, so blocks are thrown away before
+    // the views are told about the change
+    model.addChangeListener(this::modelChanged);
+  }
+
+  /**
+   * Creates a cache over the given model that takes up at most about
+   * {@link #DEFAULT_MEMORY_BUDGET} bytes.
+   *
+   * @param model the model to read states from
+   * @throws IllegalArgumentException if the model is null
+   */
+  public BakedAnimatorModel(ReadOnlyAnimatorModel model) {
+    this(model, DEFAULT_MEMORY_BUDGET);
+  }
+
+  @Override
+  public Map<String, Shape> shapesAt(int tick) {
+    Block block = this.blockAt(tick);
+    int from = block.offsets[tick - block.firstTick];
+    int to = block.offsets[tick - block.firstTick + 1];
+    Map<String, Shape> shapes = new LinkedHashMap<>();
+    ShapeState state = new ShapeState();
+    for (int i = from; i < to; i++) {
+      block.copyInto(i, state);
+      shapes.put(state.name, state.toShape());
+    }
+    return shapes;
+  }
+
+  @Override
+  public Shape shapeAt(String shapeName, int tick) {
+    // a single shape is quick to work out, and would need a search through the block
+    return model.shapeAt(shapeName, tick);
+  }
+
+  @Override
+  public int statesAt(int tick, List<ShapeState> states) {
+    Block block = this.blockAt(tick);
+    int from = block.offsets[tick - block.firstTick];
+    int to = block.offsets[tick - block.firstTick + 1];
+    for (int i = from; i < to; i++) {
+      block.copyInto(i, AAnimatorModel.stateAt(states, i - from));
+    }
+    return to - from;
+  }
+
+  /**
+   * Gets about how many bytes the cache is taking up.
+   *
+   * @return the estimated size of the kept blocks in bytes
+   */
+  public long getMemoryUsed() {
+    return memoryUsed;
+  }
+
+  /**
+   * Gets the block with the given tick, working it out if it isn't kept.
+   *
+   * @throws IllegalArgumentException if the tick is negative
+   */
+  private Block blockAt(int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+    int index = tick / BLOCK_TICKS;
+    Block block = blocks.get(index);
+    if (block != null) {
+      return block;
+    }
+
+    block = new Block(index * BLOCK_TICKS);
+    // a block larger than the whole budget is used once and not kept
+    if (block.size <= memoryBudget) {
+      blocks.put(index, block);
+      memoryUsed += block.size;
+      Iterator<Block> leastRecent = blocks.values().iterator();
+      while (memoryUsed > memoryBudget) {
+        memoryUsed -= leastRecent.next().size;
+        leastRecent.remove();
+      }
+    }
+    return block;
+  }
+
+  /**
+   * Throws away the blocks with ticks that the given change could affect.
+   */
+  private void modelChanged(ModelChangeEvent event) {
+    switch (event.getType()) {
+      case KeyframeAdded:
+      case KeyframeChanged:
+      case KeyframeRemoved:
+        // only the tweening between the keyframes either side of the tick has changed
+        SortedSet<Frame> frames = model.getKeyframes().get(event.getShapeName());
+        SortedSet<Frame> before = frames.headSet(new FrameImpl(event.getTick(), null));
+        SortedSet<Frame> after = frames.tailSet(new FrameImpl(event.getTick() + 1, null));
+        this.forgetTicks(before.isEmpty() ? 0 : (int) before.last().getTime(),
+            after.isEmpty() ? Integer.MAX_VALUE : (int) after.first().getTime());
+        break;
+      case ShapeCreated:
+        this.forgetTicks(event.getTick(), Integer.MAX_VALUE);
+        break;
+      case CanvasChanged:
+        // the states of the shapes don't depend on the canvas
+        break;
+      default:
+        // the shape deleted or the layers changed could be anywhere
+        blocks.clear();
+        memoryUsed = 0;
+        break;
+    }
+  }
+
+  /**
+   * Throws away the blocks with any ticks from the first tick to the last, inclusive.
+   */
+  private void forgetTicks(int firstTick, int lastTick) {
+    int firstBlock = firstTick / BLOCK_TICKS;
+    int lastBlock = lastTick / BLOCK_TICKS;
+    Iterator<Map.Entry<Integer, Block>> entries = blocks.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<Integer, Block> entry = entries.next();
+      if (entry.getKey() >= firstBlock && entry.getKey() <= lastBlock) {
+        memoryUsed -= entry.getValue().size;
+        entries.remove();
+      }
+    }
+  }
+
+  @Override
+  public Map<String, SortedSet<Frame>> getKeyframes() {
+    return model.getKeyframes();
+  }
+
+  @Override
+  public long getVersion() {
+    return model.getVersion();
+  }
+
+  @Override
+  public ReadOnlyAnimatorModel snapshot() {
+    return model.snapshot();
+  }
+
+  @Override
+  public int getCanvasHeight() {
+    return model.getCanvasHeight();
+  }
+
+  @Override
+  public int getCanvasWidth() {
+    return model.getCanvasWidth();
+  }
+
+  @Override
+  public int getCanvasX() {
+    return model.getCanvasX();
+  }
+
+  @Override
+  public int getCanvasY() {
+    return model.getCanvasY();
+  }
+
+  @Override
+  public double lastTick() {
+    return model.lastTick();
+  }
+
+  @Override
+  public double firstTick() {
+    return model.firstTick();
+  }
+
+  @Override
+  public List<String> getShapesInLayer(String layerName) {
+    return model.getShapesInLayer(layerName);
+  }
+
+  @Override
+  public boolean isShapeInLayer(String shapeName, String layerName) {
+    return model.isShapeInLayer(shapeName, layerName);
+  }
+
+  @Override
+  public Collection<String> getLayers() {
+    return model.getLayers();
+  }
+
+  @Override
+  public void addChangeListener(Consumer<ModelChangeEvent> listener) {
+    model.addChangeListener(listener);
+  }
+
+  @Override
+  public void removeChangeListener(Consumer<ModelChangeEvent> listener) {
+    model.removeChangeListener(listener);
+  }
+
+  /**
+   * The states of the shapes at a block of ticks, one after another in drawing order for each
+   * tick, with each attribute in its own array.
+   */
+  private final class Block {
+    private final int firstTick;
+    // The index of the first state of each tick, and the number of states after the last one.
+    private final int[] offsets;
+    // The attributes of the states, which may be longer than the number of states.
+    private String[] names = new String[0];
+    private ShapeType[] types = new ShapeType[0];
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private double[] widths = new double[0];
+    private double[] heights = new double[0];
+    private int[] rgbs = new int[0];
+    private double[] angles = new double[0];
+    private final long size;
+
+    /**
+     * Works out the states of the shapes at the ticks of the block starting at the given tick.
+     */
+    Block(int firstTick) {
+      this.firstTick = firstTick;
+      this.offsets = new int[BLOCK_TICKS + 1];
+      int total = 0;
+      int capacity = 0;
+      for (int i = 0; i < BLOCK_TICKS; i++) {
+        offsets[i] = total;
+        int count = model.statesAt(firstTick + i, scratch);
+        if (total + count > capacity) {
+          // most ticks in a block have about as many shapes as the first
+          capacity = Math.max(total + count, Math.max(capacity * 2, count * BLOCK_TICKS));
+          this.resize(capacity);
+        }
+        for (int j = 0; j < count; j++) {
+          ShapeState state = scratch.get(j);
+          names[total] = state.name;
+          types[total] = state.type;
+          xs[total] = state.x;
+          ys[total] = state.y;
+          widths[total] = state.width;
+          heights[total] = state.height;
+          rgbs[total] = state.rgb;
+          angles[total] = state.angle;
+          total += 1;
+        }
+      }
+      offsets[BLOCK_TICKS] = total;
+      this.size = BLOCK_SIZE + (long) capacity * STATE_SIZE;
+    }
+
+    private void resize(int capacity) {
+      names = Arrays.copyOf(names, capacity);
+      types = Arrays.copyOf(types, capacity);
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      widths = Arrays.copyOf(widths, capacity);
+      heights = Arrays.copyOf(heights, capacity);
+      rgbs = Arrays.copyOf(rgbs, capacity);
+      angles = Arrays.copyOf(angles, capacity);
+    }
+
+    /**
+     * Copies the state at the given index of the block into the given state.
+     */
+    void copyInto(int index, ShapeState state) {
+      state.name = names[index];
+      state.type = types[index];
+      state.x = xs[index];
+      state.y = ys[index];
+      state.width = widths[index];
+      state.height = heights[index];
+      state.rgb = rgbs[index];
+      state.angle = angles[index];
+    }
+  }
+}
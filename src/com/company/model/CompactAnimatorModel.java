@@ -0,0 +1,647 @@
+package com.company.model;
+
+import com.company.model.shape.Interner;
+import com.company.model.shape.PosnImpl;
+import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
+import com.company.model.shape.ShapeType;
+import com.company.util.AnimationBuilder;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents an animator model that stores each shape's keyframes as parallel arrays of primitive
+ * values instead of as {@link Frame} objects, so large animations take a fraction of the memory
+ * of {@link AnimatorModelImpl} and interpolation reads contiguous memory. Frames and shapes are
+ * only created when they are asked for, and the keyframes returned by {@link #getKeyframes()} are
+ * unmodifiable views of the arrays.
+ */
+public class CompactAnimatorModel extends AAnimatorModel {
+  private final Map<String, Timeline> timelines;
+
+  /**
+   * Default constructor that does not initialize any shapes.
+   */
+  public CompactAnimatorModel() {
+    super();
+    this.timelines = new LinkedHashMap<>();
+  }
+
+  @Override
+  public Map<String, Shape> shapesAt(int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+
+    Map<String, Shape> shapes = new LinkedHashMap<>();
+
+    // shapes before their first keyframe aren't drawn, so they are skipped
+    String[] drawOrder = this.getDrawOrder();
+    for (int i = this.nextDrawnShape(tick, 0); i >= 0; i = this.nextDrawnShape(tick, i + 1)) {
+      Timeline timeline = timelines.get(drawOrder[i]);
+      if (this.isStaticAt(i, tick)) {
+        shapes.put(drawOrder[i], timeline.shapeAt(timeline.size - 1));
+      } else {
+        shapes.put(drawOrder[i], timeline.shapeAtTick(tick));
+      }
+    }
+    return shapes;
+  }
+
+  @Override
+  public Shape shapeAt(String shapeName, int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+    Timeline timeline = timelines.get(shapeName);
+    if (timeline == null) {
+      throw new IllegalArgumentException("Shape does not exist " + shapeName);
+    }
+    return timeline.shapeAtTick(tick);
+  }
+
+  @Override
+  public int statesAt(int tick, List<ShapeState> states) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+
+    int count = 0;
+    // shapes before their first keyframe aren't drawn, and shapes after their last keyframe don't
+    // change, so only the timelines of shapes that are changing are searched
+    String[] drawOrder = this.getDrawOrder();
+    for (int i = this.nextDrawnShape(tick, 0); i >= 0; i = this.nextDrawnShape(tick, i + 1)) {
+      Timeline timeline = timelines.get(drawOrder[i]);
+      ShapeState state = stateAt(states, count);
+      state.name = drawOrder[i];
+      if (this.isStaticAt(i, tick)) {
+        timeline.stateAt(timeline.size - 1, state);
+      } else {
+        timeline.interpolateInto(timeline.segmentAt(tick), tick, state);
+      }
+      count += 1;
+    }
+    return count;
+  }
+
+  @Override
+  public void createKeyframe(String shapeName, Shape shape, int tick, String layerName) {
+    this.checkLayer(layerName);
+
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+
+    ModelChangeType change = this.putKeyframe(shapeName, shape.getShapeType(), tick,
+        shape.getPosition().getX(), shape.getPosition().getY(), shape.getWidth(),
+        shape.getHeight(), shape.getColor().getRGB(), shape.getShapeAngle());
+
+    boolean addedToLayer = this.addToLayer(layerName, shapeName);
+    if (change == ModelChangeType.ShapeCreated) {
+      this.modelChanged(new ModelChangeEvent(change, shapeName, tick, layerName));
+    } else {
+      this.keyframeCreated(change, shapeName, tick, layerName, addedToLayer);
+    }
+  }
+
+  @Override
+  public void removeKeyframe(String shapeName, int tick) {
+    Timeline timeline = timelines.get(shapeName);
+    int index = timeline == null ? -1 : timeline.indexOf(tick);
+    if (index < 0) {
+      throw new IllegalArgumentException("A keyframe did not exist for the given shape at the " +
+          "given tick.");
+    }
+
+    if (timeline.size == 1) {
+      this.deleteShape(shapeName);
+    } else {
+      this.removeTimelineBounds(timeline.times[0], timeline.times[timeline.size - 1]);
+      timeline.remove(index);
+      this.addTimelineBounds(shapeName, timeline.times[0], timeline.times[timeline.size - 1]);
+      this.modelChanged(
+          new ModelChangeEvent(ModelChangeType.KeyframeRemoved, shapeName, tick, null));
+    }
+  }
+
+  /**
+   * Removes the keyframes for the given shape at each of the given points in time, moving the
+   * keyframes that are kept once. If any of the keyframes doesn't exist, none are removed.
+   *
+   * @param shapeName name of the shape whose keyframes are to be removed
+   * @param ticks     ticks at which to remove the keyframes
+   * @throws IllegalArgumentException if a keyframe does not exist for the given shape at one of
+   *                                  the given ticks
+   */
+  @Override
+  public void removeKeyframes(String shapeName, int[] ticks) {
+    Timeline timeline = timelines.get(shapeName);
+    boolean[] removed = new boolean[timeline == null ? 0 : timeline.size];
+    for (int tick : ticks) {
+      int index = timeline == null ? -1 : timeline.indexOf(tick);
+      if (index < 0 || removed[index]) {
+        throw new IllegalArgumentException("A keyframe did not exist for the given shape at the " +
+            "given tick.");
+      }
+      removed[index] = true;
+    }
+
+    if (ticks.length == 0) {
+      return;
+    } else if (ticks.length == timeline.size) {
+      this.deleteShape(shapeName);
+    } else {
+      this.removeTimelineBounds(timeline.times[0], timeline.times[timeline.size - 1]);
+      timeline.removeAll(removed);
+      this.addTimelineBounds(shapeName, timeline.times[0], timeline.times[timeline.size - 1]);
+      for (int tick : ticks) {
+        this.modelChanged(
+            new ModelChangeEvent(ModelChangeType.KeyframeRemoved, shapeName, tick, null));
+      }
+    }
+  }
+
+  @Override
+  public void deleteShape(String shapeName) {
+    if (timelines.containsKey(shapeName)) {
+      Timeline timeline = timelines.remove(shapeName);
+      this.removeTimelineBounds(timeline.times[0], timeline.times[timeline.size - 1]);
+      this.removeKeyframeView(shapeName);
+      String layerName = this.removeFromLayers(shapeName);
+      this.modelChanged(
+          new ModelChangeEvent(ModelChangeType.ShapeDeleted, shapeName, -1, layerName));
+    } else {
+      throw new IllegalArgumentException("Cannot remove nonexistent shape " + shapeName);
+    }
+  }
+
+  /**
+   * Adds a keyframe to the timeline of the given shape, replacing any keyframe at the same tick,
+   * and creating the timeline if the shape doesn't exist yet.
+   *
+   * @param shapeName the name of the shape
+   * @param type      the type of the shape
+   * @param tick      the tick of the keyframe
+   * @param x         the x position of the shape
+   * @param y         the y position of the shape
+   * @param width     the width of the shape
+   * @param height    the height of the shape
+   * @param rgb       the color of the shape as an ARGB value
+   * @param angle     the angle of the shape
+   * @return whether the shape was created, or a keyframe was added to it or replaced
+   * @throws IllegalArgumentException if the shape exists with a different type
+   */
+  private ModelChangeType putKeyframe(String shapeName, ShapeType type, int tick, double x,
+                                      double y, double width, double height, int rgb,
+                                      double angle) {
+    Timeline timeline = this.timelineFor(shapeName, type);
+    if (timeline.size == 0) {
+      timeline.put(tick, x, y, width, height, rgb, angle);
+      this.addTimelineBounds(shapeName, tick, tick);
+      return ModelChangeType.ShapeCreated;
+    }
+
+    int first = timeline.times[0];
+    int last = timeline.times[timeline.size - 1];
+    boolean replaced = timeline.put(tick, x, y, width, height, rgb, angle);
+    if (tick < first || tick > last) {
+      this.removeTimelineBounds(first, last);
+      this.addTimelineBounds(shapeName, timeline.times[0], timeline.times[timeline.size - 1]);
+    }
+    return replaced ? ModelChangeType.KeyframeChanged : ModelChangeType.KeyframeAdded;
+  }
+
+  /**
+   * Gets the timeline of the given shape, creating an empty one if the shape doesn't exist yet.
+   *
+   * @param shapeName the name of the shape
+   * @param type      the type of the shape
+   * @return the timeline of the shape
+   * @throws IllegalArgumentException if the shape exists with a different type
+   */
+  private Timeline timelineFor(String shapeName, ShapeType type) {
+    Timeline timeline = timelines.get(shapeName);
+    if (timeline == null) {
+      timeline = new Timeline(type);
+      timelines.put(shapeName, timeline);
+      this.addKeyframeView(shapeName, timeline.view);
+    } else if (timeline.type != type) {
+      throw new IllegalArgumentException("Shape is not the same type as other keyframes.");
+    }
+    return timeline;
+  }
+
+  /**
+   * The keyframes of a single shape, stored as columns that share an index: the keyframe at index
+   * i is at times[i], at position (x[i], y[i]), and so on. Keyframes are sorted by time, with no
+   * two at the same time.
+   */
+  private static class Timeline {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final ShapeType type;
+    private int size;
+    private int[] times;
+    private double[] x;
+    private double[] y;
+    private double[] width;
+    private double[] height;
+    // Colors as ARGB values, as given by Color.getRGB.
+    private int[] rgb;
+    private double[] angle;
+    // The index of the segment the last tick was in, see segmentAt.
+    private int cursor;
+    // The view of these keyframes as frames.
+    private final AFrameSetView view;
+
+    /**
+     * Creates an empty timeline for a shape of the given type.
+     *
+     * @param type the type of the shape
+     */
+    Timeline(ShapeType type) {
+      this.type = type;
+      this.size = 0;
+      this.times = new int[INITIAL_CAPACITY];
+      this.x = new double[INITIAL_CAPACITY];
+      this.y = new double[INITIAL_CAPACITY];
+      this.width = new double[INITIAL_CAPACITY];
+      this.height = new double[INITIAL_CAPACITY];
+      this.rgb = new int[INITIAL_CAPACITY];
+      this.angle = new double[INITIAL_CAPACITY];
+      this.cursor = -1;
+      this.view = new FrameView();
+    }
+
+    /**
+     * Finds the keyframe at the given tick.
+     *
+     * @param tick the tick to look for
+     * @return the index of the keyframe, or -1 if there is no keyframe at that tick
+     */
+    int indexOf(int tick) {
+      int index = Arrays.binarySearch(times, 0, size, tick);
+      return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Finds the last keyframe at or before the given tick. Checks the segment found by the
+     * previous call and the one after it before searching, so that playing the animation tick by
+     * tick takes constant time.
+     *
+     * @param tick the tick to look for
+     * @return the index of the last keyframe at or before the tick, or -1 if there is none
+     */
+    int segmentAt(int tick) {
+      if (!this.inSegment(cursor, tick)) {
+        if (this.inSegment(cursor + 1, tick)) {
+          cursor += 1;
+        } else {
+          int index = Arrays.binarySearch(times, 0, size, tick);
+          // when the tick isn't a keyframe, the search returns -(insertion point) - 1
+          cursor = index >= 0 ? index : -index - 2;
+        }
+      }
+      return cursor;
+    }
+
+    /**
+     * Checks whether the given tick is at or after the keyframe at the given index, and before the
+     * keyframe after it. The index -1 stands for the time before the first keyframe.
+     *
+     * @param index the index of the keyframe starting the segment
+     * @param tick  the tick to check
+     * @return whether the tick is in the segment
+     */
+    private boolean inSegment(int index, int tick) {
+      if (index < -1 || index >= size) {
+        return false;
+      }
+      return (index == -1 || times[index] <= tick)
+          && (index == size - 1 || tick < times[index + 1]);
+    }
+
+    /**
+     * Creates the shape at the given tick, interpolating between the keyframes around it.
+     *
+     * @param tick the tick
+     * @return the shape at that tick, or null if the tick is before the first keyframe
+     */
+    Shape shapeAtTick(int tick) {
+      int index = this.segmentAt(tick);
+      if (index == size - 1) {
+        // no frame after this time, use latest frame
+        return this.shapeAt(index);
+      } else if (index >= 0) {
+        // both frames exist, interpolate
+        return this.interpolate(index, tick);
+      }
+      return null;
+    }
+
+    /**
+     * Creates the shape of the keyframe at the given index.
+     *
+     * @param index the index of the keyframe
+     * @return the shape of that keyframe
+     */
+    Shape shapeAt(int index) {
+      return type.getShape(Interner.posn(x[index], y[index]), width[index], height[index],
+          Interner.color(rgb[index]), angle[index]);
+    }
+
+    /**
+     * Creates the shape at the given tick, between the keyframe at the given index and the one
+     * after it.
+     *
+     * @param index the index of the keyframe before the tick
+     * @param tick  the tick, which must be in the segment starting at the index
+     * @return the interpolated shape
+     */
+    Shape interpolate(int index, int tick) {
+      ShapeState state = new ShapeState();
+      this.interpolateInto(index, tick, state);
+      // not shared, since tweened shapes are nearly always somewhere new
+      return type.getShape(new PosnImpl(state.x, state.y), state.width, state.height,
+          new Color(state.rgb), state.angle);
+    }
+
+    /**
+     * Writes the keyframe at the given index into the given state.
+     *
+     * @param index the index of the keyframe
+     * @param state the state to write into
+     */
+    void stateAt(int index, ShapeState state) {
+      state.type = type;
+      state.x = x[index];
+      state.y = y[index];
+      state.width = width[index];
+      state.height = height[index];
+      state.rgb = rgb[index];
+      state.angle = angle[index];
+    }
+
+    /**
+     * Writes the state at the given tick, between the keyframe at the given index and the one
+     * after it, into the given state. Interpolates the same way as {@link Shape#interpolate}.
+     *
+     * @param index the index of the keyframe before the tick
+     * @param tick  the tick, which must be in the segment starting at the index
+     * @param state the state to write into
+     */
+    void interpolateInto(int index, int tick, ShapeState state) {
+      double progress = (tick - (double) times[index]) / (times[index + 1] - times[index]);
+      int from = rgb[index];
+      int to = rgb[index + 1];
+      state.type = type;
+      state.x = interpolateNum(x[index], x[index + 1], progress);
+      state.y = interpolateNum(y[index], y[index + 1], progress);
+      state.width = interpolateNum(width[index], width[index + 1], progress);
+      state.height = interpolateNum(height[index], height[index + 1], progress);
+      state.setColor(
+          interpolateChannel(from >> 16, to >> 16, progress),
+          interpolateChannel(from >> 8, to >> 8, progress),
+          interpolateChannel(from, to, progress));
+      state.angle = interpolateNum(angle[index], angle[index + 1], progress);
+    }
+
+    /**
+     * Adds a keyframe at the given tick, replacing any keyframe already at that tick.
+     *
+     * @param tick   the tick of the keyframe
+     * @param x      the x position of the shape
+     * @param y      the y position of the shape
+     * @param width  the width of the shape
+     * @param height the height of the shape
+     * @param rgb    the color of the shape as an ARGB value
+     * @param angle  the angle of the shape
+     * @return whether a keyframe at the same tick was replaced
+     */
+    boolean put(int tick, double x, double y, double width, double height, int rgb,
+                double angle) {
+      int index;
+      boolean replaced = false;
+      if (size == 0 || times[size - 1] < tick) {
+        // appending, which is what happens when reading a file
+        index = size;
+        this.insertGap(index);
+      } else {
+        index = Arrays.binarySearch(times, 0, size, tick);
+        if (index < 0) {
+          index = -index - 1;
+          this.insertGap(index);
+        } else {
+          replaced = true;
+        }
+      }
+
+      this.times[index] = tick;
+      this.x[index] = x;
+      this.y[index] = y;
+      this.width[index] = width;
+      this.height[index] = height;
+      this.rgb[index] = rgb;
+      this.angle[index] = angle;
+      return replaced;
+    }
+
+    /**
+     * Removes the keyframe at the given index.
+     *
+     * @param index the index of the keyframe
+     */
+    void remove(int index) {
+      int moved = size - index - 1;
+      System.arraycopy(times, index + 1, times, index, moved);
+      System.arraycopy(x, index + 1, x, index, moved);
+      System.arraycopy(y, index + 1, y, index, moved);
+      System.arraycopy(width, index + 1, width, index, moved);
+      System.arraycopy(height, index + 1, height, index, moved);
+      System.arraycopy(rgb, index + 1, rgb, index, moved);
+      System.arraycopy(angle, index + 1, angle, index, moved);
+      size -= 1;
+      cursor = -1;
+    }
+
+    /**
+     * Removes the keyframes at the given indices, moving each kept keyframe at most once.
+     *
+     * @param removed whether each keyframe is to be removed, by index
+     */
+    void removeAll(boolean[] removed) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        if (!removed[i]) {
+          times[kept] = times[i];
+          x[kept] = x[i];
+          y[kept] = y[i];
+          width[kept] = width[i];
+          height[kept] = height[i];
+          rgb[kept] = rgb[i];
+          angle[kept] = angle[i];
+          kept += 1;
+        }
+      }
+      size = kept;
+      cursor = -1;
+    }
+
+    /**
+     * Makes room for a keyframe at the given index, growing the columns if they are full.
+     *
+     * @param index the index of the new keyframe
+     */
+    private void insertGap(int index) {
+      if (size == times.length) {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        rgb = Arrays.copyOf(rgb, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+      }
+      int moved = size - index;
+      System.arraycopy(times, index, times, index + 1, moved);
+      System.arraycopy(x, index, x, index + 1, moved);
+      System.arraycopy(y, index, y, index + 1, moved);
+      System.arraycopy(width, index, width, index + 1, moved);
+      System.arraycopy(height, index, height, index + 1, moved);
+      System.arraycopy(rgb, index, rgb, index + 1, moved);
+      System.arraycopy(angle, index, angle, index + 1, moved);
+      size += 1;
+      cursor = -1;
+    }
+
+    /**
+     * Interpolates between the given from and to numbers, with the given progress.
+     *
+     * @param from     the start number
+     * @param to       the end number
+     * @param progress the weight to assign to the end number in the weighted average
+     * @return a weighted average, {@code (1 - progress) * from + progress * to}
+     */
+    private static double interpolateNum(double from, double to, double progress) {
+      return from + progress * (to - from);
+    }
+
+    /**
+     * Interpolates between the lowest 8 bits of the given from and to colors, rounding to the
+     * nearest color value.
+     *
+     * @param from     the start color, whose lowest 8 bits are the channel to interpolate
+     * @param to       the end color, whose lowest 8 bits are the channel to interpolate
+     * @param progress the weight to assign to the end color
+     * @return the interpolated channel value
+     */
+    private static int interpolateChannel(int from, int to, double progress) {
+      return (int) Math.round(interpolateNum(from & 0xFF, to & 0xFF, progress));
+    }
+
+    /**
+     * The keyframes of this timeline as a set of frames.
+     */
+    private class FrameView extends AFrameSetView {
+      @Override
+      protected double timeAt(int index) {
+        return times[index];
+      }
+
+      @Override
+      protected Frame frameAt(int index) {
+        return new FrameImpl(times[index], shapeAt(index));
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    }
+  }
+
+  /**
+   * Inner class that allows you to build a compact animator model.
+   */
+  public static final class Builder implements AnimationBuilder<AnimatorModel> {
+    private final CompactAnimatorModel model;
+    private final Map<String, ShapeType> shapeTypes;
+    // Maps the shapes names to layer names.
+    private final Map<String, String> layers;
+
+    /**
+     * Creates a new builder with a default empty model.
+     */
+    public Builder() {
+      this.model = new CompactAnimatorModel();
+      this.shapeTypes = new HashMap<>();
+      this.layers = new HashMap<>();
+    }
+
+    @Override
+    public AnimatorModel build() {
+      return this.model;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> setBounds(int x, int y, int width, int height) {
+      model.setCanvasX(x);
+      model.setCanvasY(y);
+      model.setCanvasWidth(width);
+      model.setCanvasHeight(height);
+
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareShape(String name, String type) {
+      return this.declareShape(name, type, DEFAULT_LAYER_NAME);
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareShape(String name, String type, String layer) {
+      this.shapeTypes.put(name, ShapeType.getShapeTypeFromString(type));
+      this.layers.put(name, layer);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> declareLayer(String layerName) {
+      model.addLayer(layerName);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> addMotion(
+        String name,
+        int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1, double a1,
+        int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2, double a2) {
+      return addKeyframe(name, t1, x1, y1, w1, h1, r1, g1, b1, a1)
+          .addKeyframe(name, t2, x2, y2, w2, h2, r2, g2, b2, a2);
+    }
+
+    @Override
+    public AnimationBuilder<AnimatorModel> addKeyframe(
+        String name, int t, int x, int y, int w, int h, int r, int g, int b, double a) {
+      if (t < 0) {
+        throw new IllegalArgumentException("Time cannot be negative");
+      }
+      String layerName = layers.get(name);
+      if (!model.timelines.containsKey(name) && !model.getLayers().contains(layerName)) {
+        // the layer is made when its first shape is, so layers stay in the same order
+        model.addLayer(layerName);
+      }
+
+      // write straight into the columns rather than creating a shape for each keyframe
+      model.putKeyframe(name, shapeTypes.get(name), t, x, y, w, h, new Color(r, g, b).getRGB(), a);
+      model.addToLayer(layerName, name);
+      return this;
+    }
+  }
+}
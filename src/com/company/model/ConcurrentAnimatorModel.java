@@ -0,0 +1,280 @@
+package com.company.model;
+
+import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+
+/**
+ * Model that can be read from any number of threads while another thread edits it. Edits are made
+ * to the given model one at a time, and after each one a snapshot of the model is published
+ * through a volatile field. Reads never lock: they go to the last published snapshot, which never
+ * changes, so readers always see the model as it was between two edits and can never see an edit
+ * half made. A reader on the same thread as the editor sees each edit as soon as it is made.
+ *
+ * <p>The given model must not be edited other than through this one, and its snapshots must not
+ * change, as those of {@link AnimatorModelImpl} and {@link CompactAnimatorModel} don't. An edit
+ * that makes many changes, like deleting a layer, is published once, when all of them have been
+ * made. Change listeners are told about each change on the thread that made it, once the edit it
+ * was part of has been published, so that they can read the change through this model.</p>
+ */
+public final class ConcurrentAnimatorModel implements AnimatorModel {
+  private final AnimatorModel model;
+  // Held while editing the model, so that only one thread edits it at a time.
+  private final Object editLock;
+  private final Map<String, SortedSet<Frame>> keyframes;
+  // Told about changes once they are published. Only changed while holding the edit lock.
+  private final List<Consumer<ModelChangeEvent>> listeners;
+  // The changes made by the edit being made, to tell the listeners about once it is published.
+  private final List<ModelChangeEvent> pending;
+  // The model as it was after the last edit.
+  private volatile ReadOnlyAnimatorModel published;
+
+  /**
+   * Creates a model that publishes the given model to readers after every edit.
+   *
+   * @param model the model to edit, which must only be edited through this model from now on
+   * @throws IllegalArgumentException if the model is null
+   */
+  public ConcurrentAnimatorModel(AnimatorModel model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Null model not allowed");
+    }
+    this.model = model;
+    this.editLock = new Object();
+    this.keyframes = new KeyframesView();
+    this.listeners = new ArrayList<>();
+    this.pending = new ArrayList<>();
+    this.published = model.snapshot();
+    model.addChangeListener(this::modelChanged);
+  }
+
+  /**
+   * Makes the given edit to the model, then publishes the model as it is afterwards, even if the
+   * edit failed part way through, and tells the listeners about the changes it made.
+   *
+   * @param edit the edit to make
+   */
+  private void edit(Runnable edit) {
+    synchronized (editLock) {
+      try {
+        edit.run();
+      } finally {
+        published = model.snapshot();
+        // taken first, so that listeners can make edits of their own while being told
+        List<ModelChangeEvent> events = new ArrayList<>(pending);
+        pending.clear();
+        // copied, so that listeners can stop listening while they are being told about a change
+        List<Consumer<ModelChangeEvent>> told = new ArrayList<>(listeners);
+        for (ModelChangeEvent event : events) {
+          for (Consumer<ModelChangeEvent> listener : told) {
+            listener.accept(event);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Keeps the given change to tell the listeners about once the edit making it is published.
+   *
+   * @param event the change
+   */
+  private void modelChanged(ModelChangeEvent event) {
+    pending.add(event);
+  }
+
+  @Override
+  public void createKeyframe(String shapeName, Shape shape, int tick) {
+    this.edit(() -> model.createKeyframe(shapeName, shape, tick));
+  }
+
+  @Override
+  public void createKeyframe(String shapeName, Shape shape, int tick, String layerName) {
+    this.edit(() -> model.createKeyframe(shapeName, shape, tick, layerName));
+  }
+
+  @Override
+  public void setCanvasWidth(int canvasWidth) {
+    this.edit(() -> model.setCanvasWidth(canvasWidth));
+  }
+
+  @Override
+  public void setCanvasHeight(int canvasHeight) {
+    this.edit(() -> model.setCanvasHeight(canvasHeight));
+  }
+
+  @Override
+  public void setCanvasX(int canvasX) {
+    this.edit(() -> model.setCanvasX(canvasX));
+  }
+
+  @Override
+  public void setCanvasY(int canvasY) {
+    this.edit(() -> model.setCanvasY(canvasY));
+  }
+
+  @Override
+  public void removeKeyframe(String shapeName, int tick) {
+    this.edit(() -> model.removeKeyframe(shapeName, tick));
+  }
+
+  @Override
+  public void removeKeyframes(String shapeName, int[] ticks) {
+    this.edit(() -> model.removeKeyframes(shapeName, ticks));
+  }
+
+  @Override
+  public void deleteShape(String shapeName) {
+    this.edit(() -> model.deleteShape(shapeName));
+  }
+
+  @Override
+  public void moveLayerUp(String layerName) {
+    this.edit(() -> model.moveLayerUp(layerName));
+  }
+
+  @Override
+  public void moveLayerDown(String layerName) {
+    this.edit(() -> model.moveLayerDown(layerName));
+  }
+
+  @Override
+  public void addLayer(String layerName) {
+    this.edit(() -> model.addLayer(layerName));
+  }
+
+  @Override
+  public void deleteLayer(String layerName) {
+    this.edit(() -> model.deleteLayer(layerName));
+  }
+
+  @Override
+  public Map<String, Shape> shapesAt(int tick) {
+    return published.shapesAt(tick);
+  }
+
+  @Override
+  public Shape shapeAt(String shapeName, int tick) {
+    return published.shapeAt(shapeName, tick);
+  }
+
+  @Override
+  public int statesAt(int tick, List<ShapeState> states) {
+    return published.statesAt(tick, states);
+  }
+
+  /**
+   * Gets the keyframes of every shape. The map always reads from the model as it was after the
+   * last edit, but the sets it gives out are the keyframes as they were when they were got, and
+   * don't change.
+   *
+   * @return the keyframes of every shape by name
+   */
+  @Override
+  public Map<String, SortedSet<Frame>> getKeyframes() {
+    return keyframes;
+  }
+
+  @Override
+  public long getVersion() {
+    return published.getVersion();
+  }
+
+  @Override
+  public ReadOnlyAnimatorModel snapshot() {
+    return published;
+  }
+
+  @Override
+  public int getCanvasHeight() {
+    return published.getCanvasHeight();
+  }
+
+  @Override
+  public int getCanvasWidth() {
+    return published.getCanvasWidth();
+  }
+
+  @Override
+  public int getCanvasX() {
+    return published.getCanvasX();
+  }
+
+  @Override
+  public int getCanvasY() {
+    return published.getCanvasY();
+  }
+
+  @Override
+  public double lastTick() {
+    return published.lastTick();
+  }
+
+  @Override
+  public double firstTick() {
+    return published.firstTick();
+  }
+
+  @Override
+  public List<String> getShapesInLayer(String layerName) {
+    return published.getShapesInLayer(layerName);
+  }
+
+  @Override
+  public boolean isShapeInLayer(String shapeName, String layerName) {
+    return published.isShapeInLayer(shapeName, layerName);
+  }
+
+  @Override
+  public Collection<String> getLayers() {
+    return published.getLayers();
+  }
+
+  @Override
+  public void addChangeListener(Consumer<ModelChangeEvent> listener) {
+    // the listeners are only safe to change between edits
+    synchronized (editLock) {
+      listeners.add(listener);
+    }
+  }
+
+  @Override
+  public void removeChangeListener(Consumer<ModelChangeEvent> listener) {
+    synchronized (editLock) {
+      listeners.remove(listener);
+    }
+  }
+
+  /**
+   * The keyframes of every shape as they were after the last edit, as a read-only map.
+   */
+  private class KeyframesView extends AbstractMap<String, SortedSet<Frame>> {
+    @Override
+    public SortedSet<Frame> get(Object key) {
+      return published.getKeyframes().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return published.getKeyframes().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return published.getKeyframes().size();
+    }
+
+    @Override
+    public Set<Entry<String, SortedSet<Frame>>> entrySet() {
+      return published.getKeyframes().entrySet();
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package com.company.model;
+
+import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+/**
+ * Removes keyframes that the animation barely needs, the way the Ramer-Douglas-Peucker algorithm
+ * simplifies a line. For each shape, the first and last keyframes are kept. Every keyframe between
+ * two kept ones is compared to the state tweening straight between them would give at its tick,
+ * and the one furthest from it is kept as well, if it is further than the tolerance. This is
+ * repeated on both sides of every kept keyframe until every removed keyframe is within the
+ * tolerance of where the remaining ones put the shape at its tick.
+ *
+ * <p>Each kind of attribute has its own tolerance: how far the shape may be moved, how much its
+ * width and height may change, how much each channel of its color may change, and how far it may
+ * be rotated. With every tolerance at zero, only keyframes that tweening would put in exactly the
+ * same place are removed, which changes the animation by no more than rounding.</p>
+ */
+public final class KeyframeSimplifier {
+  // Allowed for rounding, so that keyframes right on the line are always removed.
+  private static final double EPSILON = 1e-9;
+
+  private final double positionTolerance;
+  private final double sizeTolerance;
+  private final double colorTolerance;
+  private final double angleTolerance;
+
+  private KeyframeSimplifier(Builder builder) {
+    this.positionTolerance = builder.positionTolerance;
+    this.sizeTolerance = builder.sizeTolerance;
+    this.colorTolerance = builder.colorTolerance;
+    this.angleTolerance = builder.angleTolerance;
+  }
+
+  /**
+   * Creates a simplifier with the same tolerance for every attribute: the number of pixels a shape
+   * may move or grow, the number of units out of 255 each channel of its color may change, and the
+   * number of degrees it may rotate.
+   *
+   * @param tolerance the tolerance for every attribute
+   * @return the simplifier
+   * @throws IllegalArgumentException if the tolerance is negative
+   */
+  public static KeyframeSimplifier withTolerance(double tolerance) {
+    return new Builder().positionTolerance(tolerance).sizeTolerance(tolerance)
+        .colorTolerance(tolerance).angleTolerance(tolerance).build();
+  }
+
+  /**
+   * Removes the keyframes of every shape in the model that are within the tolerances of where the
+   * other keyframes would put the shape.
+   *
+   * @param model the model to simplify
+   * @return the number of keyframes removed
+   */
+  public int simplify(AnimatorModel model) {
+    // the keyframes are only removed once every shape has been worked out, since removing them
+    // changes the sets being read
+    Map<String, SortedSet<Frame>> keyframes = model.getKeyframes();
+    List<String> names = new ArrayList<>(keyframes.keySet());
+    int removed = 0;
+    for (String name : names) {
+      int[] ticks = this.removableTicks(keyframes.get(name));
+      if (ticks.length > 0) {
+        // removed together, so that models keeping keyframes in arrays only move them once
+        model.removeKeyframes(name, ticks);
+        removed += ticks.length;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Works out which keyframes of one shape can be removed.
+   *
+   * @param frames the keyframes of the shape
+   * @return the ticks of the keyframes to remove, in increasing order
+   */
+  int[] removableTicks(SortedSet<Frame> frames) {
+    int count = frames.size();
+    if (count < 3) {
+      return new int[0];
+    }
+    double[] times = new double[count];
+    Shape[] shapes = new Shape[count];
+    int index = 0;
+    for (Frame frame : frames) {
+      times[index] = frame.getTime();
+      shapes[index] = frame.getShape();
+      index += 1;
+    }
+
+    boolean[] kept = new boolean[count];
+    kept[0] = true;
+    kept[count - 1] = true;
+    ShapeState tweened = new ShapeState();
+    ShapeState actual = new ShapeState();
+    // the runs of keyframes still to check, as pairs of the keyframes kept on either side, so that
+    // long runs don't need deep recursion
+    int[] runs = new int[2 * count];
+    int runCount = 0;
+    runs[runCount++] = 0;
+    runs[runCount++] = count - 1;
+    while (runCount > 0) {
+      int last = runs[--runCount];
+      int first = runs[--runCount];
+      int worst = -1;
+      double worstError = 1 + EPSILON;
+      for (int i = first + 1; i < last; i++) {
+        shapes[first].interpolateInto(shapes[last],
+            (times[i] - times[first]) / (times[last] - times[first]), tweened);
+        actual.set(shapes[i]);
+        double error = this.error(tweened, actual);
+        if (error > worstError) {
+          worst = i;
+          worstError = error;
+        }
+      }
+      if (worst >= 0) {
+        kept[worst] = true;
+        runs[runCount++] = first;
+        runs[runCount++] = worst;
+        runs[runCount++] = worst;
+        runs[runCount++] = last;
+      }
+    }
+
+    int[] ticks = new int[count];
+    int removed = 0;
+    for (int i = 0; i < count; i++) {
+      if (!kept[i]) {
+        ticks[removed++] = (int) times[i];
+      }
+    }
+    int[] result = new int[removed];
+    System.arraycopy(ticks, 0, result, 0, removed);
+    return result;
+  }
+
+  /**
+   * Measures how far a state is from another, as a multiple of the tolerance of the attribute that
+   * is furthest off, so that anything above one is out of tolerance.
+   */
+  private double error(ShapeState tweened, ShapeState actual) {
+    double error = 0;
+    error = Math.max(error, scaled(
+        Math.hypot(tweened.x - actual.x, tweened.y - actual.y), positionTolerance));
+    error = Math.max(error, scaled(Math.max(Math.abs(tweened.width - actual.width),
+        Math.abs(tweened.height - actual.height)), sizeTolerance));
+    int colorChange = 0;
+    for (int shift = 0; shift <= 24; shift += 8) {
+      colorChange = Math.max(colorChange,
+          Math.abs(((tweened.rgb >>> shift) & 0xFF) - ((actual.rgb >>> shift) & 0xFF)));
+    }
+    error = Math.max(error, scaled(colorChange, colorTolerance));
+    error = Math.max(error, scaled(Math.abs(tweened.angle - actual.angle), angleTolerance));
+    return error;
+  }
+
+  private static double scaled(double change, double tolerance) {
+    if (change <= EPSILON) {
+      return 0;
+    }
+    // kept finite for a tolerance of zero, so that the keyframe furthest off is still found
+    return change / Math.max(tolerance, EPSILON);
+  }
+
+  /**
+   * Builder for a simplifier with a tolerance for each kind of attribute. Every tolerance starts at
+   * zero.
+   */
+  public static final class Builder {
+    private double positionTolerance;
+    private double sizeTolerance;
+    private double colorTolerance;
+    private double angleTolerance;
+
+    /**
+     * Sets how many pixels a shape may be moved from where it was at the tick of a removed
+     * keyframe.
+     *
+     * @param pixels the distance
+     * @return this builder
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public Builder positionTolerance(double pixels) {
+      this.positionTolerance = checkTolerance(pixels);
+      return this;
+    }
+
+    /**
+     * Sets how many pixels the width and height of a shape may change from what they were at the
+     * tick of a removed keyframe.
+     *
+     * @param pixels the change in size
+     * @return this builder
+     * @throws IllegalArgumentException if the change is negative
+     */
+    public Builder sizeTolerance(double pixels) {
+      this.sizeTolerance = checkTolerance(pixels);
+      return this;
+    }
+
+    /**
+     * Sets how much each channel of the color of a shape may change from what it was at the tick
+     * of a removed keyframe, out of 255.
+     *
+     * @param units the change in each channel
+     * @return this builder
+     * @throws IllegalArgumentException if the change is negative
+     */
+    public Builder colorTolerance(double units) {
+      this.colorTolerance = checkTolerance(units);
+      return this;
+    }
+
+    /**
+     * Sets how many degrees a shape may be rotated from where it was at the tick of a removed
+     * keyframe.
+     *
+     * @param degrees the rotation
+     * @return this builder
+     * @throws IllegalArgumentException if the rotation is negative
+     */
+    public Builder angleTolerance(double degrees) {
+      // shapes keep their angles in radians
+      this.angleTolerance = Math.toRadians(checkTolerance(degrees));
+      return this;
+    }
+
+    /**
+     * Creates the simplifier with the tolerances given so far.
+     *
+     * @return the simplifier
+     */
+    public KeyframeSimplifier build() {
+      return new KeyframeSimplifier(this);
+    }
+
+    private static double checkTolerance(double tolerance) {
+      if (tolerance < 0 || Double.isNaN(tolerance)) {
+        throw new IllegalArgumentException("Tolerance cannot be negative");
+      }
+      return tolerance;
+    }
+  }
+}
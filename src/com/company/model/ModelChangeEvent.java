@@ -0,0 +1,86 @@
+package com.company.model;
+
+/**
+ * Describes a single change made to an animator model: what kind of change it was, and which
+ * shape, tick and layer it was made to. Listeners registered with
+ * {@link ReadOnlyAnimatorModel#addChangeListener} are given one event for every change, so that
+ * they only have to update the parts of a view that show what changed.
+ */
+public final class ModelChangeEvent {
+  private final ModelChangeType type;
+  private final String shapeName;
+  private final int tick;
+  private final String layerName;
+
+  /**
+   * Creates an event describing a change to the model.
+   *
+   * @param type      the kind of change
+   * @param shapeName the name of the shape that changed, or null if the change isn't to a shape
+   * @param tick      the tick of the keyframe that changed, or -1 if the change isn't to a keyframe
+   * @param layerName the name of the layer that changed, or of the layer of the shape that
+   *                  changed, or null if the change isn't to a layer or a shape
+   * @throws IllegalArgumentException if the type is null
+   */
+  public ModelChangeEvent(ModelChangeType type, String shapeName, int tick, String layerName) {
+    if (type == null) {
+      throw new IllegalArgumentException("The type of change cannot be null");
+    }
+    this.type = type;
+    this.shapeName = shapeName;
+    this.tick = tick;
+    this.layerName = layerName;
+  }
+
+  /**
+   * Gets the kind of change.
+   *
+   * @return the kind of change
+   */
+  public ModelChangeType getType() {
+    return type;
+  }
+
+  /**
+   * Gets the name of the shape that changed.
+   *
+   * @return the name of the shape, or null if the change isn't to a shape
+   */
+  public String getShapeName() {
+    return shapeName;
+  }
+
+  /**
+   * Gets the tick of the keyframe that changed.
+   *
+   * @return the tick, or -1 if the change isn't to a keyframe
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * Gets the name of the layer that changed, or of the layer of the shape that changed.
+   *
+   * @return the name of the layer, or null if the change isn't to a layer or a shape
+   */
+  public String getLayerName() {
+    return layerName;
+  }
+
+  /**
+   * Gets whether the change can move shapes in the drawing order, rather than only changing how
+   * a single shape that already exists looks.
+   *
+   * @return whether the drawing order may have changed
+   */
+  public boolean changesDrawOrder() {
+    return type == ModelChangeType.ShapeCreated || type == ModelChangeType.ShapeDeleted
+        || type == ModelChangeType.LayersChanged;
+  }
+
+  @Override
+  public String toString() {
+    return type + " " + shapeName + " " + tick + " " + layerName;
+  }
+}
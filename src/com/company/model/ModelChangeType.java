@@ -0,0 +1,22 @@
+package com.company.model;
+
+/**
+ * An enumeration of the kinds of changes that can be made to an animator model, which tells
+ * listeners what part of the model a {@link ModelChangeEvent} is about.
+ */
+public enum ModelChangeType {
+  // A keyframe was added to a shape that already existed.
+  KeyframeAdded,
+  // A keyframe of a shape was removed, and the shape still has other keyframes.
+  KeyframeRemoved,
+  // The keyframe of a shape at a tick was replaced by a different one.
+  KeyframeChanged,
+  // A shape was created with its first keyframe.
+  ShapeCreated,
+  // A shape and all of its keyframes were deleted.
+  ShapeDeleted,
+  // A layer was added, deleted or moved, changing the drawing order of the shapes.
+  LayersChanged,
+  // The position or size of the canvas changed.
+  CanvasChanged
+}
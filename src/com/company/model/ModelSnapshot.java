@@ -0,0 +1,407 @@
+package com.company.model;
+
+import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A read-only model frozen at the moment it was taken from another model, which never changes
+ * however the other model does. The keyframes are kept in persistent maps that the model shares
+ * with every snapshot taken from it, so taking a snapshot copies nothing, and an edit to the model
+ * only copies the path to the keyframe it changed.
+ *
+ * <p>Shapes given out by a snapshot are copies, so changing them doesn't change the snapshot.</p>
+ *
+ * <p>The keyframes of shapes that the model hadn't read yet when they were first frozen are read
+ * the first time the snapshot needs them, so that a snapshot doesn't read every shape of a model
+ * that is being read lazily. They may be read from any thread.</p>
+ */
+final class ModelSnapshot implements ReadOnlyAnimatorModel {
+  // The keyframes of each shape by name, and the shape names in the order they were created.
+  private final PersistentSortedMap<String, Timeline> timelines;
+  private final PersistentSortedMap<Long, String> creationOrder;
+  private final String[] drawOrder;
+  // The shapes in each layer, with the layers in drawing order, and as sets for looking them up.
+  private final Map<String, List<String>> layers;
+  private final Map<String, Set<String>> layerSets;
+  private final int canvasX;
+  private final int canvasY;
+  private final int canvasWidth;
+  private final int canvasHeight;
+  private final double firstTick;
+  private final double lastTick;
+  private final long version;
+  private final Map<String, SortedSet<Frame>> keyframes;
+
+  /**
+   * Creates a snapshot of a model with the given state. None of the arguments may be changed
+   * afterwards.
+   *
+   * @param model         the model the snapshot is taken from, for its canvas and ticks
+   * @param timelines     the keyframes of each shape by name
+   * @param creationOrder the shape names by the order they were created in
+   * @param drawOrder     the shape names in drawing order
+   * @param layers        the unmodifiable shape names in each layer, in drawing order
+   * @param layerSets     the same shape names in each layer, as sets
+   */
+  ModelSnapshot(ReadOnlyAnimatorModel model, PersistentSortedMap<String, Timeline> timelines,
+                PersistentSortedMap<Long, String> creationOrder, String[] drawOrder,
+                Map<String, List<String>> layers, Map<String, Set<String>> layerSets) {
+    this.timelines = timelines;
+    this.creationOrder = creationOrder;
+    this.drawOrder = drawOrder;
+    this.layers = layers;
+    this.layerSets = layerSets;
+    this.canvasX = model.getCanvasX();
+    this.canvasY = model.getCanvasY();
+    this.canvasWidth = model.getCanvasWidth();
+    this.canvasHeight = model.getCanvasHeight();
+    this.firstTick = model.firstTick();
+    this.lastTick = model.lastTick();
+    this.version = model.getVersion();
+    this.keyframes = new KeyframesView();
+  }
+
+  @Override
+  public Map<String, Shape> shapesAt(int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+
+    Map<String, Shape> shapes = new LinkedHashMap<>();
+    for (String name : drawOrder) {
+      Shape shape = timelines.get(name).shapeAt(tick);
+      // If the time is before the first keyframe for this shape, don't draw the shape
+      if (shape != null) {
+        shapes.put(name, shape);
+      }
+    }
+    return shapes;
+  }
+
+  @Override
+  public Shape shapeAt(String shapeName, int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+    Timeline timeline = timelines.get(shapeName);
+    if (timeline == null) {
+      throw new IllegalArgumentException("Shape does not exist " + shapeName);
+    }
+    return timeline.shapeAt(tick);
+  }
+
+  @Override
+  public int statesAt(int tick, List<ShapeState> states) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+
+    int count = 0;
+    for (String name : drawOrder) {
+      Timeline timeline = timelines.get(name);
+      if (tick < timeline.firstTick) {
+        // not drawn yet, so its keyframes aren't needed
+        continue;
+      }
+      PersistentSortedMap<Integer, Frame> frames = timeline.frames();
+      int next = frames.countAtOrBelow(tick);
+      if (next > 0) {
+        ShapeState state = AAnimatorModel.stateAt(states, count);
+        state.name = name;
+        Frame prevFrame = frames.valueAt(next - 1);
+        if (next == frames.size()) {
+          state.set(prevFrame.getShape());
+        } else {
+          Frame nextFrame = frames.valueAt(next);
+          prevFrame.getShape().interpolateInto(nextFrame.getShape(),
+              (tick - prevFrame.getTime()) / (nextFrame.getTime() - prevFrame.getTime()), state);
+        }
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public Map<String, SortedSet<Frame>> getKeyframes() {
+    return keyframes;
+  }
+
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public ReadOnlyAnimatorModel snapshot() {
+    // a snapshot never changes, so it is its own snapshot
+    return this;
+  }
+
+  @Override
+  public int getCanvasHeight() {
+    return canvasHeight;
+  }
+
+  @Override
+  public int getCanvasWidth() {
+    return canvasWidth;
+  }
+
+  @Override
+  public int getCanvasX() {
+    return canvasX;
+  }
+
+  @Override
+  public int getCanvasY() {
+    return canvasY;
+  }
+
+  @Override
+  public double lastTick() {
+    return lastTick;
+  }
+
+  @Override
+  public double firstTick() {
+    return firstTick;
+  }
+
+  @Override
+  public List<String> getShapesInLayer(String layerName) {
+    if (!layers.containsKey(layerName)) {
+      throw new IllegalArgumentException("Layer does not exist");
+    }
+    return layers.get(layerName);
+  }
+
+  @Override
+  public boolean isShapeInLayer(String shapeName, String layerName) {
+    if (!layerSets.containsKey(layerName)) {
+      throw new IllegalArgumentException("Layer does not exist");
+    }
+    return layerSets.get(layerName).contains(shapeName);
+  }
+
+  @Override
+  public Collection<String> getLayers() {
+    return layers.keySet();
+  }
+
+  @Override
+  public void addChangeListener(Consumer<ModelChangeEvent> listener) {
+    // a snapshot never changes, so there is nothing to tell the listener
+  }
+
+  @Override
+  public void removeChangeListener(Consumer<ModelChangeEvent> listener) {
+    // listeners are never registered
+  }
+
+  /**
+   * The keyframes of one shape in a snapshot: a persistent map from ticks to keyframes, which
+   * hold shapes that no model refers to, together with when the shape was created.
+   */
+  static final class Timeline {
+    // The number of shapes created in the model before this one.
+    final long sequence;
+    // The tick of the first keyframe, which is known before the keyframes are read.
+    final int firstTick;
+    // The keyframes by tick, or null until they have been read with unread.
+    private volatile PersistentSortedMap<Integer, Frame> frames;
+    private Supplier<? extends SortedSet<Frame>> unread;
+
+    /**
+     * Creates the keyframes of a shape.
+     *
+     * @param sequence the number of shapes created in the model before this one
+     * @param frames   the keyframes by tick
+     */
+    Timeline(long sequence, PersistentSortedMap<Integer, Frame> frames) {
+      this.sequence = sequence;
+      this.firstTick = frames.isEmpty() ? Integer.MAX_VALUE : frames.keyAt(0);
+      this.frames = frames;
+      this.unread = null;
+    }
+
+    /**
+     * Creates the keyframes of a shape that are only read when they are first needed.
+     *
+     * @param sequence  the number of shapes created in the model before this one
+     * @param firstTick the tick of the first keyframe
+     * @param unread    reads the keyframes, giving shapes that no model refers to
+     */
+    Timeline(long sequence, int firstTick, Supplier<? extends SortedSet<Frame>> unread) {
+      this.sequence = sequence;
+      this.firstTick = firstTick;
+      this.frames = null;
+      this.unread = unread;
+    }
+
+    /**
+     * Gets the keyframes by tick, reading them if they haven't been.
+     *
+     * @return the keyframes
+     */
+    PersistentSortedMap<Integer, Frame> frames() {
+      PersistentSortedMap<Integer, Frame> read = frames;
+      if (read == null) {
+        synchronized (this) {
+          if (frames == null) {
+            PersistentSortedMap<Integer, Frame> keyframes = PersistentSortedMap.empty();
+            for (Frame frame : unread.get()) {
+              keyframes = keyframes.put((int) frame.getTime(), frame);
+            }
+            frames = keyframes;
+            unread = null;
+          }
+          read = frames;
+        }
+      }
+      return read;
+    }
+
+    /**
+     * Makes the keyframes of the same shape with the given keyframe added or replaced.
+     *
+     * @param tick  the tick of the keyframe
+     * @param shape the shape at that tick, which no model may refer to
+     * @return the new keyframes
+     */
+    Timeline with(int tick, Shape shape) {
+      return new Timeline(sequence, this.frames().put(tick, new FrameImpl(tick, shape)));
+    }
+
+    /**
+     * Makes the keyframes of the same shape without the keyframe at the given tick.
+     *
+     * @param tick the tick of the keyframe
+     * @return the new keyframes
+     */
+    Timeline without(int tick) {
+      return new Timeline(sequence, this.frames().remove(tick));
+    }
+
+    /**
+     * Creates the shape at the given tick.
+     *
+     * @param tick the tick
+     * @return the shape, or null if the tick is before the first keyframe
+     */
+    Shape shapeAt(int tick) {
+      if (tick < firstTick) {
+        return null;
+      }
+      PersistentSortedMap<Integer, Frame> frames = this.frames();
+      int next = frames.countAtOrBelow(tick);
+      if (next == 0) {
+        return null;
+      }
+      Frame prev = frames.valueAt(next - 1);
+      if (next == frames.size()) {
+        return prev.getShape().copy();
+      }
+      Frame following = frames.valueAt(next);
+      return prev.interpolateShape(
+          following, (tick - prev.getTime()) / (following.getTime() - prev.getTime()));
+    }
+  }
+
+  /**
+   * The keyframes of one shape as a sorted set of copies of the keyframes, which are only read
+   * once something is asked of the set.
+   */
+  private static class FrameView extends AFrameSetView {
+    private final Timeline timeline;
+
+    FrameView(Timeline timeline) {
+      this.timeline = timeline;
+    }
+
+    @Override
+    protected double timeAt(int index) {
+      return timeline.frames().keyAt(index);
+    }
+
+    @Override
+    protected Frame frameAt(int index) {
+      Frame frame = timeline.frames().valueAt(index);
+      return new FrameImpl(frame.getTime(), frame.getShape().copy());
+    }
+
+    @Override
+    public int size() {
+      return timeline.frames().size();
+    }
+  }
+
+  /**
+   * The keyframes of every shape in the order the shapes were created, as a read-only map.
+   */
+  private class KeyframesView extends AbstractMap<String, SortedSet<Frame>> {
+    @Override
+    public SortedSet<Frame> get(Object key) {
+      if (!(key instanceof String)) {
+        return null;
+      }
+      Timeline timeline = timelines.get((String) key);
+      return timeline == null ? null : new FrameView(timeline);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && timelines.get((String) key) != null;
+    }
+
+    @Override
+    public int size() {
+      return timelines.size();
+    }
+
+    @Override
+    public Set<Entry<String, SortedSet<Frame>>> entrySet() {
+      return new AbstractSet<Entry<String, SortedSet<Frame>>>() {
+        @Override
+        public Iterator<Entry<String, SortedSet<Frame>>> iterator() {
+          return new Iterator<Entry<String, SortedSet<Frame>>>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+              return index < creationOrder.size();
+            }
+
+            @Override
+            public Entry<String, SortedSet<Frame>> next() {
+              if (!this.hasNext()) {
+                throw new NoSuchElementException("No more shapes");
+              }
+              String name = creationOrder.valueAt(index);
+              index += 1;
+              return new SimpleImmutableEntry<>(name, get(name));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return timelines.size();
+        }
+      };
+    }
+  }
+}
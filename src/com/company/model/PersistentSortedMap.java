@@ -0,0 +1,256 @@
+package com.company.model;
+
+/**
+ * Immutable sorted map, stored as a balanced (AVL) tree whose nodes are never changed once made.
+ * Adding or removing a key makes a new map that copies only the nodes on the path to that key and
+ * shares every other node with this one, so keeping the old map around as well costs almost
+ * nothing. Each node also knows the size of its subtree, so that keys can be found by index.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class PersistentSortedMap<K extends Comparable<K>, V> {
+  private static final PersistentSortedMap<?, ?> EMPTY = new PersistentSortedMap<>(null);
+
+  private final Node<K, V> root;
+
+  private PersistentSortedMap(Node<K, V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Gets the map with no keys.
+   *
+   * @param <K> the type of the keys
+   * @param <V> the type of the values
+   * @return the empty map
+   */
+  @SuppressWarnings("unchecked")
+  static <K extends Comparable<K>, V> PersistentSortedMap<K, V> empty() {
+    return (PersistentSortedMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Gets the number of keys in this map.
+   *
+   * @return the number of keys
+   */
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Gets whether this map has no keys.
+   *
+   * @return whether this map is empty
+   */
+  boolean isEmpty() {
+    return root == null;
+  }
+
+  /**
+   * Gets the value of the given key.
+   *
+   * @param key the key
+   * @return the value of the key, or null if it isn't in this map
+   */
+  V get(K key) {
+    Node<K, V> node = root;
+    while (node != null) {
+      int compare = key.compareTo(node.key);
+      if (compare == 0) {
+        return node.value;
+      }
+      node = compare < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  /**
+   * Makes a map with the given key set to the given value, replacing its value if it is already
+   * in this map. This map is not changed.
+   *
+   * @param key   the key
+   * @param value the value
+   * @return the new map
+   */
+  PersistentSortedMap<K, V> put(K key, V value) {
+    return new PersistentSortedMap<>(put(root, key, value));
+  }
+
+  /**
+   * Makes a map without the given key. This map is not changed.
+   *
+   * @param key the key
+   * @return the new map, or this map if the key isn't in it
+   */
+  PersistentSortedMap<K, V> remove(K key) {
+    Node<K, V> newRoot = remove(root, key);
+    return newRoot == root ? this : new PersistentSortedMap<>(newRoot);
+  }
+
+  /**
+   * Counts the keys in this map that are at or below the given key. The index of the last key at
+   * or below it is one less than the count, and the index of the first key above it is the count.
+   *
+   * @param key the key
+   * @return the number of keys at or below it
+   */
+  int countAtOrBelow(K key) {
+    int count = 0;
+    Node<K, V> node = root;
+    while (node != null) {
+      if (key.compareTo(node.key) < 0) {
+        node = node.left;
+      } else {
+        count += size(node.left) + 1;
+        node = node.right;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the key at the given index, in increasing order of keys.
+   *
+   * @param index the index, between 0 and the size of this map
+   * @return the key at that index
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  K keyAt(int index) {
+    return this.nodeAt(index).key;
+  }
+
+  /**
+   * Gets the value of the key at the given index, in increasing order of keys.
+   *
+   * @param index the index, between 0 and the size of this map
+   * @return the value of the key at that index
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  V valueAt(int index) {
+    return this.nodeAt(index).value;
+  }
+
+  private Node<K, V> nodeAt(int index) {
+    if (index < 0 || index >= this.size()) {
+      throw new IndexOutOfBoundsException("No key at index " + index);
+    }
+    Node<K, V> node = root;
+    while (true) {
+      int leftSize = size(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index == leftSize) {
+        return node;
+      } else {
+        index -= leftSize + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  private static <K extends Comparable<K>, V> Node<K, V> put(Node<K, V> node, K key, V value) {
+    if (node == null) {
+      return new Node<>(key, value, null, null);
+    }
+    int compare = key.compareTo(node.key);
+    if (compare == 0) {
+      return new Node<>(key, value, node.left, node.right);
+    } else if (compare < 0) {
+      return balance(node.key, node.value, put(node.left, key, value), node.right);
+    } else {
+      return balance(node.key, node.value, node.left, put(node.right, key, value));
+    }
+  }
+
+  private static <K extends Comparable<K>, V> Node<K, V> remove(Node<K, V> node, K key) {
+    if (node == null) {
+      return null;
+    }
+    int compare = key.compareTo(node.key);
+    if (compare < 0) {
+      Node<K, V> left = remove(node.left, key);
+      return left == node.left ? node : balance(node.key, node.value, left, node.right);
+    } else if (compare > 0) {
+      Node<K, V> right = remove(node.right, key);
+      return right == node.right ? node : balance(node.key, node.value, node.left, right);
+    } else if (node.left == null) {
+      return node.right;
+    } else if (node.right == null) {
+      return node.left;
+    }
+
+    // replace the node with the smallest node after it
+    Node<K, V> next = node.right;
+    while (next.left != null) {
+      next = next.left;
+    }
+    return balance(next.key, next.value, node.left, removeFirst(node.right));
+  }
+
+  private static <K extends Comparable<K>, V> Node<K, V> removeFirst(Node<K, V> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node.key, node.value, removeFirst(node.left), node.right);
+  }
+
+  /**
+   * Makes a node with the given key, value and children, rotating it if one child is more than
+   * one level taller than the other.
+   */
+  private static <K extends Comparable<K>, V> Node<K, V> balance(K key, V value, Node<K, V> left,
+                                                                Node<K, V> right) {
+    int leftHeight = height(left);
+    int rightHeight = height(right);
+    if (leftHeight > rightHeight + 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node<>(left.key, left.value, left.left,
+            new Node<>(key, value, left.right, right));
+      }
+      return new Node<>(left.right.key, left.right.value,
+          new Node<>(left.key, left.value, left.left, left.right.left),
+          new Node<>(key, value, left.right.right, right));
+    } else if (rightHeight > leftHeight + 1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node<>(right.key, right.value,
+            new Node<>(key, value, left, right.left), right.right);
+      }
+      return new Node<>(right.left.key, right.left.value,
+          new Node<>(key, value, left, right.left.left),
+          new Node<>(right.key, right.value, right.left.right, right.right));
+    }
+    return new Node<>(key, value, left, right);
+  }
+
+  private static int height(Node<?, ?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node<?, ?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * A node of the tree, which is never changed once it is made.
+   */
+  private static final class Node<K, V> {
+    private final K key;
+    private final V value;
+    private final Node<K, V> left;
+    private final Node<K, V> right;
+    private final int height;
+    // The number of nodes in the subtree starting at this node.
+    private final int size;
+
+    Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+    }
+  }
+}
@@ -1,11 +1,13 @@
 package com.company.model;
 
 import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.function.Consumer;
 
 /**
  * This interface represents a read-only version of a model that represents an animation as the
@@ -22,14 +24,58 @@ public interface ReadOnlyAnimatorModel {
    */
   Map<String, Shape> shapesAt(int tick) throws IllegalArgumentException;
 
+  /**
+   * Gets the state of a single shape at a given tick, without working out the state of every
+   * other shape.
+   *
+   * @param shapeName the name of the shape
+   * @param tick      tick of the desired scene
+   * @return the shape at that tick, or null if it has not been drawn yet
+   * @throws IllegalArgumentException if the tick is negative or the shape does not exist
+   */
+  Shape shapeAt(String shapeName, int tick) throws IllegalArgumentException;
+
+  /**
+   * Writes the state of each shape at a given tick into the given list, excluding the ones that
+   * have not been drawn yet, in the correct drawing order. The states already in the list are
+   * overwritten and reused, and new states are only added when the list is too short, so that
+   * passing the same list every tick doesn't create any objects. States past the returned count
+   * are left as they were.
+   *
+   * @param tick   tick of the desired scene
+   * @param states the list of states to write into
+   * @return the number of shapes written, which are the first states in the list
+   * @throws IllegalArgumentException if the tick is negative
+   */
+  int statesAt(int tick, List<ShapeState> states) throws IllegalArgumentException;
+
   /**
    * Returns a sorted map of all the keyframes of every shape in order, representing the overall
-   * timeline for the animation.
+   * timeline for the animation. The map and its sets are read-only views of the model rather than
+   * copies, so they change as the model does and should not be iterated while it is changing.
    *
    * @return Sorted map that maps shape names and their keyframes, in order as they appear on screen
    */
   Map<String, SortedSet<Frame>> getKeyframes();
 
+  /**
+   * Returns a number that increases every time the model changes, so that views can tell whether
+   * anything has changed since they last looked at the model.
+   *
+   * @return the version of the model
+   */
+  long getVersion();
+
+  /**
+   * Gets a read-only copy of the model as it is now, which doesn't change when the model does.
+   * Snapshots share their keyframes with the model instead of copying them, so they are cheap to
+   * take and keep, and can be read from while the model is being edited, for example to preview
+   * or export the animation.
+   *
+   * @return a frozen copy of the model
+   */
+  ReadOnlyAnimatorModel snapshot();
+
   /**
    * Gets the height of the canvas.
    *
@@ -65,6 +111,13 @@ public interface ReadOnlyAnimatorModel {
    */
   double lastTick();
 
+  /**
+   * Returns the tick of the first current keyframe: before this time, no shapes are drawn.
+   *
+   * @return the first tick of the animation, or 0 if no keyframes exist
+   */
+  double firstTick();
+
   /**
    * Returns the list of shape names in the given layer name, in correct drawing order (so shapes
    * at the start will be obscured by shapes at the end).
@@ -75,10 +128,37 @@ public interface ReadOnlyAnimatorModel {
    */
   List<String> getShapesInLayer(String layerName);
 
+  /**
+   * Gets whether the given shape is in the given layer.
+   *
+   * @param shapeName the name of the shape
+   * @param layerName the name of the layer
+   * @return whether the shape is in that layer
+   * @throws IllegalArgumentException if the layer name does not exist
+   */
+  default boolean isShapeInLayer(String shapeName, String layerName) {
+    return this.getShapesInLayer(layerName).contains(shapeName);
+  }
+
   /**
    * Returns an ordered collection of layer names in the model.
    *
    * @return the list of layers in the model
    */
   Collection<String> getLayers();
+
+  /**
+   * Registers a listener to be given an event describing each change made to the model, after
+   * the change has been made.
+   *
+   * @param listener the listener to give the events to
+   */
+  void addChangeListener(Consumer<ModelChangeEvent> listener);
+
+  /**
+   * Stops giving events to a listener registered with {@link #addChangeListener}.
+   *
+   * @param listener the listener to stop giving events to
+   */
+  void removeChangeListener(Consumer<ModelChangeEvent> listener);
 }
@@ -147,6 +147,23 @@ public abstract class AShape implements Shape {
             interpolateNum(this.angle, to.getShapeAngle(), progress));
   }
 
+  @Override
+  public void interpolateInto(Shape to, double progress, ShapeState state) {
+    Posn toPosn = to.getPosition();
+    Color toColor = to.getColor();
+
+    state.type = this.shapeType;
+    state.x = interpolateNum(this.posn.getX(), toPosn.getX(), progress);
+    state.y = interpolateNum(this.posn.getY(), toPosn.getY(), progress);
+    state.width = interpolateNum(this.width, to.getWidth(), progress);
+    state.height = interpolateNum(this.height, to.getHeight(), progress);
+    state.setColor(
+        (int) Math.round(interpolateNum(this.color.getRed(), toColor.getRed(), progress)),
+        (int) Math.round(interpolateNum(this.color.getGreen(), toColor.getGreen(), progress)),
+        (int) Math.round(interpolateNum(this.color.getBlue(), toColor.getBlue(), progress)));
+    state.angle = interpolateNum(this.angle, to.getShapeAngle(), progress);
+  }
+
   /**
    * Creates a new shape with the given parameters and of the same type as this shape.
    *
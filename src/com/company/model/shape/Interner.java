@@ -0,0 +1,127 @@
+package com.company.model.shape;
+
+import java.awt.Color;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hands out shared instances of the colors and positions that shapes are made of, so that the many
+ * keyframes of an animation that are the same color, or in the same place, use one object instead
+ * of one each. Animations tend to use a handful of colors, so a model read from a file keeps far
+ * fewer objects. Shapes tweened between keyframes are nearly always somewhere new, so they are
+ * created as usual rather than looked up here, where they would only push the keyframes out.
+ *
+ * <p>Each kind of value is kept in a fixed-size table indexed by its hash, where a new value
+ * replaces whatever was in its slot, so the tables never grow. The values are only weakly
+ * referenced, so they are collected once no shape uses them. A value that isn't in its table is
+ * created as usual, so the same value may still be more than one object. Every method is safe to
+ * call from any thread.</p>
+ *
+ * <p>Shapes themselves are not shared, since they can be changed.</p>
+ */
+public final class Interner {
+  private static final Table<Color> COLORS = new Table<>(1 << 10);
+  private static final Table<Posn> POSITIONS = new Table<>(1 << 12);
+
+  private Interner() {
+  }
+
+  /**
+   * Gets an opaque color with the given red, green and blue values.
+   *
+   * @param red   the red value, from 0 to 255
+   * @param green the green value, from 0 to 255
+   * @param blue  the blue value, from 0 to 255
+   * @return the color
+   * @throws IllegalArgumentException if any value is outside of 0 to 255
+   */
+  public static Color color(int red, int green, int blue) {
+    if (((red | green | blue) & ~0xFF) != 0) {
+      // lets the color give its usual error
+      return new Color(red, green, blue);
+    }
+    return color(0xFF000000 | red << 16 | green << 8 | blue);
+  }
+
+  /**
+   * Gets a color with the given alpha, red, green and blue values, packed into an int as
+   * {@link Color#getRGB()} does.
+   *
+   * @param argb the packed color
+   * @return the color
+   */
+  public static Color color(int argb) {
+    int slot = COLORS.slot(argb);
+    Color color = COLORS.get(slot);
+    if (color == null || color.getRGB() != argb) {
+      color = new Color(argb, true);
+      COLORS.set(slot, color);
+    }
+    return color;
+  }
+
+  /**
+   * Gets a position with the given coordinates.
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return the position
+   */
+  public static Posn posn(double x, double y) {
+    long xBits = Double.doubleToLongBits(x);
+    long yBits = Double.doubleToLongBits(y);
+    int slot = POSITIONS.slot(Long.hashCode(xBits) * 31 + Long.hashCode(yBits));
+    Posn posn = POSITIONS.get(slot);
+    // compared by bits, so that 0 and -0, which print differently, aren't given for each other
+    if (posn == null || Double.doubleToLongBits(posn.getX()) != xBits
+        || Double.doubleToLongBits(posn.getY()) != yBits) {
+      posn = new PosnImpl(x, y);
+      POSITIONS.set(slot, posn);
+    }
+    return posn;
+  }
+
+  /**
+   * A fixed number of weakly referenced values, each in the slot given by its hash.
+   *
+   * @param <T> the type of the values
+   */
+  private static final class Table<T> {
+    private final AtomicReferenceArray<WeakReference<T>> slots;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param size the number of slots, which must be a power of two
+     */
+    Table(int size) {
+      this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Gets the slot of a value with the given hash.
+     */
+    int slot(int hash) {
+      // spreads the high bits down, since colors and coordinates mostly differ in them
+      hash ^= hash >>> 16;
+      hash *= 0x45D9F3B;
+      hash ^= hash >>> 16;
+      return hash & (slots.length() - 1);
+    }
+
+    /**
+     * Gets the value in the given slot, or null if it is empty or its value was collected.
+     */
+    T get(int slot) {
+      WeakReference<T> reference = slots.get(slot);
+      return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Puts a value in the given slot, replacing the one there.
+     */
+    void set(int slot, T value) {
+      slots.set(slot, new WeakReference<>(value));
+    }
+  }
+}
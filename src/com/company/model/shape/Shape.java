@@ -103,6 +103,19 @@ public interface Shape {
    */
   Shape interpolate(Shape to, double progress);
 
+  /**
+   * Writes the interpolated state between this shape and the given shape, at the given progress,
+   * into the given state. Gives the same result as {@link #interpolate(Shape, double)} without
+   * creating any objects, and trusts the caller to give a progress between 0 and 1 and a shape of
+   * the same type.
+   *
+   * @param to       the shape to interpolate to
+   * @param progress a number between 0 and 1 that represents the progress between this shape and
+   *                 the to shape
+   * @param state    the state to write the interpolated shape into
+   */
+  void interpolateInto(Shape to, double progress, ShapeState state);
+
   /**
    * Makes a copy of itself.
    *
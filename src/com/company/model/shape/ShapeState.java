@@ -0,0 +1,54 @@
+package com.company.model.shape;
+
+/**
+ * Struct-like, mutable holder for the state of a shape at one tick. Unlike {@link Shape}, a state
+ * is meant to be overwritten again and again, so that code drawing or exporting every shape on
+ * every tick can reuse the same states instead of creating new shapes, positions and colors.
+ */
+public final class ShapeState {
+  // The name of the shape this is the state of.
+  public String name;
+  public ShapeType type;
+  public double x;
+  public double y;
+  public double width;
+  public double height;
+  // The color as an ARGB value, as given by Color.getRGB.
+  public int rgb;
+  public double angle;
+
+  /**
+   * Copies the given shape into this state.
+   *
+   * @param shape the shape to copy
+   */
+  public void set(Shape shape) {
+    this.type = shape.getShapeType();
+    this.x = shape.getPosition().getX();
+    this.y = shape.getPosition().getY();
+    this.width = shape.getWidth();
+    this.height = shape.getHeight();
+    this.rgb = shape.getColor().getRGB();
+    this.angle = shape.getShapeAngle();
+  }
+
+  /**
+   * Sets the color of this state to the given opaque color.
+   *
+   * @param red   the red component, between 0 and 255
+   * @param green the green component, between 0 and 255
+   * @param blue  the blue component, between 0 and 255
+   */
+  public void setColor(int red, int green, int blue) {
+    this.rgb = 0xFF000000 | (red << 16) | (green << 8) | blue;
+  }
+
+  /**
+   * Creates a new shape with this state.
+   *
+   * @return a shape with this state
+   */
+  public Shape toShape() {
+    return type.getShape(Interner.posn(x, y), width, height, Interner.color(rgb), angle);
+  }
+}
@@ -0,0 +1,242 @@
+package com.company.util;
+
+import java.util.Arrays;
+
+/**
+ * Abstract class that splits animation text into words and numbers, without regular expressions
+ * or intermediate strings. Words are separated by whitespace, and a {@code #} starts a comment
+ * that lasts until the end of the line. Subclasses only say where the characters come from.
+ */
+abstract class ATokenizer {
+  // Powers of ten that can be represented exactly as doubles.
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+  // Integers up to this size can be represented exactly as doubles.
+  private static final long MAX_EXACT = 1L << 53;
+
+  // The character that hasn't been consumed yet, or -1 at the end of the input.
+  private int current;
+  // The characters of the last token read.
+  private char[] token;
+  private int tokenLength;
+
+  /**
+   * Creates a tokenizer. Subclasses must call {@link #start()} once they are ready to be read.
+   */
+  protected ATokenizer() {
+    this.token = new char[64];
+    this.tokenLength = 0;
+  }
+
+  /**
+   * Reads the next character of the input.
+   *
+   * @return the next character, or -1 if there are no characters left
+   */
+  protected abstract int read();
+
+  /**
+   * Reads the first character, so that the tokenizer can be used.
+   */
+  protected final void start() {
+    this.current = this.read();
+  }
+
+  /**
+   * Skips whitespace and comments, across lines, and checks whether there is another token.
+   *
+   * @return whether there is another token
+   */
+  final boolean hasNext() {
+    // work on a local copy of the current character, which is much faster in tight loops
+    int c = current;
+    while (true) {
+      if (c == '#') {
+        c = this.skipComment(c);
+      } else if (isSpace(c)) {
+        c = this.read();
+      } else {
+        current = c;
+        return c != -1;
+      }
+    }
+  }
+
+  /**
+   * Skips whitespace and comments, but not line breaks, and checks whether there is another
+   * token on the current line.
+   *
+   * @return whether there is another token on this line
+   */
+  final boolean hasNextOnLine() {
+    int c = current;
+    while (true) {
+      if (c == '#') {
+        c = this.skipComment(c);
+      } else if (c == '\n' || c == '\r') {
+        current = c;
+        return false;
+      } else if (isSpace(c)) {
+        c = this.read();
+      } else {
+        current = c;
+        return c != -1;
+      }
+    }
+  }
+
+  /**
+   * Moves past the next line break, or to the end of the input if there is none.
+   */
+  final void nextLine() {
+    int c = this.skipComment(current);
+    if (c == '\r') {
+      c = this.read();
+    }
+    if (c == '\n') {
+      c = this.read();
+    }
+    current = c;
+  }
+
+  /**
+   * Reads the rest of the current line, not including the line break, and moves past it.
+   *
+   * @return the rest of the line
+   */
+  final String restOfLine() {
+    StringBuilder line = new StringBuilder();
+    while (current != '\n' && current != '\r' && current != -1) {
+      line.append((char) current);
+      current = this.read();
+    }
+    this.nextLine();
+    return line.toString();
+  }
+
+  /**
+   * Reads the next token as a word. {@link #hasNext()} or {@link #hasNextOnLine()} must have
+   * said there is one.
+   *
+   * @return the next token
+   */
+  final String nextWord() {
+    this.readToken();
+    return new String(token, 0, tokenLength);
+  }
+
+  /**
+   * Moves past the next token without reading it. {@link #hasNext()} or {@link #hasNextOnLine()}
+   * must have said there is one.
+   */
+  final void skipToken() {
+    int c = current;
+    while (!isDelimiter(c)) {
+      c = this.read();
+    }
+    current = c;
+  }
+
+  /**
+   * Reads the next token as a number. {@link #hasNext()} or {@link #hasNextOnLine()} must have
+   * said there is one. Plain decimals like {@code -12} or {@code 3.25} are converted directly,
+   * and anything else is left to {@link Double#parseDouble(String)}.
+   *
+   * @return the number
+   * @throws NumberFormatException if the token is not a number, with the token as the message
+   */
+  final double nextNumber() {
+    this.readToken();
+
+    int index = 0;
+    boolean negative = false;
+    if (tokenLength > 1 && (token[0] == '-' || token[0] == '+')) {
+      negative = token[0] == '-';
+      index = 1;
+    }
+
+    long digits = 0;
+    int digitCount = 0;
+    int decimals = -1;
+    for (; index < tokenLength; index++) {
+      char c = token[index];
+      if (c >= '0' && c <= '9' && digits < MAX_EXACT) {
+        digits = digits * 10 + (c - '0');
+        digitCount += 1;
+        if (decimals >= 0) {
+          decimals += 1;
+        }
+      } else if (c == '.' && decimals < 0) {
+        decimals = 0;
+      } else {
+        break;
+      }
+    }
+
+    if (index == tokenLength && digitCount > 0 && digits <= MAX_EXACT
+        && decimals < POWERS_OF_TEN.length) {
+      // both numbers are exact, so the division is rounded the same way as parseDouble rounds
+      double value = decimals > 0 ? digits / POWERS_OF_TEN[decimals] : digits;
+      return negative ? -value : value;
+    }
+
+    String text = new String(token, 0, tokenLength);
+    try {
+      return Double.parseDouble(text);
+    } catch (NumberFormatException e) {
+      throw new NumberFormatException(text);
+    }
+  }
+
+  /**
+   * Reads the characters of the next token into the token buffer.
+   */
+  private void readToken() {
+    int c = current;
+    int length = 0;
+    while (!isDelimiter(c)) {
+      if (length == token.length) {
+        token = Arrays.copyOf(token, token.length * 2);
+      }
+      token[length] = (char) c;
+      length += 1;
+      c = this.read();
+    }
+    current = c;
+    tokenLength = length;
+  }
+
+  /**
+   * Moves to the line break at the end of a comment or line, or to the end of the input.
+   *
+   * @param c the current character
+   * @return the line break, or -1 at the end of the input
+   */
+  private int skipComment(int c) {
+    while (c != '\n' && c != '\r' && c != -1) {
+      c = this.read();
+    }
+    return c;
+  }
+
+  /**
+   * Checks whether the given character is whitespace.
+   *
+   * @param c the character
+   * @return whether it is whitespace
+   */
+  private static boolean isSpace(int c) {
+    return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+  }
+
+  /**
+   * Checks whether the given character ends a token.
+   *
+   * @param c the character, or -1 for the end of the input
+   * @return whether it ends a token
+   */
+  private static boolean isDelimiter(int c) {
+    return c == -1 || c == '#' || isSpace(c);
+  }
+}
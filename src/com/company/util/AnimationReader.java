@@ -1,13 +1,45 @@
 package com.company.util;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Scanner;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * A helper to read animation data and construct an animation from it.
  */
 public class AnimationReader {
+  // Files are only split into chunks of at least this many bytes.
+  private static final long MIN_CHUNK_SIZE = 1 << 20;
+  // How many chunks each thread parses, so that uneven chunks still keep every thread busy.
+  private static final int CHUNKS_PER_THREAD = 4;
+  // How many bytes are copied out of the file at a time when reading a single motion.
+  private static final int MOTION_WINDOW_SIZE = 256;
+  private static final byte[] MOTION_KEYWORD = {'m', 'o', 't', 'i', 'o', 'n'};
+
+  private static final String[] MOTION_FIELD_NAMES = new String[]{
+          "initial time",
+          "initial x-coordinate", "initial y-coordinate",
+          "initial width", "initial height",
+          "initial red value", "initial green value", "initial blue value",
+          "initial angle",
+          "final time",
+          "final x-coordinate", "final y-coordinate",
+          "final width", "final height",
+          "final red value", "final green value", "final blue value",
+          "final angle",
+  };
+
   /**
    * A factory for producing new animations, given a source of shapes and a builder for constructing
    * animations.
@@ -34,35 +66,243 @@ public class AnimationReader {
   public static <Doc> Doc parseFile(Readable readable, AnimationBuilder<Doc> builder) {
     Objects.requireNonNull(readable, "Must have non-null readable source");
     Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
-    Scanner s = new Scanner(readable);
-    // Split at whitespace, and ignore # comment lines
-    s.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+"));
-    while (s.hasNext()) {
-      String word = s.next();
-      switch (word) {
-        case "canvas":
-          readCanvas(s, builder);
-          break;
-        case "shape":
-          readShape(s, builder);
-          break;
-        case "motion":
-          readMotion(s, builder);
-          break;
-        case "layer":
-          readLayer(s, builder);
-          break;
-        default:
-          throw new IllegalStateException("Unexpected keyword: " + word + s.nextLine());
+    return parse(new ReadableTokenizer(readable), builder);
+  }
+
+  /**
+   * Reads an animation from the given file like {@link #parseFile(Readable, AnimationBuilder)},
+   * but memory-maps the file and parses its bytes in place instead of reading them through a
+   * {@link Readable}, which is much faster for large files. The file must be encoded in UTF-8.
+   *
+   * @param path    the file to read the animation from
+   * @param builder a builder for helping to construct a new animation
+   * @param <Doc>   the main model interface type describing animations
+   * @return the newly constructed document
+   * @throws IOException if the file can't be opened or mapped
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder) throws IOException {
+    Objects.requireNonNull(path, "Must have non-null file path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return parse(new MappedFileTokenizer(channel, 0, channel.size()), builder);
+    }
+  }
+
+  /**
+   * Reads an animation from the given file like {@link #parseFile(Path, AnimationBuilder)}, but
+   * only reads the keyframes of each shape once the animation first needs them. A first pass over
+   * the file gives the builder the canvas, layers and shapes, and for each shape where its motions
+   * are in the file and its first and last ticks. Every motion is still checked on the first
+   * pass, so a file that reads this way has no errors left to find later. The file stays mapped
+   * until every shape's keyframes have been read, and must not be changed until then.
+   *
+   * @param path    the file to read the animation from
+   * @param builder a builder for helping to construct a new animation
+   * @param <Doc>   the main model interface type describing animations
+   * @return the newly constructed document
+   * @throws IOException           if the file can't be opened or mapped
+   * @throws IllegalStateException if the file is too large to map at once
+   */
+  public static <Doc> Doc parseFileLazily(Path path, LazyAnimationBuilder<Doc> builder)
+      throws IOException {
+    Objects.requireNonNull(path, "Must have non-null file path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    ByteBuffer file;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IllegalStateException("The animation file is too large to read lazily.");
       }
+      // the mapping stays valid once the channel is closed
+      file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    MappedFileTokenizer tokens = new MappedFileTokenizer(file);
+    Map<String, MotionIndex> shapes = new HashMap<>();
+    MotionBounds bounds = new MotionBounds();
+    while (tokens.hasNext()) {
+      // the keyword's first character has been read, and is a single byte if it is "motion"
+      int start = (int) tokens.offset() - 1;
+      String word = tokens.nextWord();
+      if (!word.equals("motion")) {
+        readLine(word, tokens, builder);
+        continue;
+      }
+
+      readMotion(tokens, bounds);
+      MotionIndex index = shapes.get(bounds.name);
+      if (index == null) {
+        index = new MotionIndex(file);
+        shapes.put(bounds.name, index);
+        // given at the shape's first motion, as the keyframes would be, so the layers and shapes
+        // are in the same order as when the file is read in full
+        builder.addLazyKeyframes(bounds.name, index);
+      }
+      index.add(start, bounds.firstTick, bounds.lastTick);
     }
     return builder.build();
   }
 
-  private static <Doc> void readLayer(Scanner s, AnimationBuilder<Doc> builder) {
+  /**
+   * Reads an animation from the given file like {@link #parseFile(Path, AnimationBuilder)}, but
+   * splits large files into chunks that are parsed on the common fork-join pool, when it has more
+   * than one thread. Every chunk but the first starts with a motion line, so chunks can be parsed
+   * without knowing what came before them. The calls each chunk makes are recorded and then made
+   * on the given builder in file order, so the builder sees exactly the same calls, and the same
+   * first error, as it would when parsing the file in one piece.
+   *
+   * @param path    the file to read the animation from
+   * @param builder a builder for helping to construct a new animation
+   * @param <Doc>   the main model interface type describing animations
+   * @return the newly constructed document
+   * @throws IOException if the file can't be opened or mapped
+   */
+  public static <Doc> Doc parseFileInParallel(Path path, AnimationBuilder<Doc> builder)
+      throws IOException {
+    return parseFileInParallel(path, builder, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads an animation from the given file, parsing chunks of it on the given pool. See
+   * {@link #parseFileInParallel(Path, AnimationBuilder)}.
+   *
+   * @param path    the file to read the animation from
+   * @param builder a builder for helping to construct a new animation
+   * @param pool    the pool to parse the chunks on
+   * @param <Doc>   the main model interface type describing animations
+   * @return the newly constructed document
+   * @throws IOException if the file can't be opened or mapped
+   */
+  static <Doc> Doc parseFileInParallel(Path path, AnimationBuilder<Doc> builder,
+                                       ForkJoinPool pool) throws IOException {
+    Objects.requireNonNull(path, "Must have non-null file path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int threads = pool.getParallelism();
+      long chunks = Math.min((long) threads * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE);
+      if (threads < 2 || chunks < 2) {
+        // recording and replaying the calls only pays off when chunks are parsed at once
+        return parse(new MappedFileTokenizer(channel, 0, size), builder);
+      }
+
+      List<ForkJoinTask<RecordingBuilder>> tasks = new ArrayList<>();
+      long start = 0;
+      for (long chunk = 1; start < size; chunk++) {
+        long end = chunk >= chunks
+            ? size : findMotionLine(channel, Math.max(start + 1, size / chunks * chunk), size);
+        tasks.add(pool.submit(new ChunkParser(channel, start, end)));
+        start = end;
+      }
+
+      for (ForkJoinTask<RecordingBuilder> task : tasks) {
+        task.join().replay(builder);
+      }
+      return builder.build();
+    }
+  }
+
+  /**
+   * Finds the first line at or after the given position in the given file that starts with the
+   * motion keyword.
+   *
+   * @param channel the file to search
+   * @param from    the position to start searching at
+   * @param size    the size of the file
+   * @return the position of the start of the line, or the size of the file if there is none
+   * @throws IOException if the file can't be read
+   */
+  private static long findMotionLine(FileChannel channel, long from, long size)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    // the byte before each line start must be a line break, so look from the byte before
+    long position = from - 1;
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      // only look at line breaks with room for the keyword and a space after them
+      int last = read - MOTION_KEYWORD.length - 2;
+      for (int i = 0; i <= last; i++) {
+        if (buffer.get(i) == '\n' && startsWithMotion(buffer, i + 1)) {
+          return position + i + 1;
+        }
+      }
+      if (last < 0 || position + read >= size) {
+        break;
+      }
+      // keep the last few bytes, which may be the start of a match
+      position += Math.max(1, last + 1);
+    }
+    return size;
+  }
+
+  /**
+   * Checks whether the motion keyword followed by a space is at the given index of the buffer.
+   *
+   * @param buffer the bytes to check
+   * @param index  the index where the keyword would start
+   * @return whether the keyword is there
+   */
+  private static boolean startsWithMotion(ByteBuffer buffer, int index) {
+    for (int i = 0; i < MOTION_KEYWORD.length; i++) {
+      if (buffer.get(index + i) != MOTION_KEYWORD[i]) {
+        return false;
+      }
+    }
+    byte after = buffer.get(index + MOTION_KEYWORD.length);
+    return after == ' ' || after == '\t';
+  }
+
+  /**
+   * Reads every line from the given tokens into the given builder.
+   *
+   * @param tokens  the tokens of the animation
+   * @param builder a builder for helping to construct a new animation
+   * @param <Doc>   the main model interface type describing animations
+   * @return the newly constructed document
+   */
+  private static <Doc> Doc parse(ATokenizer tokens, AnimationBuilder<Doc> builder) {
+    // the tokenizer splits at whitespace and skips # comments
+    while (tokens.hasNext()) {
+      readLine(tokens.nextWord(), tokens, builder);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Reads the rest of the line started by the given keyword into the given builder.
+   *
+   * @param word    the keyword
+   * @param tokens  the tokens of the animation, just after the keyword
+   * @param builder a builder for helping to construct a new animation
+   * @param <Doc>   the main model interface type describing animations
+   */
+  private static <Doc> void readLine(String word, ATokenizer tokens,
+                                     AnimationBuilder<Doc> builder) {
+    switch (word) {
+      case "canvas":
+        readCanvas(tokens, builder);
+        break;
+      case "shape":
+        readShape(tokens, builder);
+        break;
+      case "motion":
+        readMotion(tokens, builder);
+        break;
+      case "layer":
+        readLayer(tokens, builder);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected keyword: " + word + tokens.restOfLine());
+    }
+  }
+
+  private static <Doc> void readLayer(ATokenizer tokens, AnimationBuilder<Doc> builder) {
     String name;
-    if (s.hasNext()) {
-      name = s.next();
+    if (tokens.hasNext()) {
+      name = tokens.nextWord();
     } else {
       throw new IllegalStateException("Layer: Expected a name, but no more input available");
     }
@@ -70,85 +310,98 @@ public class AnimationReader {
     builder.declareLayer(name);
   }
 
-  private static <Doc> void readCanvas(Scanner s, AnimationBuilder<Doc> builder) {
+  private static <Doc> void readCanvas(ATokenizer tokens, AnimationBuilder<Doc> builder) {
     double[] vals = new double[4];
     String[] fieldNames = {"left", "top", "width", "height"};
     for (int i = 0; i < 4; i++) {
-      vals[i] = getDouble(s, "Canvas", fieldNames[i]);
+      if (tokens.hasNext()) {
+        vals[i] = getDouble(tokens, "Canvas", fieldNames[i]);
+      } else {
+        throw noMoreInput("Canvas", fieldNames[i]);
+      }
     }
     builder.setBounds((int) vals[0], (int) vals[1], (int) vals[2], (int) vals[3]);
   }
 
-  private static <Doc> void readShape(Scanner s, AnimationBuilder<Doc> builder) {
+  private static <Doc> void readShape(ATokenizer tokens, AnimationBuilder<Doc> builder) {
     String name;
     String type;
-    // make the IDE happy even though this can never be null and actually used
-    String layer = "";
-    String line = s.nextLine();
-    Scanner lineScanner = new Scanner(line);
-    boolean isUsingLayer;
-    if (lineScanner.hasNext()) {
-      name = lineScanner.next();
+    // the name, type and layer must all be on the same line as the keyword
+    if (tokens.hasNextOnLine()) {
+      name = tokens.nextWord();
     } else {
       throw new IllegalStateException("Shape: Expected a name, but no more input available");
     }
-    if (lineScanner.hasNext()) {
-      type = lineScanner.next();
+    if (tokens.hasNextOnLine()) {
+      type = tokens.nextWord();
     } else {
       throw new IllegalStateException("Shape: Expected a type, but no more input available");
     }
-    if (lineScanner.hasNext()) {
-      layer = lineScanner.next();
-      isUsingLayer = true;
-    } else {
-      isUsingLayer = false;
-    }
-    if (isUsingLayer) {
-      builder.declareShape(name, type, layer);
+    if (tokens.hasNextOnLine()) {
+      builder.declareShape(name, type, tokens.nextWord());
     } else {
       builder.declareShape(name, type);
     }
+    tokens.nextLine();
   }
 
-  private static <Doc> void readMotion(Scanner s, AnimationBuilder<Doc> builder) {
-    String[] fieldNames = new String[]{
-            "initial time",
-            "initial x-coordinate", "initial y-coordinate",
-            "initial width", "initial height",
-            "initial red value", "initial green value", "initial blue value",
-            "initial angle",
-            "final time",
-            "final x-coordinate", "final y-coordinate",
-            "final width", "final height",
-            "final red value", "final green value", "final blue value",
-            "final angle",
-    };
-
+  private static <Doc> void readMotion(ATokenizer tokens, AnimationBuilder<Doc> builder) {
     String name;
-    if (s.hasNext()) {
-      name = s.next();
+    if (tokens.hasNext()) {
+      name = tokens.nextWord();
     } else {
       throw new IllegalStateException("Motion: Expected a shape name, but no more input available");
     }
 
-    String line = s.nextLine();
-
-    boolean usingAngles = line.split("[\t ]+").length == 19;
-
-    Scanner lineScanner = new Scanner(line);
-    lineScanner.useDelimiter(" +");
-    double[] vals = new double[18];
-
-    for (int i = 0; i < 18; i++) {
-      if (i == 8 || i == 17) {
-        if (usingAngles) {
-          vals[i] = getDouble(lineScanner, "Motion", fieldNames[i]) % (2 * Math.PI);
-        } else {
-          vals[i] = 0;
+    // Read the numbers on the rest of the line in one pass: the angles are only given when there
+    // are exactly 18 of them, so errors are reported once the line has been counted.
+    double[] vals = new double[MOTION_FIELD_NAMES.length];
+    int count = 0;
+    int badIndex = -1;
+    String badToken = null;
+    while (tokens.hasNextOnLine()) {
+      if (count < vals.length && badIndex < 0) {
+        try {
+          vals[count] = tokens.nextNumber();
+        } catch (NumberFormatException e) {
+          badIndex = count;
+          badToken = e.getMessage();
         }
       } else {
-        vals[i] = getDouble(lineScanner, "Motion", fieldNames[i]);
+        tokens.skipToken();
+      }
+      count += 1;
+    }
+    tokens.nextLine();
+
+    // a motion without angles may continue on the following lines, as in smalldemo.txt
+    while (count < vals.length - 2 && badIndex < 0 && tokens.hasNext()) {
+      try {
+        vals[count] = tokens.nextNumber();
+      } catch (NumberFormatException e) {
+        badIndex = count;
+        badToken = e.getMessage();
       }
+      count += 1;
+    }
+
+    boolean usingAngles = count == vals.length;
+    int needed = usingAngles ? vals.length : vals.length - 2;
+    if (badIndex >= 0 && badIndex < needed) {
+      throw new IllegalStateException(String.format("Motion: expected integer for %s, got: %s",
+          motionFieldName(badIndex, usingAngles), badToken));
+    } else if (count < needed) {
+      throw noMoreInput("Motion", motionFieldName(count, usingAngles));
+    }
+
+    if (usingAngles) {
+      vals[8] = vals[8] % (2 * Math.PI);
+      vals[17] = vals[17] % (2 * Math.PI);
+    } else {
+      // make room for the missing initial angle
+      System.arraycopy(vals, 8, vals, 9, 8);
+      vals[8] = 0;
+      vals[17] = 0;
     }
     builder.addMotion(name,
             (int) vals[0], (int) vals[1], (int) vals[2], (int) vals[3], (int) vals[4],
@@ -157,16 +410,182 @@ public class AnimationReader {
             (int) vals[14], (int) vals[15], (int) vals[16], vals[17]);
   }
 
-  private static double getDouble(Scanner s, String label, String fieldName) {
-    if (s.hasNextDouble()) {
-      return s.nextDouble();
-    } else if (s.hasNext()) {
-      throw new IllegalStateException(
-              String.format("%s: expected integer for %s, got: %s", label, fieldName, s.next()));
-    } else {
+  private static String motionFieldName(int index, boolean usingAngles) {
+    // without angles, the numbers after the initial angle are shifted back by one
+    return MOTION_FIELD_NAMES[usingAngles || index < 8 ? index : index + 1];
+  }
+
+  private static double getDouble(ATokenizer tokens, String label, String fieldName) {
+    try {
+      return tokens.nextNumber();
+    } catch (NumberFormatException e) {
       throw new IllegalStateException(
-              String.format("%s: expected integer for %s, but no more input available",
-                      label, fieldName));
+              String.format("%s: expected integer for %s, got: %s", label, fieldName,
+                      e.getMessage()));
+    }
+  }
+
+  private static IllegalStateException noMoreInput(String label, String fieldName) {
+    return new IllegalStateException(
+            String.format("%s: expected integer for %s, but no more input available",
+                    label, fieldName));
+  }
+
+  /**
+   * Builder that keeps the name and ticks of the last motion it was given, so that a motion can be
+   * checked and indexed without making its keyframes.
+   */
+  private static class MotionBounds implements AnimationBuilder<Void> {
+    private String name;
+    private int firstTick;
+    private int lastTick;
+
+    @Override
+    public AnimationBuilder<Void> addMotion(
+        String name,
+        int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1, double a1,
+        int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2, double a2) {
+      if (t1 < 0 || t2 < 0) {
+        throw new IllegalArgumentException("Time cannot be negative");
+      }
+      this.name = name;
+      this.firstTick = Math.min(t1, t2);
+      this.lastTick = Math.max(t1, t2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Void> addKeyframe(
+        String name, int t, int x, int y, int w, int h, int r, int g, int b, double a) {
+      return this.addMotion(name, t, x, y, w, h, r, g, b, a, t, x, y, w, h, r, g, b, a);
+    }
+
+    @Override
+    public Void build() {
+      throw new IllegalStateException("Only motions are indexed");
+    }
+
+    @Override
+    public AnimationBuilder<Void> setBounds(int x, int y, int width, int height) {
+      throw new IllegalStateException("Only motions are indexed");
+    }
+
+    @Override
+    public AnimationBuilder<Void> declareShape(String name, String type, String layer) {
+      throw new IllegalStateException("Only motions are indexed");
+    }
+
+    @Override
+    public AnimationBuilder<Void> declareShape(String name, String type) {
+      throw new IllegalStateException("Only motions are indexed");
+    }
+
+    @Override
+    public AnimationBuilder<Void> declareLayer(String layerName) {
+      throw new IllegalStateException("Only motions are indexed");
+    }
+  }
+
+  /**
+   * Where the motions of one shape are in a mapped file, from which they are read when the
+   * shape's keyframes are needed.
+   */
+  private static class MotionIndex implements KeyframeSource {
+    private final ByteBuffer file;
+    // The position in the file of each motion line of the shape, in file order.
+    private int[] starts;
+    private int count;
+    private int firstTick;
+    private int lastTick;
+
+    /**
+     * Creates an index of a shape with no motions yet.
+     *
+     * @param file the mapped file the motions are in
+     */
+    MotionIndex(ByteBuffer file) {
+      this.file = file;
+      this.starts = new int[4];
+      this.count = 0;
+      this.firstTick = Integer.MAX_VALUE;
+      this.lastTick = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Adds a motion of the shape.
+     *
+     * @param start     the position of the motion keyword in the file
+     * @param firstTick the earlier tick of the motion
+     * @param lastTick  the later tick of the motion
+     */
+    void add(int start, int firstTick, int lastTick) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+      }
+      starts[count] = start;
+      count += 1;
+      this.firstTick = Math.min(this.firstTick, firstTick);
+      this.lastTick = Math.max(this.lastTick, lastTick);
+    }
+
+    @Override
+    public int firstTick() {
+      return firstTick;
+    }
+
+    @Override
+    public int lastTick() {
+      return lastTick;
+    }
+
+    @Override
+    public void readInto(AnimationBuilder<?> builder) {
+      ByteBuffer motion = file.duplicate();
+      for (int i = 0; i < count; i++) {
+        motion.position(starts[i]);
+        ATokenizer tokens = new MappedFileTokenizer(motion, MOTION_WINDOW_SIZE);
+        // the keyword was checked on the first pass
+        tokens.hasNext();
+        tokens.skipToken();
+        readMotion(tokens, builder);
+      }
+    }
+  }
+
+  /**
+   * Task that parses one chunk of a file into a recording builder.
+   */
+  private static class ChunkParser implements Callable<RecordingBuilder> {
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+
+    /**
+     * Creates a task that parses the given part of the given file.
+     *
+     * @param channel the file to read
+     * @param start   the position of the start of the chunk
+     * @param end     the position after the end of the chunk
+     */
+    ChunkParser(FileChannel channel, long start, long end) {
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public RecordingBuilder call() {
+      RecordingBuilder recording = new RecordingBuilder();
+      try {
+        parse(new MappedFileTokenizer(channel, start, end), recording);
+      } catch (IOException e) {
+        recording.fail(new IllegalStateException("Could not read the animation: "
+            + e.getMessage()));
+      } catch (RuntimeException e) {
+        // kept until the calls before it have been replayed, to fail at the same point
+        recording.fail(e);
+      }
+      return recording;
     }
   }
 }
@@ -0,0 +1,225 @@
+package com.company.util;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A helper to read animations written in the compact binary format, as written by
+ * {@link com.company.view.binary.BinaryAnimatorView}. Files in the format are named with the
+ * {@link #FILE_EXTENSION} extension.
+ *
+ * <p>
+ * A file in the format is made of:
+ * <ul>
+ * <li>A header: the four bytes of {@link #MAGIC}, then the {@link #VERSION} of the format.</li>
+ * <li>The canvas: its left, top, width and height.</li>
+ * <li>The layer table: the number of layers, then the name of each, from the bottom up.</li>
+ * <li>The shape table: the number of shapes, then the name, type, index of the layer, number of
+ * keyframes and number of bytes of keyframes of each shape, in drawing order.</li>
+ * <li>The keyframes of each shape, in the same order as the shape table. The keyframes of a shape
+ * are stored a column at a time: every tick, then every x-coordinate, y-coordinate, width, height,
+ * color and angle. Each value is stored as the difference from the one before it in its column,
+ * which is usually small, so that repeated values take a single byte.</li>
+ * </ul>
+ * Numbers are stored as variable-length integers, seven bits to a byte with the lowest bits
+ * first, so that small numbers take fewer bytes. Numbers that may be negative are zig-zag encoded
+ * first, so that small negative numbers are small as well. Colors are stored as their red, green
+ * and blue values packed into one number, and angles as the bits of their doubles. Names are
+ * stored as their number of bytes followed by the bytes, in UTF-8.
+ * </p>
+ */
+public class BinaryAnimationReader {
+  /**
+   * The extension of files in the binary format.
+   */
+  public static final String FILE_EXTENSION = "exb";
+  /**
+   * The first four bytes of every file in the binary format: "EXB" and an end of file character.
+   */
+  public static final int MAGIC = 0x4558421A;
+  /**
+   * The version of the format read and written.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * Checks whether the given file is named as a file in the binary format.
+   *
+   * @param path the file
+   * @return whether its name ends with the binary format's extension
+   */
+  public static boolean isBinaryFile(Path path) {
+    Path name = path.getFileName();
+    return name != null && name.toString().toLowerCase().endsWith("." + FILE_EXTENSION);
+  }
+
+  /**
+   * Reads an animation in the binary format from the given file, which is memory-mapped rather
+   * than read through a stream.
+   *
+   * @param path    the file to read the animation from
+   * @param builder a builder for helping to construct a new animation
+   * @param <Doc>   the main model interface type describing animations
+   * @return the newly constructed document
+   * @throws IOException           if the file can't be opened or mapped
+   * @throws IllegalStateException if the file is not a valid animation in the binary format
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder) throws IOException {
+    Objects.requireNonNull(path, "Must have non-null file path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalStateException("The animation file is too large to read.");
+      }
+      return parseBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), builder);
+    }
+  }
+
+  /**
+   * Reads an animation in the binary format from the given buffer, from its position to its
+   * limit.
+   *
+   * @param buffer  the bytes of the animation
+   * @param builder a builder for helping to construct a new animation
+   * @param <Doc>   the main model interface type describing animations
+   * @return the newly constructed document
+   * @throws IllegalStateException if the bytes are not a valid animation in the binary format
+   */
+  public static <Doc> Doc parseBuffer(ByteBuffer buffer, AnimationBuilder<Doc> builder) {
+    Objects.requireNonNull(buffer, "Must have non-null buffer");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try {
+      return parse(buffer, builder);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("The animation ended before it was complete.");
+    }
+  }
+
+  private static <Doc> Doc parse(ByteBuffer buffer, AnimationBuilder<Doc> builder) {
+    if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+      throw new IllegalStateException("Not an animation in the binary format.");
+    }
+    int version = readUnsigned(buffer);
+    if (version != VERSION) {
+      throw new IllegalStateException("Unsupported version of the binary format: " + version);
+    }
+    builder.setBounds(readSigned(buffer), readSigned(buffer), readSigned(buffer),
+        readSigned(buffer));
+
+    String[] layerNames = new String[readCount(buffer)];
+    for (int i = 0; i < layerNames.length; i++) {
+      layerNames[i] = readString(buffer);
+      builder.declareLayer(layerNames[i]);
+    }
+
+    int shapeCount = readCount(buffer);
+    String[] shapeNames = new String[shapeCount];
+    int[] keyframeCounts = new int[shapeCount];
+    int[] byteCounts = new int[shapeCount];
+    int mostKeyframes = 0;
+    for (int i = 0; i < shapeCount; i++) {
+      shapeNames[i] = readString(buffer);
+      String type = readString(buffer);
+      int layer = readUnsigned(buffer);
+      if (layer >= layerNames.length) {
+        throw new IllegalStateException("Shape " + shapeNames[i] + " is in a layer that doesn't "
+            + "exist.");
+      }
+      keyframeCounts[i] = readCount(buffer);
+      byteCounts[i] = readCount(buffer);
+      mostKeyframes = Math.max(mostKeyframes, keyframeCounts[i]);
+      builder.declareShape(shapeNames[i], type, layerNames[layer]);
+    }
+
+    // the columns of one shape at a time, reused for every shape
+    int[][] columns = new int[6][mostKeyframes];
+    double[] angles = new double[mostKeyframes];
+    for (int i = 0; i < shapeCount; i++) {
+      int count = keyframeCounts[i];
+      int end = buffer.position() + byteCounts[i];
+      for (int[] column : columns) {
+        int value = 0;
+        for (int j = 0; j < count; j++) {
+          value += column == columns[0] ? readUnsigned(buffer) : readSigned(buffer);
+          column[j] = value;
+        }
+      }
+      long bits = 0;
+      for (int j = 0; j < count; j++) {
+        bits += readSignedLong(buffer);
+        angles[j] = Double.longBitsToDouble(bits);
+      }
+      if (buffer.position() != end) {
+        throw new IllegalStateException("The keyframes of shape " + shapeNames[i]
+            + " are not the length the shape table gives.");
+      }
+
+      for (int j = 0; j < count; j++) {
+        int rgb = columns[5][j];
+        builder.addKeyframe(shapeNames[i], columns[0][j], columns[1][j], columns[2][j],
+            columns[3][j], columns[4][j], (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF,
+            angles[j]);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Reads a count of things that each take up at least a byte of the rest of the buffer.
+   */
+  private static int readCount(ByteBuffer buffer) {
+    int count = readUnsigned(buffer);
+    // checked so that a damaged file can't ask for huge arrays
+    if (count < 0 || count > buffer.remaining()) {
+      throw new IllegalStateException("The animation ended before it was complete.");
+    }
+    return count;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[readCount(buffer)];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int readSigned(ByteBuffer buffer) {
+    int value = readUnsigned(buffer);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static long readSignedLong(ByteBuffer buffer) {
+    long value = readUnsignedLong(buffer);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static int readUnsigned(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("A number in the animation is too long.");
+  }
+
+  private static long readUnsignedLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("A number in the animation is too long.");
+  }
+}
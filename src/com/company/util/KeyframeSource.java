@@ -0,0 +1,31 @@
+package com.company.util;
+
+/**
+ * The keyframes of one shape, which have not been read yet but can be read into a builder when
+ * they are needed. The first and last ticks of the keyframes are known without reading them. The
+ * keyframes may be read more than once, and from more than one thread at a time.
+ */
+public interface KeyframeSource {
+  /**
+   * Gets the tick of the shape's first keyframe.
+   *
+   * @return the first tick
+   */
+  int firstTick();
+
+  /**
+   * Gets the tick of the shape's last keyframe.
+   *
+   * @return the last tick
+   */
+  int lastTick();
+
+  /**
+   * Reads the keyframes of the shape into the given builder, with
+   * {@link AnimationBuilder#addMotion} or {@link AnimationBuilder#addKeyframe}.
+   *
+   * @param builder the builder to give the keyframes to
+   * @throws IllegalStateException if the keyframes can't be read
+   */
+  void readInto(AnimationBuilder<?> builder);
+}
@@ -0,0 +1,22 @@
+package com.company.util;
+
+/**
+ * Builder for animations that can be given the keyframes of a shape as a source to read them from,
+ * so that they are only read once the animation needs them.
+ *
+ * @param <Doc> the type that represents an animation
+ */
+public interface LazyAnimationBuilder<Doc> extends AnimationBuilder<Doc> {
+  /**
+   * Adds the keyframes of a shape that will be read from the given source when they are first
+   * needed, in place of giving them with {@link #addMotion} or {@link #addKeyframe}. The shape
+   * must have been declared, and must not be given any other keyframes. The first and last ticks
+   * of the source are only asked for once the document is built, so they may be worked out up to
+   * then.
+   *
+   * @param name      the name of the shape (added with {@link AnimationBuilder#declareShape})
+   * @param keyframes the source of the shape's keyframes
+   * @return This {@link AnimationBuilder}
+   */
+  LazyAnimationBuilder<Doc> addLazyKeyframes(String name, KeyframeSource keyframes);
+}
@@ -0,0 +1,218 @@
+package com.company.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Tokenizer that reads a UTF-8 file from memory-mapped regions of it, decoding the bytes itself
+ * instead of going through a {@link java.io.Reader}. The bytes are read from the mapping in small
+ * windows that stay in the processor's cache, since indexing an array is much faster than reading
+ * from a mapped buffer one byte at a time. Files larger than a single mapping can hold are mapped
+ * one region at a time, and files that are already mapped can be read from their mapping.
+ */
+class MappedFileTokenizer extends ATokenizer {
+  // The largest region that is mapped at once.
+  private static final long REGION_SIZE = 1 << 30;
+  private static final int WINDOW_SIZE = 1 << 16;
+  private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+  // The file to map regions of, or null if the only region was given.
+  private final FileChannel channel;
+  // The position in the file after the last byte read.
+  private final long end;
+  // The position in the file where the next region starts.
+  private long nextRegion;
+  private ByteBuffer region;
+  // A copy of the bytes of the region being read, from position to limit.
+  private final byte[] window;
+  private int position;
+  private int limit;
+  // The second half of a character that needed two chars, or -1 if there is none.
+  private int pendingLowSurrogate;
+
+  /**
+   * Creates a tokenizer reading the given part of the given file. The channel must stay open
+   * until the whole part has been read.
+   *
+   * @param channel the file to read
+   * @param start   the position in the file to start reading at
+   * @param end     the position in the file to stop reading at
+   * @throws IOException if the file can't be mapped
+   */
+  MappedFileTokenizer(FileChannel channel, long start, long end) throws IOException {
+    this.channel = channel;
+    this.end = end;
+    this.nextRegion = start;
+    this.pendingLowSurrogate = -1;
+    this.window = new byte[WINDOW_SIZE];
+    this.position = 0;
+    this.limit = 0;
+    this.mapNextRegion();
+    this.start();
+  }
+
+  /**
+   * Creates a tokenizer reading the given bytes of a file that has already been mapped, from the
+   * buffer's position to its limit. The buffer itself is not moved.
+   *
+   * @param bytes      the bytes to read
+   * @param windowSize how many bytes to copy out of the buffer at a time, which can be small when
+   *                   only the start of the bytes will be read
+   */
+  MappedFileTokenizer(ByteBuffer bytes, int windowSize) {
+    this.channel = null;
+    this.region = bytes.duplicate();
+    // there are no regions after this one
+    this.end = region.limit();
+    this.nextRegion = region.limit();
+    this.pendingLowSurrogate = -1;
+    this.window = new byte[windowSize];
+    this.position = 0;
+    this.limit = 0;
+    this.start();
+  }
+
+  /**
+   * Creates a tokenizer reading the given bytes of a file that has already been mapped, from the
+   * buffer's position to its limit.
+   *
+   * @param bytes the bytes to read
+   */
+  MappedFileTokenizer(ByteBuffer bytes) {
+    this(bytes, WINDOW_SIZE);
+  }
+
+  /**
+   * Gets the position of the next byte that hasn't been read, in the file or in the buffer that
+   * was given. The current character has already been read, so it is before this position.
+   *
+   * @return the position of the next byte
+   */
+  long offset() {
+    return nextRegion - region.remaining() - (limit - position);
+  }
+
+  @Override
+  protected int read() {
+    // almost every character is a single ASCII byte, so that case is kept small enough to inline
+    if (position < limit && pendingLowSurrogate < 0) {
+      byte b = window[position];
+      if (b >= 0) {
+        position += 1;
+        return b;
+      }
+    }
+    return this.readSlowly();
+  }
+
+  /**
+   * Reads the next character of the file when it is not an ASCII byte in the window.
+   *
+   * @return the next character, or -1 at the end of the file
+   */
+  private int readSlowly() {
+    if (pendingLowSurrogate >= 0) {
+      int c = pendingLowSurrogate;
+      pendingLowSurrogate = -1;
+      return c;
+    }
+
+    int b = this.readByte();
+    if (b < 0x80) {
+      // ASCII, or the end of the file
+      return b;
+    }
+    return this.decode(b);
+  }
+
+  /**
+   * Decodes the rest of a UTF-8 sequence that starts with the given byte. Malformed sequences
+   * are read as the replacement character.
+   *
+   * @param first the first byte of the sequence
+   * @return the decoded character, or its high surrogate if it needs two chars
+   */
+  private int decode(int first) {
+    int length;
+    int codePoint;
+    if ((first & 0xE0) == 0xC0) {
+      length = 1;
+      codePoint = first & 0x1F;
+    } else if ((first & 0xF0) == 0xE0) {
+      length = 2;
+      codePoint = first & 0x0F;
+    } else if ((first & 0xF8) == 0xF0) {
+      length = 3;
+      codePoint = first & 0x07;
+    } else {
+      return REPLACEMENT_CHARACTER;
+    }
+
+    for (int i = 0; i < length; i++) {
+      int b = this.readByte();
+      if ((b & 0xC0) != 0x80) {
+        return REPLACEMENT_CHARACTER;
+      }
+      codePoint = (codePoint << 6) | (b & 0x3F);
+    }
+
+    if (!Character.isValidCodePoint(codePoint)) {
+      return REPLACEMENT_CHARACTER;
+    } else if (Character.isBmpCodePoint(codePoint)) {
+      return codePoint;
+    }
+    pendingLowSurrogate = Character.lowSurrogate(codePoint);
+    return Character.highSurrogate(codePoint);
+  }
+
+  /**
+   * Reads the next byte of the file, moving the window forward if it has been read.
+   *
+   * @return the next byte, from 0 to 255, or -1 at the end of the file
+   * @throws IllegalStateException if the next region of the file can't be mapped
+   */
+  private int readByte() {
+    if (position == limit && !this.fillWindow()) {
+      return -1;
+    }
+    int b = window[position] & 0xFF;
+    position += 1;
+    return b;
+  }
+
+  /**
+   * Copies the next bytes of the file into the window, mapping the next region if this one has
+   * been read.
+   *
+   * @return whether any bytes were copied, or false at the end of the file
+   * @throws IllegalStateException if the next region of the file can't be mapped
+   */
+  private boolean fillWindow() {
+    if (!region.hasRemaining()) {
+      if (nextRegion == end) {
+        return false;
+      }
+      try {
+        this.mapNextRegion();
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read the animation: " + e.getMessage());
+      }
+    }
+    limit = Math.min(window.length, region.remaining());
+    region.get(window, 0, limit);
+    position = 0;
+    return true;
+  }
+
+  /**
+   * Maps the region of the file after the current one.
+   *
+   * @throws IOException if the file can't be mapped
+   */
+  private void mapNextRegion() throws IOException {
+    long size = Math.min(REGION_SIZE, end - nextRegion);
+    region = channel.map(FileChannel.MapMode.READ_ONLY, nextRegion, size);
+    nextRegion += size;
+  }
+}
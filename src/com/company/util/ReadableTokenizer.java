@@ -0,0 +1,64 @@
+package com.company.util;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * Tokenizer that reads characters from a {@link Readable} in large blocks.
+ */
+class ReadableTokenizer extends ATokenizer {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Readable readable;
+  private final CharBuffer buffer;
+  // The backing array of the buffer, read directly instead of through the buffer.
+  private final char[] chars;
+  private int position;
+  private int limit;
+
+  /**
+   * Creates a tokenizer reading from the given source.
+   *
+   * @param readable the source of the characters
+   */
+  ReadableTokenizer(Readable readable) {
+    this.readable = readable;
+    this.chars = new char[BUFFER_SIZE];
+    this.buffer = CharBuffer.wrap(chars);
+    this.position = 0;
+    this.limit = 0;
+    this.start();
+  }
+
+  @Override
+  protected int read() {
+    if (position == limit && !this.fill()) {
+      return -1;
+    }
+    char c = chars[position];
+    position += 1;
+    return c;
+  }
+
+  /**
+   * Reads the next block of characters into the buffer.
+   *
+   * @return whether any characters were read, or false at the end of the input
+   * @throws IllegalStateException if the source can't be read
+   */
+  private boolean fill() {
+    try {
+      int read;
+      do {
+        buffer.clear();
+        read = readable.read(buffer);
+      } while (read == 0);
+
+      position = 0;
+      limit = Math.max(read, 0);
+      return read > 0;
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read the animation: " + e.getMessage());
+    }
+  }
+}
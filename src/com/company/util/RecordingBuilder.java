@@ -0,0 +1,215 @@
+package com.company.util;
+
+import java.util.Arrays;
+
+/**
+ * Animation builder that records the calls made to it, so that they can be replayed into another
+ * builder later, in the same order. Calls are stored as columns of primitive values rather than as
+ * objects, so that recording a whole file takes little more memory than the file itself.
+ */
+class RecordingBuilder implements AnimationBuilder<Void> {
+  private static final byte BOUNDS = 0;
+  private static final byte SHAPE = 1;
+  private static final byte SHAPE_IN_LAYER = 2;
+  private static final byte LAYER = 3;
+  private static final byte MOTION = 4;
+  private static final byte KEYFRAME = 5;
+
+  // The kind of each call, in order.
+  private byte[] calls;
+  private int callCount;
+  // The string, integer and decimal arguments of every call, in order.
+  private String[] strings;
+  private int stringCount;
+  private int[] ints;
+  private int intCount;
+  private double[] doubles;
+  private int doubleCount;
+  // The exception that stopped the recording, if any.
+  private RuntimeException failure;
+
+  /**
+   * Creates a builder that hasn't recorded anything.
+   */
+  RecordingBuilder() {
+    this.calls = new byte[64];
+    this.strings = new String[64];
+    this.ints = new int[256];
+    this.doubles = new double[32];
+  }
+
+  /**
+   * Records that the calls after the ones recorded so far failed with the given exception.
+   *
+   * @param failure the exception
+   */
+  void fail(RuntimeException failure) {
+    this.failure = failure;
+  }
+
+  /**
+   * Makes the recorded calls on the given builder, in the order they were recorded, then throws
+   * the exception that stopped the recording, if there was one.
+   *
+   * @param builder the builder to make the calls on
+   * @param <Doc>   the main model interface type describing animations
+   * @throws RuntimeException the exception given to {@link #fail(RuntimeException)}
+   */
+  <Doc> void replay(AnimationBuilder<Doc> builder) {
+    int string = 0;
+    int integer = 0;
+    int decimal = 0;
+    for (int call = 0; call < callCount; call++) {
+      switch (calls[call]) {
+        case BOUNDS:
+          builder.setBounds(ints[integer], ints[integer + 1], ints[integer + 2],
+              ints[integer + 3]);
+          integer += 4;
+          break;
+        case SHAPE:
+          builder.declareShape(strings[string], strings[string + 1]);
+          string += 2;
+          break;
+        case SHAPE_IN_LAYER:
+          builder.declareShape(strings[string], strings[string + 1], strings[string + 2]);
+          string += 3;
+          break;
+        case LAYER:
+          builder.declareLayer(strings[string]);
+          string += 1;
+          break;
+        case MOTION:
+          builder.addMotion(strings[string],
+              ints[integer], ints[integer + 1], ints[integer + 2], ints[integer + 3],
+              ints[integer + 4], ints[integer + 5], ints[integer + 6], ints[integer + 7],
+              doubles[decimal],
+              ints[integer + 8], ints[integer + 9], ints[integer + 10], ints[integer + 11],
+              ints[integer + 12], ints[integer + 13], ints[integer + 14], ints[integer + 15],
+              doubles[decimal + 1]);
+          string += 1;
+          integer += 16;
+          decimal += 2;
+          break;
+        case KEYFRAME:
+          builder.addKeyframe(strings[string],
+              ints[integer], ints[integer + 1], ints[integer + 2], ints[integer + 3],
+              ints[integer + 4], ints[integer + 5], ints[integer + 6], ints[integer + 7],
+              doubles[decimal]);
+          string += 1;
+          integer += 8;
+          decimal += 1;
+          break;
+        default:
+          throw new IllegalStateException("Unreachable code");
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public Void build() {
+    // nothing to build, the calls are replayed instead
+    return null;
+  }
+
+  @Override
+  public AnimationBuilder<Void> setBounds(int x, int y, int width, int height) {
+    this.addCall(BOUNDS);
+    this.addInts(4);
+    ints[intCount - 4] = x;
+    ints[intCount - 3] = y;
+    ints[intCount - 2] = width;
+    ints[intCount - 1] = height;
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Void> declareShape(String name, String type) {
+    this.addCall(SHAPE);
+    this.addString(name);
+    this.addString(type);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Void> declareShape(String name, String type, String layer) {
+    this.addCall(SHAPE_IN_LAYER);
+    this.addString(name);
+    this.addString(type);
+    this.addString(layer);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Void> declareLayer(String layerName) {
+    this.addCall(LAYER);
+    this.addString(layerName);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Void> addMotion(
+      String name,
+      int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1, double a1,
+      int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2, double a2) {
+    this.addCall(MOTION);
+    this.addString(name);
+    this.addState(t1, x1, y1, w1, h1, r1, g1, b1, a1);
+    this.addState(t2, x2, y2, w2, h2, r2, g2, b2, a2);
+    return this;
+  }
+
+  @Override
+  public AnimationBuilder<Void> addKeyframe(
+      String name, int t, int x, int y, int w, int h, int r, int g, int b, double a) {
+    this.addCall(KEYFRAME);
+    this.addString(name);
+    this.addState(t, x, y, w, h, r, g, b, a);
+    return this;
+  }
+
+  private void addState(int t, int x, int y, int w, int h, int r, int g, int b, double a) {
+    this.addInts(8);
+    int index = intCount - 8;
+    ints[index] = t;
+    ints[index + 1] = x;
+    ints[index + 2] = y;
+    ints[index + 3] = w;
+    ints[index + 4] = h;
+    ints[index + 5] = r;
+    ints[index + 6] = g;
+    ints[index + 7] = b;
+
+    if (doubleCount == doubles.length) {
+      doubles = Arrays.copyOf(doubles, doubles.length * 2);
+    }
+    doubles[doubleCount] = a;
+    doubleCount += 1;
+  }
+
+  private void addCall(byte call) {
+    if (callCount == calls.length) {
+      calls = Arrays.copyOf(calls, calls.length * 2);
+    }
+    calls[callCount] = call;
+    callCount += 1;
+  }
+
+  private void addString(String string) {
+    if (stringCount == strings.length) {
+      strings = Arrays.copyOf(strings, strings.length * 2);
+    }
+    strings[stringCount] = string;
+    stringCount += 1;
+  }
+
+  private void addInts(int count) {
+    if (intCount + count > ints.length) {
+      ints = Arrays.copyOf(ints, Math.max(ints.length * 2, intCount + count));
+    }
+    intCount += count;
+  }
+}
@@ -0,0 +1,170 @@
+package com.company.view.binary;
+
+import com.company.model.Frame;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.Shape;
+import com.company.util.BinaryAnimationReader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * A view that writes the keyframes of the animation in the binary format described by
+ * {@link BinaryAnimationReader}. Like the text view, positions and sizes are written as whole
+ * numbers.
+ */
+public class BinaryAnimatorView implements BinaryView {
+  private final ReadOnlyAnimatorModel model;
+
+  /**
+   * Creates a view that writes the given model.
+   *
+   * @param model the model to write
+   */
+  public BinaryAnimatorView(ReadOnlyAnimatorModel model) {
+    this.model = model;
+  }
+
+  @Override
+  public void outputBinary(OutputStream out) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("Output cannot be null");
+    }
+    Map<String, SortedSet<Frame>> timelines = model.getKeyframes();
+    List<String> layerNames = new ArrayList<>(model.getLayers());
+
+    Encoder header = new Encoder();
+    header.int32(BinaryAnimationReader.MAGIC);
+    header.unsigned(BinaryAnimationReader.VERSION);
+    header.signed(model.getCanvasX());
+    header.signed(model.getCanvasY());
+    header.signed(model.getCanvasWidth());
+    header.signed(model.getCanvasHeight());
+
+    header.unsigned(layerNames.size());
+    int shapeCount = 0;
+    for (String layerName : layerNames) {
+      header.string(layerName);
+      shapeCount += model.getShapesInLayer(layerName).size();
+    }
+
+    // the keyframes are written after the whole shape table, which gives how long they are
+    Encoder keyframes = new Encoder();
+    header.unsigned(shapeCount);
+    for (int layer = 0; layer < layerNames.size(); layer++) {
+      for (String shapeName : model.getShapesInLayer(layerNames.get(layer))) {
+        SortedSet<Frame> timeline = timelines.get(shapeName);
+        int start = keyframes.size;
+        writeKeyframes(keyframes, timeline);
+
+        header.string(shapeName);
+        header.string(timeline.first().getShape().getShapeType().toString());
+        header.unsigned(layer);
+        header.unsigned(timeline.size());
+        header.unsigned(keyframes.size - start);
+      }
+    }
+
+    header.writeTo(out);
+    keyframes.writeTo(out);
+  }
+
+  /**
+   * Writes the keyframes of one shape a column at a time, each value as the difference from the
+   * one before it.
+   */
+  private static void writeKeyframes(Encoder out, SortedSet<Frame> timeline) {
+    int previousTick = 0;
+    for (Frame frame : timeline) {
+      // the ticks only ever go up
+      out.unsigned((int) frame.getTime() - previousTick);
+      previousTick = (int) frame.getTime();
+    }
+    writeColumn(out, timeline, shape -> (int) shape.getPosition().getX());
+    writeColumn(out, timeline, shape -> (int) shape.getPosition().getY());
+    writeColumn(out, timeline, shape -> (int) shape.getWidth());
+    writeColumn(out, timeline, shape -> (int) shape.getHeight());
+    writeColumn(out, timeline, shape -> shape.getColor().getRGB() & 0xFFFFFF);
+    long previousAngle = 0;
+    for (Frame frame : timeline) {
+      long angle = Double.doubleToLongBits(frame.getShape().getShapeAngle());
+      out.signedLong(angle - previousAngle);
+      previousAngle = angle;
+    }
+  }
+
+  private static void writeColumn(Encoder out, SortedSet<Frame> timeline,
+                                  ToIntFunction<Shape> attribute) {
+    int previous = 0;
+    for (Frame frame : timeline) {
+      int value = attribute.applyAsInt(frame.getShape());
+      out.signed(value - previous);
+      previous = value;
+    }
+  }
+
+  /**
+   * Builds up bytes in memory in the encodings of the binary format.
+   */
+  private static class Encoder {
+    private byte[] bytes = new byte[256];
+    private int size = 0;
+
+    private void add(int b) {
+      if (size == bytes.length) {
+        bytes = Arrays.copyOf(bytes, size * 2);
+      }
+      bytes[size++] = (byte) b;
+    }
+
+    private void int32(int value) {
+      this.add(value >>> 24);
+      this.add(value >>> 16);
+      this.add(value >>> 8);
+      this.add(value);
+    }
+
+    private void unsigned(int value) {
+      while ((value & ~0x7F) != 0) {
+        this.add((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      this.add(value);
+    }
+
+    private void unsignedLong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        this.add((int) (value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      this.add((int) value);
+    }
+
+    private void signed(int value) {
+      this.unsigned((value << 1) ^ (value >> 31));
+    }
+
+    private void signedLong(long value) {
+      this.unsignedLong((value << 1) ^ (value >> 63));
+    }
+
+    private void string(String value) {
+      byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+      this.unsigned(encoded.length);
+      for (byte b : encoded) {
+        this.add(b);
+      }
+    }
+
+    private void writeTo(OutputStream out) throws IOException {
+      out.write(bytes, 0, size);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.company.view.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A view that writes the animation in the compact binary format read by
+ * {@link com.company.util.BinaryAnimationReader}, which is much smaller and faster to read than
+ * the text format.
+ */
+public interface BinaryView {
+  /**
+   * Outputs the animation in the binary format to the given output stream.
+   *
+   * @param out the output stream that the view is written to
+   * @throws IllegalArgumentException if the given output stream is {@code null}
+   * @throws IOException              if the given output stream cannot be written to
+   */
+  void outputBinary(OutputStream out) throws IOException;
+}
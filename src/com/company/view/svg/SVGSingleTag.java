@@ -1,5 +1,7 @@
 package com.company.view.svg;
 
+import java.io.IOException;
+
 /**
  * Represents a single svg tag, with no closing tag.
  */
@@ -16,16 +18,14 @@ public class SVGSingleTag extends SVGTag {
   }
 
   @Override
-  public String toString() {
-    StringBuilder builder = new StringBuilder();
-    builder.append("<");
-    builder.append(this.name);
+  public void writeOpeningTag(Appendable out) throws IOException {
+    out.append("<").append(this.name);
+    this.writeAttributes(out);
+    out.append(" />\n");
+  }
 
-    for (SVGTagAttribute attribute : attributes) {
-      builder.append(" ");
-      builder.append(attribute.toString());
-    }
-    builder.append(" />\n");
-    return builder.toString();
+  @Override
+  public void writeClosingTag(Appendable out) {
+    // a single tag closes itself
   }
 }
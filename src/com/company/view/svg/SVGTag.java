@@ -1,5 +1,6 @@
 package com.company.view.svg;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -35,25 +36,74 @@ public class SVGTag {
     this.attributes.add(attribute);
   }
 
-  @Override
-  public String toString() {
-    StringBuilder builder = new StringBuilder();
-    builder.append("<");
-    builder.append(this.name);
+  /**
+   * Writes this tag, with its attributes and the tags inside it, to the given output.
+   *
+   * @param out the output to write to
+   * @throws IOException if the output can't be written to
+   */
+  public void writeTo(Appendable out) throws IOException {
+    this.writeOpeningTag(out);
+    this.writeInnerTags(out);
+    this.writeClosingTag(out);
+  }
 
-    for (SVGTagAttribute attribute : attributes) {
-      builder.append(" ");
-      builder.append(attribute.toString());
-    }
-    builder.append(">\n");
+  /**
+   * Writes the opening tag, with the attributes of this tag, to the given output. Used with
+   * {@link #writeClosingTag(Appendable)} to write tags inside this one without adding them to it.
+   *
+   * @param out the output to write to
+   * @throws IOException if the output can't be written to
+   */
+  public void writeOpeningTag(Appendable out) throws IOException {
+    out.append("<").append(this.name);
+    this.writeAttributes(out);
+    out.append(">\n");
+  }
 
+  /**
+   * Writes the tags inside this tag to the given output.
+   *
+   * @param out the output to write to
+   * @throws IOException if the output can't be written to
+   */
+  public void writeInnerTags(Appendable out) throws IOException {
     for (SVGTag tag : this.innerSVGTags) {
-      builder.append(tag.toString());
+      tag.writeTo(out);
     }
+  }
 
-    builder.append("</");
-    builder.append(this.name);
-    builder.append(">\n");
+  /**
+   * Writes the closing tag to the given output.
+   *
+   * @param out the output to write to
+   * @throws IOException if the output can't be written to
+   */
+  public void writeClosingTag(Appendable out) throws IOException {
+    out.append("</").append(this.name).append(">\n");
+  }
+
+  /**
+   * Writes the attributes of this tag, each after a space, to the given output.
+   *
+   * @param out the output to write to
+   * @throws IOException if the output can't be written to
+   */
+  protected void writeAttributes(Appendable out) throws IOException {
+    for (SVGTagAttribute attribute : attributes) {
+      out.append(" ");
+      attribute.writeTo(out);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    try {
+      this.writeTo(builder);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unreachable code");
+    }
     return builder.toString();
   }
-}
\ No newline at end of file
+}
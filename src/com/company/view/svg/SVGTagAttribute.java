@@ -1,5 +1,7 @@
 package com.company.view.svg;
 
+import java.io.IOException;
+
 /**
  * Represents an attribute of a tag in an SVG file.
  */
@@ -18,6 +20,16 @@ public class SVGTagAttribute {
     this.value = value;
   }
 
+  /**
+   * Writes this attribute to the given output.
+   *
+   * @param out the output to write to
+   * @throws IOException if the output can't be written to
+   */
+  public void writeTo(Appendable out) throws IOException {
+    out.append(this.attribute).append("=\"").append(this.value).append('"');
+  }
+
   @Override
   public String toString() {
     return this.attribute + "=" + "\"" + this.value + "\"";
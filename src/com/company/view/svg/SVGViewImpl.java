@@ -2,34 +2,53 @@ package com.company.view.svg;
 
 import com.company.model.Frame;
 import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.Shape;
 import com.company.model.shape.ShapeType;
 import com.company.view.svg.svgshapes.SVGEllipse;
 import com.company.view.svg.svgshapes.SVGRectangle;
 import com.company.view.svg.svgshapes.SVGShape;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
- * A view that produces an SVG-formatted output of the given animation.
+ * A view that produces an SVG-formatted output of the given animation. Shapes are written in
+ * drawing order, so that shapes in higher layers are drawn over shapes in lower layers. Each
+ * shape's tags depend only on that shape's keyframes, so they can be written on several threads
+ * at once.
  */
 public class SVGViewImpl implements SVGView {
+  // How many shapes each thread may be ahead of the output when writing on several threads.
+  private static final int SHAPES_AHEAD_PER_THREAD = 16;
+
   private final Map<ShapeType, SVGShape> svgShapes;
 
   private final ReadOnlyAnimatorModel model;
   private final int speed;
+  private final int threads;
 
   /**
-   * Creates a new SVG animator view that initializes all of the fields.
+   * Creates a new SVG animator view that initializes all of the fields, and writes the tags of
+   * each shape on the given number of threads.
    *
-   * @param model a read-only animator model for the view to read from.
-   * @param fps   frames per second that the animation runs at
+   * @param model   a read-only animator model for the view to read from.
+   * @param fps     frames per second that the animation runs at
+   * @param threads the number of threads to write shapes on
+   * @throws IllegalArgumentException if the number of threads is less than one
    */
-  public SVGViewImpl(ReadOnlyAnimatorModel model, int fps) {
+  public SVGViewImpl(ReadOnlyAnimatorModel model, int fps, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is needed");
+    }
     this.model = model;
     this.speed = fps;
+    this.threads = threads;
 
     svgShapes = new HashMap<>();
 
@@ -37,6 +56,17 @@ public class SVGViewImpl implements SVGView {
     svgShapes.put(ShapeType.Ellipse, new SVGEllipse());
   }
 
+  /**
+   * Creates a new SVG animator view that initializes all of the fields, and writes every shape on
+   * the calling thread.
+   *
+   * @param model a read-only animator model for the view to read from.
+   * @param fps   frames per second that the animation runs at
+   */
+  public SVGViewImpl(ReadOnlyAnimatorModel model, int fps) {
+    this(model, fps, 1);
+  }
+
   /**
    * Creates a new SVG animator view with a default of one frame per second, and with the given read
    * only model of the animation.
@@ -49,38 +79,73 @@ public class SVGViewImpl implements SVGView {
 
   @Override
   public void outputSVG(Appendable out) throws IOException {
-    out.append(this.createSVGDocument());
-  }
-
-  /**
-   * Creates a new SVGDocument as a string.
-   *
-   * @return the SVGDocument detailing the entire animation, as a string.
-   */
-  private String createSVGDocument() {
     SVGTag svg = new SVGTag("svg",
         new SVGTagAttribute("width", Integer.toString(this.model.getCanvasWidth())),
         new SVGTagAttribute("height", Integer.toString(this.model.getCanvasHeight())),
         new SVGTagAttribute("version", "1.1"),
         new SVGTagAttribute("xmlns", "http://www.w3.org/2000/svg"));
 
+    // write each tag as soon as it is made, rather than building the whole document first
+    svg.writeOpeningTag(out);
     Map<String, SortedSet<Frame>> keyframes = model.getKeyframes();
-
-    for (Map.Entry<String, SortedSet<Frame>> keyframe : keyframes.entrySet()) {
-      svg.addTag(this.shapeToSVG(keyframe.getKey(), keyframe.getValue()));
+    if (threads == 1) {
+      for (String layer : model.getLayers()) {
+        for (String shapeName : model.getShapesInLayer(layer)) {
+          this.writeShape(shapeName, keyframes.get(shapeName), out);
+        }
+      }
+    } else {
+      this.writeShapesInParallel(keyframes, out);
     }
+    svg.writeClosingTag(out);
+  }
 
-    return svg.toString();
+  /**
+   * Writes the tags of every shape in drawing order, writing the tags of the shapes into buffers
+   * on a pool of threads. Only a limited number of shapes are written ahead of the output, so
+   * memory use doesn't grow with the size of the animation.
+   *
+   * @param keyframes the keyframes of every shape
+   * @param out       the output to write to
+   * @throws IOException if the output can't be written to
+   */
+  private void writeShapesInParallel(Map<String, SortedSet<Frame>> keyframes, Appendable out)
+      throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      Deque<ForkJoinTask<StringBuilder>> pending = new ArrayDeque<>();
+      for (String layer : model.getLayers()) {
+        for (String shapeName : model.getShapesInLayer(layer)) {
+          SortedSet<Frame> frames = keyframes.get(shapeName);
+          pending.add(pool.submit(() -> {
+            StringBuilder shapeTags = new StringBuilder();
+            this.writeShape(shapeName, frames, shapeTags);
+            return shapeTags;
+          }));
+
+          if (pending.size() >= threads * SHAPES_AHEAD_PER_THREAD) {
+            out.append(pending.remove().join());
+          }
+        }
+      }
+      while (!pending.isEmpty()) {
+        out.append(pending.remove().join());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
   }
 
   /**
-   * Creates a shape tag and the associated animations.
+   * Writes a shape tag and the associated animations to the given output.
    *
    * @param shapeName name of the shape
    * @param frames    the set of frames defining this shape's animation
-   * @return an SVGTag representing the animated shape
+   * @param out       the output to write to
+   * @throws IOException if the output can't be written to
    */
-  private SVGTag shapeToSVG(String shapeName, SortedSet<Frame> frames) {
+  private void writeShape(String shapeName, SortedSet<Frame> frames, Appendable out)
+      throws IOException {
 
     // Gets the kind of svgShape that this shape is
     SVGShape svgShape = this.svgShapes.get(frames.first().getShape().getShapeType());
@@ -88,20 +153,75 @@ public class SVGViewImpl implements SVGView {
     // Creates the shape tag to be animated
     SVGTag shapeTag = svgShape.getShapeTag(shapeName, frames.first().getShape(),
         this.model.getCanvasX(), this.model.getCanvasY());
+    shapeTag.writeOpeningTag(out);
 
-    // Add the internal animation tags
-    Frame prevFrame = null;
-    if (frames.size() == 1) {
-      return shapeTag;
-    }
+    // Write the internal animation tags, merging motions that continue one another in a straight
+    // line into a single motion, since they animate the shape exactly the same way
+    Frame start = null;
+    Frame end = null;
     for (Frame frame : frames) {
-      if (prevFrame != null) {
-        svgShape.addMotionTags(prevFrame, frame, shapeTag, this.speed,
+      if (start == null) {
+        start = frame;
+      } else if (end == null || isOnLine(start, end, frame)) {
+        end = frame;
+      } else {
+        svgShape.writeMotionTags(start, end, out, this.speed,
             this.model.getCanvasX(), this.model.getCanvasY());
+        start = end;
+        end = frame;
       }
-      prevFrame = frame;
+    }
+    if (end != null) {
+      svgShape.writeMotionTags(start, end, out, this.speed,
+          this.model.getCanvasX(), this.model.getCanvasY());
     }
 
-    return shapeTag;
+    shapeTag.writeClosingTag(out);
+  }
+
+  /**
+   * Determines whether the middle frame is exactly where the shape would be if it moved in a
+   * straight line from the start frame to the end frame, so that the middle frame can be left out
+   * without changing the animation. Colors are only on the line if they don't change, since they
+   * are not written as values that can be interpolated.
+   *
+   * @param start  the first frame
+   * @param middle the frame between the first and the last
+   * @param end    the last frame
+   * @return whether the middle frame can be left out
+   */
+  private static boolean isOnLine(Frame start, Frame middle, Frame end) {
+    Shape from = start.getShape();
+    Shape through = middle.getShape();
+    Shape to = end.getShape();
+    double before = middle.getTime() - start.getTime();
+    double total = end.getTime() - start.getTime();
+
+    return from.getColor().equals(through.getColor()) && through.getColor().equals(to.getColor())
+        && isOnLine(from.getPosition().getX(), through.getPosition().getX(),
+            to.getPosition().getX(), before, total)
+        && isOnLine(from.getPosition().getY(), through.getPosition().getY(),
+            to.getPosition().getY(), before, total)
+        && isOnLine(from.getWidth(), through.getWidth(), to.getWidth(), before, total)
+        && isOnLine(from.getHeight(), through.getHeight(), to.getHeight(), before, total)
+        && isOnLine(from.getShapeAngle(), through.getShapeAngle(), to.getShapeAngle(), before,
+            total);
+  }
+
+  /**
+   * Determines whether a value changing at a constant rate from the first value to the last
+   * reaches exactly the middle value after the given part of the total time. The values are
+   * compared without dividing, so that whole numbers are compared exactly.
+   *
+   * @param from    the first value
+   * @param through the middle value
+   * @param to      the last value
+   * @param before  the time between the first and the middle value
+   * @param total   the time between the first and the last value
+   * @return whether the middle value is on the line
+   */
+  private static boolean isOnLine(double from, double through, double to, double before,
+                                  double total) {
+    return (through - from) * total == (to - from) * before;
   }
 }
@@ -7,6 +7,7 @@ import com.company.view.svg.SVGTag;
 import com.company.view.svg.SVGTagAttribute;
 
 import java.awt.Color;
+import java.io.IOException;
 
 /**
  * Abstract class representing some of the most common operations for an SVG shape.
@@ -55,6 +56,15 @@ public abstract class ASVGShape implements SVGShape {
     }
   }
 
+  @Override
+  public void writeMotionTags(Frame frame1, Frame frame2, Appendable out,
+                              int fps, int canvasX, int canvasY) throws IOException {
+    // collect the tags of this one motion in a container that is never written itself
+    SVGTag motionTags = new SVGTag(frame1.getShape().getShapeType().svgName());
+    this.addMotionTags(frame1, frame2, motionTags, fps, canvasX, canvasY);
+    motionTags.writeInnerTags(out);
+  }
+
   /**
    * Helper method for creating the animate tag.
    *
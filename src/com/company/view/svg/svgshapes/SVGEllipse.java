@@ -54,7 +54,7 @@ public class SVGEllipse extends ASVGShape implements SVGShape {
               Double.toString(frame1.getShape().getHeight()),
               Double.toString(frame2.getShape().getHeight()), fps));
     }
-    if (frame1Shape.getColor() != frame2Shape.getColor()) {
+    if (!frame1Shape.getColor().equals(frame2Shape.getColor())) {
       shapeTag.addTag(this.getAnimateTag(frame1, frame2, "fill",
               colorToRGBString(frame1.getShape().getColor()),
               colorToRGBString(frame2.getShape().getColor()), fps));
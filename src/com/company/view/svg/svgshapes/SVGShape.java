@@ -4,6 +4,8 @@ import com.company.model.Frame;
 import com.company.model.shape.Shape;
 import com.company.view.svg.SVGTag;
 
+import java.io.IOException;
+
 /**
  * An SVGShape is a class that supports operations for converting shapes and their behaviors to work
  * with SVGs. For every shape that the SVGView intends to support, there should be a corresponding
@@ -35,4 +37,20 @@ public interface SVGShape {
    */
   void addMotionTags(Frame frame1, Frame frame2, SVGTag shapeTag,
                      int fps, int canvasX, int canvasY);
+
+  /**
+   * Writes all the relevant animate tags to move between frame1 and frame2 to the given output,
+   * instead of adding them to the shape's tag, so that animations with many keyframes can be
+   * written without holding all of their tags in memory.
+   *
+   * @param frame1  starting frame
+   * @param frame2  ending frame
+   * @param out     the output to write the tags to
+   * @param fps     frames per second, the speed at which the animation is running
+   * @param canvasX the x coordinate for the origin on the canvas
+   * @param canvasY the y coordinate for the origin on the canvas
+   * @throws IOException if the output can't be written to
+   */
+  void writeMotionTags(Frame frame1, Frame frame2, Appendable out,
+                       int fps, int canvasX, int canvasY) throws IOException;
 }
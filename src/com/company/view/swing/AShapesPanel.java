@@ -1,8 +1,11 @@
 package com.company.view.swing;
 
+import com.company.model.ModelChangeEvent;
+import com.company.model.ModelChangeType;
 import com.company.model.ReadOnlyAnimatorModel;
 import com.company.model.shape.Posn;
 import com.company.model.shape.Shape;
+import com.company.model.shape.ShapeState;
 import com.company.model.shape.ShapeType;
 import com.company.view.swing.editor.Ellipse2D;
 import com.company.view.swing.editor.Rectangle2D;
@@ -11,8 +14,12 @@ import com.company.view.swing.editor.SwingShape;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.swing.JPanel;
 
@@ -29,6 +36,16 @@ public abstract class AShapesPanel extends JPanel {
   // Map that maps a shape name to a colored shape, which contains a reference to the shape that
   // is drawn on screen
   protected Map<String, DecoratedShape> shapes;
+  // The states of the shapes at the tick, reused every time the shapes are updated.
+  private final List<ShapeState> states;
+  // The state of a single changed shape, reused every time one is updated.
+  private final ShapeState changedState;
+  // The tick and model version the shapes were last updated for.
+  private int shownTick;
+  private long shownVersion;
+  // The shapes the model changed since the last update, unless every shape has to be updated.
+  private final Set<String> changedShapes;
+  private boolean allChanged;
 
   /**
    * Initializes the panel given a model. Sets the time t to 0 to it starts at the beginning.
@@ -50,13 +67,25 @@ public abstract class AShapesPanel extends JPanel {
         ShapeType.Ellipse, new Ellipse2D(model.getCanvasX(), model.getCanvasY()));
 
     // Initializes the shapes
-    Map<String, Shape> modelShapes = model.shapesAt(t);
-
     this.shapes = new LinkedHashMap<>();
-    for (Map.Entry<String, Shape> shape : modelShapes.entrySet()) {
-      java.awt.Shape newShape = this.toSwingShape(shape.getValue());
-      this.shapes.put(shape.getKey(), new DecoratedShape(shape.getValue().getColor(), newShape,
-              shape.getValue().getShapeAngle()));
+    this.states = new ArrayList<>();
+    this.changedState = new ShapeState();
+    this.changedShapes = new HashSet<>();
+    this.allChanged = true;
+    model.addChangeListener(this::modelChanged);
+    this.updateShapes();
+  }
+
+  /**
+   * Records which shapes have to be updated after the given change to the model.
+   *
+   * @param event the change to the model
+   */
+  private void modelChanged(ModelChangeEvent event) {
+    if (event.changesDrawOrder() || event.getType() == ModelChangeType.CanvasChanged) {
+      allChanged = true;
+    } else {
+      changedShapes.add(event.getShapeName());
     }
   }
 
@@ -147,34 +176,110 @@ public abstract class AShapesPanel extends JPanel {
 
   /**
    * Checks to see if the model has changed, and updates the shapes map to reflect all the shapes
-   * that are drawn on the screen.
+   * that are drawn on the screen. Shapes that were already on the screen are updated in place. If
+   * the tick is the same as last time, only the shapes the model said were changed are updated.
    */
   public void updateShapes() {
+    if (t == shownTick && !allChanged && model.getVersion() == shownVersion) {
+      return;
+    }
+    if (t != shownTick || allChanged || !this.updateChangedShapes()) {
+      this.updateAllShapes();
+    }
+    shownTick = t;
+    shownVersion = model.getVersion();
+    allChanged = false;
+    changedShapes.clear();
+    this.shapesUpdated();
+  }
+
+  /**
+   * Called after the shapes drawn on the screen have been updated. Does nothing by default; can be
+   * overridden to drop anything computed from the old shapes.
+   */
+  protected void shapesUpdated() {
+    // nothing is computed from the shapes by default
+  }
+
+  /**
+   * Updates only the shapes that the model said were changed. A shape that wasn't on the screen
+   * can't be added this way, since it has to be put in its place in the drawing order.
+   *
+   * @return whether the changed shapes could be updated, or false if every shape has to be
+   */
+  private boolean updateChangedShapes() {
+    for (String name : changedShapes) {
+      Shape shape = model.getKeyframes().containsKey(name) ? model.shapeAt(name, t) : null;
+      DecoratedShape decoratedShape = this.shapes.get(name);
+      if (shape == null) {
+        this.shapes.remove(name);
+      } else if (decoratedShape == null) {
+        return false;
+      } else {
+        changedState.set(shape);
+        this.updateShape(decoratedShape, changedState);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Updates every shape drawn on the screen at the tick.
+   */
+  private void updateAllShapes() {
     // Every time repaint is called, this code will update the properties of shapes to match how
     // they appear in the model
-    Map<String, Shape> modelShapes = model.shapesAt(t);
-    for (Map.Entry<String, Shape> shape : modelShapes.entrySet()) {
-      if (this.shapes.containsKey(shape.getKey())) {
-        this.shapes.get(shape.getKey()).color = shape.getValue().getColor();
-        this.shapes.get(shape.getKey()).angle = shape.getValue().getShapeAngle();
-        this.shapes.get(shape.getKey()).shape = this.toSwingShape(shape.getValue());
+    int count = model.statesAt(t, states);
+    for (int i = 0; i < count; i++) {
+      ShapeState state = states.get(i);
+      DecoratedShape decoratedShape = this.shapes.get(state.name);
+      if (decoratedShape == null) {
+        this.shapes.put(state.name, new DecoratedShape(new Color(state.rgb, true),
+            this.swingShapeFor(state.type).createShape(
+                state.x, state.y, state.width, state.height),
+            state.angle));
       } else {
-        java.awt.Shape newShape = this.toSwingShape(shape.getValue());
-        this.shapes.put(shape.getKey(),
-                new DecoratedShape(
-                        shape.getValue().getColor(), newShape, shape.getValue().getShapeAngle()));
+        this.updateShape(decoratedShape, state);
       }
     }
 
-    Map<String, DecoratedShape> toRemove = new LinkedHashMap<>();
-    for (Map.Entry<String, DecoratedShape> shape : shapes.entrySet()) {
-      if (!modelShapes.containsKey(shape.getKey())) {
-        toRemove.put(shape.getKey(), shape.getValue());
+    // every drawn shape is in the map, so any other shapes are only there if the sizes differ
+    if (shapes.size() != count) {
+      Set<String> drawn = new HashSet<>();
+      for (int i = 0; i < count; i++) {
+        drawn.add(states.get(i).name);
       }
+      shapes.keySet().retainAll(drawn);
     }
+  }
 
-    for (String shapeName : toRemove.keySet()) {
-      shapes.remove(shapeName);
+  /**
+   * Updates a shape drawn on the screen in place to the given state.
+   *
+   * @param decoratedShape the shape drawn on the screen
+   * @param state          the state to update it to
+   */
+  private void updateShape(DecoratedShape decoratedShape, ShapeState state) {
+    if (decoratedShape.color.getRGB() != state.rgb) {
+      decoratedShape.color = new Color(state.rgb, true);
+    }
+    decoratedShape.angle = state.angle;
+    decoratedShape.shape = this.swingShapeFor(state.type).updateShape(
+        decoratedShape.shape, state.x, state.y, state.width, state.height);
+  }
+
+  /**
+   * Gets the Swing version of the given shape type.
+   *
+   * @param type the shape type
+   * @return the Swing shape that creates shapes of that type
+   * @throws IllegalArgumentException if the shape type cannot be recognized
+   */
+  private SwingShape swingShapeFor(ShapeType type) {
+    SwingShape swingShape = swingShapeMap.get(type);
+    if (swingShape == null) {
+      throw new IllegalArgumentException("Invalid shape type");
     }
+    return swingShape;
   }
 }
@@ -1,10 +1,7 @@
 package com.company.view.swing;
 
-import com.company.model.Frame;
 import com.company.model.ReadOnlyAnimatorModel;
 
-import java.util.SortedSet;
-
 /**
  * Represents a class that extends JPanel to draw the shapes from a given animation model to the
  * screen. This class doesn't keep track of timing information: its only job is drawing to the
@@ -36,13 +33,6 @@ public class AnimationPanel extends AShapesPanel {
    * @return whether the animation is on its last frame
    */
   public boolean onLastFrame() {
-    for (SortedSet<Frame> frames : model.getKeyframes().values()) {
-      for (Frame frame : frames) {
-        if (frame.getTime() > t) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return t >= model.lastTick();
   }
 }
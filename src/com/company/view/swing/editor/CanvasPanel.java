@@ -26,7 +26,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
-import java.util.Map;
 import java.util.function.Consumer;
 
 import javax.swing.AbstractAction;
@@ -36,8 +35,6 @@ import javax.swing.KeyStroke;
 import javax.swing.border.BevelBorder;
 import javax.swing.border.Border;
 
-import static com.company.view.swing.editor.MousePointUtils.transformPoint;
-
 /**
  * Represents the canvas portion of the editor, the main area where the animation can be modified
  * and worked on. This canvas panel allows shapes to be dragged on top of it, repositioned, and
@@ -52,6 +49,8 @@ public class CanvasPanel extends AShapesPanel {
   private ShapeType toBeCreatedShape;
   private String toBeCreatedName;
   private Shape beingCreatedShape;
+  // Grid over the shapes on the screen for finding clicked shapes, or null until it's needed.
+  private ShapeGrid grid;
 
   /**
    * Initializes the panel given a model and a callback consumer. Sets the time t to 0 to it starts
@@ -71,6 +70,7 @@ public class CanvasPanel extends AShapesPanel {
     this.toBeCreatedShape = null;
     this.beingCreatedShape = null;
     this.toBeCreatedName = null;
+    this.grid = null;
 
     MouseAdapter resizer = new ResizeMouseAdapter();
     this.addMouseListener(resizer);
@@ -163,6 +163,12 @@ public class CanvasPanel extends AShapesPanel {
     this.drawBeingCreatedShape((Graphics2D) g);
   }
 
+  @Override
+  protected void shapesUpdated() {
+    // the shapes may have moved, so the grid is created again the next time it's needed
+    this.grid = null;
+  }
+
   @Override
   protected void drawCanvas(Graphics g) {
     Color oldColor = g.getColor();
@@ -268,14 +274,10 @@ public class CanvasPanel extends AShapesPanel {
   private class ClickMouseAdapter extends MouseAdapter {
     @Override
     public void mouseClicked(MouseEvent e) {
-      String toBeHighlighted = null;
-
-      for (Map.Entry<String, DecoratedShape> coloredShape : shapes.entrySet()) {
-        if (coloredShape.getValue().shape.contains(transformPoint(e.getPoint(),
-                coloredShape.getValue()))) {
-          toBeHighlighted = coloredShape.getKey();
-        }
+      if (grid == null) {
+        grid = new ShapeGrid(shapes);
       }
+      String toBeHighlighted = grid.shapeAt(e.getX(), e.getY());
 
       callback.accept(new HighlightShape(toBeHighlighted));
     }
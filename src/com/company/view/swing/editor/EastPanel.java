@@ -218,7 +218,7 @@ public class EastPanel extends JPanel {
         Border border = BorderFactory.createLineBorder(Color.lightGray);
         this.setBorder(border);
 
-        Shape origShape = model.shapesAt(tick).get(shapeName);
+        Shape origShape = model.shapeAt(shapeName, tick);
 
         SpinnerModel xField = new SpinnerNumberModel(
                 origShape.getPosition().getX(),
@@ -251,7 +251,7 @@ public class EastPanel extends JPanel {
                 1);
 
         xField.addChangeListener(e -> {
-          Shape currShape = model.shapesAt(tick).get(shapeName);
+          Shape currShape = model.shapeAt(shapeName, tick);
           SpinnerNumberModel source = (SpinnerNumberModel) e.getSource();
           modelCallback.accept(new ChangeX(shapeName, tick,
                   (double) source.getNumber() - currShape.getPosition().getX()));
@@ -259,7 +259,7 @@ public class EastPanel extends JPanel {
         });
 
         yField.addChangeListener(e -> {
-          Shape currShape = model.shapesAt(tick).get(shapeName);
+          Shape currShape = model.shapeAt(shapeName, tick);
           SpinnerNumberModel source = (SpinnerNumberModel) e.getSource();
           modelCallback.accept(new ChangeY(shapeName, tick,
                   (double) source.getNumber() - currShape.getPosition().getY()));
@@ -267,7 +267,7 @@ public class EastPanel extends JPanel {
         });
 
         widthField.addChangeListener(e -> {
-          Shape currShape = model.shapesAt(tick).get(shapeName);
+          Shape currShape = model.shapeAt(shapeName, tick);
           SpinnerNumberModel source = (SpinnerNumberModel) e.getSource();
           modelCallback.accept(new ChangeWidth(shapeName, tick,
                   (double) source.getNumber() - currShape.getWidth()));
@@ -275,7 +275,7 @@ public class EastPanel extends JPanel {
         });
 
         heightField.addChangeListener(e -> {
-          Shape currShape = model.shapesAt(tick).get(shapeName);
+          Shape currShape = model.shapeAt(shapeName, tick);
           SpinnerNumberModel source = (SpinnerNumberModel) e.getSource();
           modelCallback.accept(new ChangeHeight(shapeName, tick,
                   (double) source.getNumber() - currShape.getHeight()));
@@ -283,7 +283,7 @@ public class EastPanel extends JPanel {
         });
 
         angleField.addChangeListener(e -> {
-          Shape currShape = model.shapesAt(tick).get(shapeName);
+          Shape currShape = model.shapeAt(shapeName, tick);
           SpinnerNumberModel source = (SpinnerNumberModel) e.getSource();
           modelCallback.accept(new ChangeAngle(shapeName, tick,
                   Math.toRadians((double) source.getNumber()) - currShape.getShapeAngle()));
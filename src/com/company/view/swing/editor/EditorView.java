@@ -44,6 +44,14 @@ public interface EditorView extends VisualView {
    */
   void createShape(ShapeType type, String name);
 
+  /**
+   * Removes the keyframes of every shape that the animation barely needs, then shows the result.
+   *
+   * @param tolerance how many pixels, color units or degrees a shape may be off by
+   * @throws IllegalArgumentException if the tolerance is negative
+   */
+  void simplifyKeyframes(double tolerance);
+
   /**
    * Sets the editor view to be editing at the specified tick.
    *
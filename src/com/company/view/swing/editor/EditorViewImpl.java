@@ -2,17 +2,26 @@ package com.company.view.swing.editor;
 
 import com.company.controller.animatoractions.AnimatorAction;
 import com.company.controller.animatoractions.CreateKeyframe;
+import com.company.controller.animatoractions.Redo;
+import com.company.controller.animatoractions.SimplifyKeyframes;
+import com.company.controller.animatoractions.Undo;
 import com.company.controller.viewactions.editoractions.EditorAction;
+import com.company.model.KeyframeSimplifier;
 import com.company.model.ReadOnlyAnimatorModel;
 import com.company.model.shape.ShapeType;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.event.ActionEvent;
 import java.util.function.Consumer;
 
+import javax.swing.AbstractAction;
+import javax.swing.InputMap;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.KeyStroke;
 
 /**
  * Provides a view for the main editor that allows animations to be made. This view provides an
@@ -66,6 +75,7 @@ public class EditorViewImpl extends JFrame implements EditorView {
 
     this.callback = null;
     KeyComponent keyComponent = new KeyComponent();
+    this.bindJournalKeys();
 
     this.setTick(1);
     this.setPreferredSize(new Dimension(1200, 800));
@@ -159,6 +169,25 @@ public class EditorViewImpl extends JFrame implements EditorView {
     this.canvas.updateBoundingBox();
   }
 
+  @Override
+  public void simplifyKeyframes(double tolerance) {
+    this.modelCallback.accept(new SimplifyKeyframes(KeyframeSimplifier.withTolerance(tolerance)));
+    this.updateProperties();
+    this.refreshView();
+  }
+
+  /**
+   * Binds the usual keys for undoing and redoing edits, wherever the focus is in the window.
+   */
+  private void bindJournalKeys() {
+    InputMap keys = this.getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+    keys.put(KeyStroke.getKeyStroke("control Z"), "undo");
+    keys.put(KeyStroke.getKeyStroke("control Y"), "redo");
+    keys.put(KeyStroke.getKeyStroke("control shift Z"), "redo");
+    this.getRootPane().getActionMap().put("undo", new JournalKeyAction(new Undo()));
+    this.getRootPane().getActionMap().put("redo", new JournalKeyAction(new Redo()));
+  }
+
   /**
    * Gets the name of the currently highlighted shape.
    *
@@ -176,4 +205,29 @@ public class EditorViewImpl extends JFrame implements EditorView {
   private static class KeyComponent extends JPanel {
 
   }
+
+  /**
+   * Sends an undo or redo to the model, then shows the model as it is afterwards.
+   */
+  private class JournalKeyAction extends AbstractAction {
+    private final AnimatorAction action;
+
+    JournalKeyAction(AnimatorAction action) {
+      this.action = action;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+      modelCallback.accept(action);
+      String highlighted = getHighlightedShapeName();
+      if (highlighted != null && !model.getKeyframes().containsKey(highlighted)) {
+        // the highlighted shape was undone
+        canvas.highlightShape(null);
+        timelines.deHighlightPanel();
+        updateBanner(null);
+      }
+      updateProperties();
+      refreshView();
+    }
+  }
 }
\ No newline at end of file
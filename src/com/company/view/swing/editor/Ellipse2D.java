@@ -25,4 +25,13 @@ public class Ellipse2D implements SwingShape {
     return new java.awt.geom.Ellipse2D.Double(
         x - this.x, y - this.y, width, height);
   }
-}
\ No newline at end of file
+
+  @Override
+  public Shape updateShape(Shape shape, double x, double y, double width, double height) {
+    if (shape instanceof java.awt.geom.Ellipse2D.Double) {
+      ((java.awt.geom.Ellipse2D.Double) shape).setFrame(x - this.x, y - this.y, width, height);
+      return shape;
+    }
+    return this.createShape(x, y, width, height);
+  }
+}
@@ -36,4 +36,13 @@ public class Rectangle2D implements SwingShape {
     return new java.awt.geom.Rectangle2D.Double(
         x - this.x, y - this.y, width, height);
   }
+
+  @Override
+  public Shape updateShape(Shape shape, double x, double y, double width, double height) {
+    if (shape instanceof java.awt.geom.Rectangle2D.Double) {
+      ((java.awt.geom.Rectangle2D.Double) shape).setFrame(x - this.x, y - this.y, width, height);
+      return shape;
+    }
+    return this.createShape(x, y, width, height);
+  }
 }
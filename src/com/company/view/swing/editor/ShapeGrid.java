@@ -0,0 +1,168 @@
+package com.company.view.swing.editor;
+
+import com.company.view.swing.DecoratedShape;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.company.view.swing.editor.MousePointUtils.transformPoint;
+
+/**
+ * Uniform grid over the shapes drawn on the screen at one tick, used to find the shape under a
+ * point without testing every shape. Each shape is put in every cell that the circle it can rotate
+ * in overlaps, so the grid stays correct whatever the angle of the shape is. Shapes that would
+ * cover a large part of the grid are kept in a separate list that is always tested instead.
+ *
+ * <p>The grid is a snapshot: it has to be created again once the shapes change.</p>
+ */
+public final class ShapeGrid {
+  private static final int MAX_CELLS_PER_SIDE = 256;
+  // How much further than its bounds a shape may be hit, since rotated points are rounded.
+  private static final double MARGIN = 2;
+
+  // The shapes in drawing order, so that later shapes are drawn on top of earlier ones.
+  private final String[] names;
+  private final DecoratedShape[] drawn;
+  private final double minX;
+  private final double minY;
+  private final double maxX;
+  private final double maxY;
+  private final int columns;
+  private final int rows;
+  private final double cellWidth;
+  private final double cellHeight;
+  // The indices of the shapes in each cell, in increasing order.
+  private final int[][] cells;
+  private final int[] cellCounts;
+  // The indices of the shapes too large to put in cells, in increasing order.
+  private final int[] large;
+  private int largeCount;
+
+  /**
+   * Creates a grid over the given shapes.
+   *
+   * @param shapes the shapes drawn on the screen by name, in drawing order
+   * @throws IllegalArgumentException if the shapes are null
+   */
+  public ShapeGrid(Map<String, DecoratedShape> shapes) {
+    if (shapes == null) {
+      throw new IllegalArgumentException("Null shapes not allowed");
+    }
+    int count = shapes.size();
+    this.names = new String[count];
+    this.drawn = new DecoratedShape[count];
+    double[] left = new double[count];
+    double[] top = new double[count];
+    double[] right = new double[count];
+    double[] bottom = new double[count];
+
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    int index = 0;
+    for (Map.Entry<String, DecoratedShape> entry : shapes.entrySet()) {
+      names[index] = entry.getKey();
+      drawn[index] = entry.getValue();
+      java.awt.geom.Rectangle2D bounds = entry.getValue().shape.getBounds2D();
+      // a point is rotated around the center of the shape before it is tested, so it can only hit
+      // the shape if it is within half a diagonal of the center
+      double radius = Math.hypot(bounds.getWidth(), bounds.getHeight()) / 2 + MARGIN;
+      left[index] = bounds.getCenterX() - radius;
+      top[index] = bounds.getCenterY() - radius;
+      right[index] = bounds.getCenterX() + radius;
+      bottom[index] = bounds.getCenterY() + radius;
+      minX = Math.min(minX, left[index]);
+      minY = Math.min(minY, top[index]);
+      maxX = Math.max(maxX, right[index]);
+      maxY = Math.max(maxY, bottom[index]);
+      index += 1;
+    }
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+
+    int side = Math.max(1, Math.min(MAX_CELLS_PER_SIDE, (int) Math.ceil(Math.sqrt(count))));
+    this.columns = side;
+    this.rows = side;
+    this.cellWidth = count == 0 ? 1 : Math.max((maxX - minX) / columns, Double.MIN_NORMAL);
+    this.cellHeight = count == 0 ? 1 : Math.max((maxY - minY) / rows, Double.MIN_NORMAL);
+    this.cells = new int[columns * rows][];
+    this.cellCounts = new int[columns * rows];
+    this.large = new int[count];
+    this.largeCount = 0;
+
+    int largeCells = Math.max(4, cells.length / 4);
+    for (int i = 0; i < count; i++) {
+      int firstColumn = this.column(left[i]);
+      int lastColumn = this.column(right[i]);
+      int firstRow = this.row(top[i]);
+      int lastRow = this.row(bottom[i]);
+      if ((lastColumn - firstColumn + 1) * (lastRow - firstRow + 1) > largeCells) {
+        large[largeCount] = i;
+        largeCount += 1;
+        continue;
+      }
+      for (int row = firstRow; row <= lastRow; row++) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+          this.addToCell(row * columns + column, i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the shape drawn on top at the given point, the way it would be found by testing every
+   * shape in drawing order and keeping the last one that contains the point.
+   *
+   * @param x the x coordinate of the point on the panel
+   * @param y the y coordinate of the point on the panel
+   * @return the name of the shape at the point, or null if there is none
+   */
+  public String shapeAt(int x, int y) {
+    if (x < minX || x > maxX || y < minY || y > maxY) {
+      return null;
+    }
+    int cell = this.row(y) * columns + this.column(x);
+    int[] inCell = cells[cell];
+    int i = cellCounts[cell] - 1;
+    int j = largeCount - 1;
+    Point point = new Point(x, y);
+
+    // go through both lists from the top shape down, so that the first hit is the one on top
+    while (i >= 0 || j >= 0) {
+      int index;
+      if (j < 0 || (i >= 0 && inCell[i] > large[j])) {
+        index = inCell[i];
+        i -= 1;
+      } else {
+        index = large[j];
+        j -= 1;
+      }
+      if (drawn[index].shape.contains(transformPoint(point, drawn[index]))) {
+        return names[index];
+      }
+    }
+    return null;
+  }
+
+  private int column(double x) {
+    return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellWidth)));
+  }
+
+  private int row(double y) {
+    return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellHeight)));
+  }
+
+  private void addToCell(int cell, int index) {
+    if (cells[cell] == null) {
+      cells[cell] = new int[4];
+    } else if (cellCounts[cell] == cells[cell].length) {
+      cells[cell] = Arrays.copyOf(cells[cell], cells[cell].length * 2);
+    }
+    cells[cell][cellCounts[cell]] = index;
+    cellCounts[cell] += 1;
+  }
+}
@@ -15,4 +15,18 @@ public interface SwingShape {
    * @param height the height of the shape
    */
   Shape createShape(double x, double y, double width, double height);
+
+  /**
+   * Moves and resizes the given shape to match the given data if it is a shape of this kind, so
+   * that shapes can be reused from tick to tick. Otherwise, creates a new shape like
+   * {@link #createShape(double, double, double, double)}.
+   *
+   * @param shape  the shape to update, which may be of another kind
+   * @param x      the x coordinate of the shape
+   * @param y      the y coordinate of the shape
+   * @param width  the width of the shape
+   * @param height the height of the shape
+   * @return the given shape if it was updated, or a new shape
+   */
+  Shape updateShape(Shape shape, double x, double y, double width, double height);
 }
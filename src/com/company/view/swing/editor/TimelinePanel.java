@@ -10,9 +10,9 @@ import com.company.model.ReadOnlyAnimatorModel;
 
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.Graphics;
 import java.awt.Insets;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.function.Consumer;
@@ -31,6 +31,8 @@ public class TimelinePanel extends JPanel {
   final Consumer<AnimatorAction> modelCallback;
   final List<JToggleButton> buttons;
   Consumer<EditorAction> viewCallback;
+  // Whether the buttons mark the keyframes as they are now.
+  private boolean marked;
 
   /**
    * Creates a panel for a specific shape, showing its keyframes over time in a timeline.
@@ -47,17 +49,7 @@ public class TimelinePanel extends JPanel {
     this.modelCallback = modelCallback;
     this.viewCallback = null;
 
-    SortedSet<Frame> frames = this.model.getKeyframes().get(shapeName);
-    Frame maxFrame = frames.first();
-
-    for (SortedSet<Frame> allFrames : model.getKeyframes().values()) {
-      Frame newLastFrame = Collections.max(allFrames);
-      if (maxFrame == null || maxFrame.compareTo(newLastFrame) < 0) {
-        maxFrame = newLastFrame;
-      }
-    }
-
-    int lastTick = (int) maxFrame.getTime();
+    int lastTick = (int) model.lastTick();
 
 
     buttons = new ArrayList<>();
@@ -86,6 +78,9 @@ public class TimelinePanel extends JPanel {
     tickBtn.setMargin(new Insets(0, 0, 0, 0));
     tickBtn.setPreferredSize(KEYFRAME_SIZE);
     tickBtn.addActionListener(e -> {
+      if (!marked) {
+        this.markKeyframes();
+      }
       JToggleButton btn = (JToggleButton) e.getSource();
       if (btn.getText().equals("")) {
         modelCallback.accept(new CreateKeyframe(shapeName, tick));
@@ -101,9 +96,28 @@ public class TimelinePanel extends JPanel {
   }
 
   /**
-   * Updates the buttons so "." marks buttons that correspond to currently extant keyframes.
+   * Updates the buttons so "." marks buttons that correspond to currently extant keyframes. The
+   * buttons are marked when the panel is next painted, so that the keyframes of shapes whose
+   * timelines are scrolled out of view aren't read until they are scrolled to.
    */
   public void updateButtonText() {
+    this.marked = false;
+    this.repaint();
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    if (!marked) {
+      this.markKeyframes();
+    }
+    super.paintComponent(g);
+  }
+
+  /**
+   * Marks the buttons of the ticks that the shape has keyframes at.
+   */
+  private void markKeyframes() {
+    marked = true;
     for (JToggleButton button : buttons) {
       button.setText("");
     }
@@ -134,11 +148,12 @@ public class TimelinePanel extends JPanel {
         buttons.add(tickBtn);
         this.add(tickBtn);
       }
+      // the new buttons have no text yet
+      this.updateButtonText();
     }
     for (int i = 0; i < buttons.size(); i++) {
       buttons.get(i).setSelected(i == tick - 1);
     }
-    this.updateButtonText();
     this.repaint();
   }
 }
@@ -8,6 +8,7 @@ import com.company.controller.viewactions.editoractions.HighlightShape;
 import com.company.controller.viewactions.editoractions.RefreshView;
 import com.company.controller.viewactions.editoractions.SetTick;
 import com.company.model.Frame;
+import com.company.model.ModelChangeEvent;
 import com.company.model.ReadOnlyAnimatorModel;
 
 import java.awt.BorderLayout;
@@ -17,8 +18,12 @@ import java.awt.Dialog;
 import java.awt.Dimension;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.function.Consumer;
 
@@ -59,6 +64,11 @@ public class TimelinesPanel extends JPanel {
   private final Consumer<AnimatorAction> modelCallback;
   private Consumer<EditorAction> viewCallback;
   private int tick;
+  // The shapes created and deleted in the model since the timelines were last updated, and the
+  // shapes whose keyframes changed.
+  private final Set<String> createdShapes;
+  private final Set<String> deletedShapes;
+  private final Set<String> changedTimelines;
 
   private final JPanel outerPanel;
 
@@ -84,6 +94,10 @@ public class TimelinesPanel extends JPanel {
     this.namesPanels = new HashMap<>();
     this.highlightedTimelinePanel = null;
     timelines = new LinkedHashMap<>();
+    this.createdShapes = new LinkedHashSet<>();
+    this.deletedShapes = new HashSet<>();
+    this.changedTimelines = new HashSet<>();
+    model.addChangeListener(this::modelChanged);
 
     Map<String, SortedSet<Frame>> frames = model.getKeyframes();
 
@@ -202,45 +216,84 @@ public class TimelinesPanel extends JPanel {
   }
 
   /**
-   * Updates the timelines to any changes made in the model.
+   * Records which timelines have to be updated after the given change to the model. The timelines
+   * themselves are only updated by {@link #update(int)}, once the change is finished.
+   *
+   * @param event the change to the model
+   */
+  private void modelChanged(ModelChangeEvent event) {
+    switch (event.getType()) {
+      case ShapeCreated:
+        createdShapes.add(event.getShapeName());
+        break;
+      case ShapeDeleted:
+        deletedShapes.add(event.getShapeName());
+        break;
+      case KeyframeAdded:
+      case KeyframeRemoved:
+      case KeyframeChanged:
+        changedTimelines.add(event.getShapeName());
+        break;
+      default:
+        // layers and the canvas aren't shown in the timelines
+        break;
+    }
+  }
+
+  /**
+   * Updates the timelines to the changes made in the model since the last update. Only the
+   * timelines of shapes that were created, deleted or had their keyframes changed are touched.
    *
    * @param tick the tick to update the selection to
    */
   public void update(int tick) {
-    ArrayList<String> toRemove = new ArrayList<>();
-    ArrayList<Integer> toRemoveIndices = new ArrayList<>();
-    int i = 0;
-    for (String shapeName : timelines.keySet()) {
-      if (!model.getKeyframes().containsKey(shapeName)) {
-        toRemove.add(shapeName);
-        toRemoveIndices.add(i);
+    boolean shapesChanged = !createdShapes.isEmpty() || !deletedShapes.isEmpty();
+
+    if (!deletedShapes.isEmpty()) {
+      List<Integer> toRemoveIndices = new ArrayList<>();
+      int i = 0;
+      for (String shapeName : timelines.keySet()) {
+        if (deletedShapes.contains(shapeName)) {
+          toRemoveIndices.add(i);
+        }
+        i += 1;
+      }
+      timelines.keySet().removeAll(deletedShapes);
+      // remove from the end, so that the indices of the panels still to be removed don't change
+      for (int j = toRemoveIndices.size() - 1; j >= 0; j--) {
+        int removeInd = toRemoveIndices.get(j);
+        namesPanel.remove(removeInd);
+        addFramePanel.remove(removeInd);
+        timelinesPanel.remove(removeInd + 1);
       }
-      i += 1;
-    }
-    for (String name : toRemove) {
-      timelines.remove(name);
-    }
-    for (int removeInd : toRemoveIndices) {
-      namesPanel.remove(removeInd);
-      addFramePanel.remove(removeInd);
-      timelinesPanel.remove(removeInd + 1);
     }
 
-    for (Map.Entry<String, SortedSet<Frame>> entry : model.getKeyframes().entrySet()) {
-      if (!timelines.containsKey(entry.getKey())) {
-        TimelinePanel timeline = new TimelinePanel(entry.getKey(), model, modelCallback);
-        timelines.put(entry.getKey(), timeline);
-        this.addShape(entry.getKey(), timeline);
+    // a shape may have been deleted again after it was created
+    Map<String, SortedSet<Frame>> keyframes = model.getKeyframes();
+    for (String shapeName : createdShapes) {
+      if (keyframes.containsKey(shapeName) && !timelines.containsKey(shapeName)) {
+        TimelinePanel timeline = new TimelinePanel(shapeName, model, modelCallback);
+        timelines.put(shapeName, timeline);
+        this.addShape(shapeName, timeline);
       }
     }
 
-    for (TimelinePanel timeline : timelines.values()) {
-      timeline.updateButtonText();
+    // the tick is set first, so that every keyframe has a button to mark
+    this.setTick(tick);
+    for (String shapeName : changedTimelines) {
+      TimelinePanel timeline = timelines.get(shapeName);
+      if (timeline != null) {
+        timeline.updateButtonText();
+      }
     }
 
-    this.revalidate();
-    this.repaint();
-    this.setTick(tick);
+    createdShapes.clear();
+    deletedShapes.clear();
+    changedTimelines.clear();
+    if (shapesChanged) {
+      this.revalidate();
+      this.repaint();
+    }
   }
 
   private class Scrubber extends JPanel {
@@ -3,8 +3,12 @@ package com.company.view.swing.editor;
 import com.company.controller.viewactions.editoractions.CreateShape;
 import com.company.controller.viewactions.editoractions.EditorAction;
 import com.company.controller.viewactions.editoractions.OpenPreview;
+import com.company.controller.viewactions.editoractions.SimplifyAnimation;
 import com.company.model.ReadOnlyAnimatorModel;
 import com.company.model.shape.ShapeType;
+import com.company.util.BinaryAnimationReader;
+import com.company.view.binary.BinaryAnimatorView;
+import com.company.view.binary.BinaryView;
 import com.company.view.svg.SVGView;
 import com.company.view.svg.SVGViewImpl;
 import com.company.view.text.TextAnimatorView;
@@ -13,9 +17,13 @@ import com.company.view.text.TextView;
 import java.awt.Frame;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.Closeable;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
@@ -60,6 +68,7 @@ public class ToolbarPanel extends JPanel {
     this.setLayout(new GridLayout(0, 1));
 
     JButton previewButton = new JButton("▶");
+    JButton simplifyButton = new JButton("≈");
     JButton exportButton = new JButton();
     try {
       exportButton.setIcon(new ImageIcon(new URL("https://i.imgur.com/RVyBaTD.png")));
@@ -83,16 +92,19 @@ public class ToolbarPanel extends JPanel {
 
     previewButton.setToolTipText("Preview/Play animation");
     exportButton.setToolTipText("Build/Export animation");
+    simplifyButton.setToolTipText("Simplify keyframes");
     circleButton.setToolTipText("Create circle");
     rectButton.setToolTipText("Create rectangle");
 
     buttons.put("preview", previewButton);
     buttons.put("export", exportButton);
+    buttons.put("simplify", simplifyButton);
     buttons.put("circle", circleButton);
     buttons.put("rectangle", rectButton);
 
     this.add(previewButton);
     this.add(exportButton);
+    this.add(simplifyButton);
     this.add(new JSeparator(SwingConstants.HORIZONTAL));
     this.add(circleButton);
     this.add(rectButton);
@@ -126,7 +138,15 @@ public class ToolbarPanel extends JPanel {
       }
     };
 
+    final Action simplify = new AbstractAction() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        simplifyDialog();
+      }
+    };
+
     previewButton.addActionListener(preview);
+    simplifyButton.addActionListener(simplify);
     rectButton.addActionListener(createRectangle);
     circleButton.addActionListener(createEllipse);
     exportButton.addActionListener(export);
@@ -146,12 +166,15 @@ public class ToolbarPanel extends JPanel {
     ButtonGroup exportOptions = new ButtonGroup();
     JRadioButton svgOption = new JRadioButton("SVG");
     JRadioButton txtOption = new JRadioButton("TXT");
+    JRadioButton binaryOption = new JRadioButton("EXB");
 
     exportOptions.add(svgOption);
     exportOptions.add(txtOption);
+    exportOptions.add(binaryOption);
 
     panel.add(svgOption);
     panel.add(txtOption);
+    panel.add(binaryOption);
 
     JButton export = new JButton("Export");
     panel.add(export);
@@ -169,6 +192,9 @@ public class ToolbarPanel extends JPanel {
       } else if (txtOption.isSelected()) {
         description = "Text file";
         extension = "svg";
+      } else if (binaryOption.isSelected()) {
+        description = "Binary animation file";
+        extension = BinaryAnimationReader.FILE_EXTENSION;
       } else {
         JOptionPane.showMessageDialog(null,
             "Please select an export option",
@@ -183,16 +209,28 @@ public class ToolbarPanel extends JPanel {
 
       if (userSelection == JFileChooser.APPROVE_OPTION) {
         try {
-          Appendable out = new FileWriter(fileChooser.getSelectedFile().getAbsolutePath());
-
-          if (svgOption.isSelected()) {
-            SVGView svg = new SVGViewImpl(model, 20);
-            svg.outputSVG(out);
-          } else if (txtOption.isSelected()) {
-            TextView txt = new TextAnimatorView(model);
-            txt.outputText(out);
+          String path = fileChooser.getSelectedFile().getAbsolutePath();
+
+          // exported from a snapshot, so the file is of the animation as it was when it was saved
+          ReadOnlyAnimatorModel frozen = model.snapshot();
+          if (binaryOption.isSelected()) {
+            // the binary format is written as bytes rather than text
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path))) {
+              BinaryView binary = new BinaryAnimatorView(frozen);
+              binary.outputBinary(out);
+            }
+          } else {
+            Appendable out = new BufferedWriter(new FileWriter(path));
+            if (svgOption.isSelected()) {
+              SVGView svg = new SVGViewImpl(frozen, 20,
+                  Runtime.getRuntime().availableProcessors());
+              svg.outputSVG(out);
+            } else if (txtOption.isSelected()) {
+              TextView txt = new TextAnimatorView(frozen);
+              txt.outputText(out);
+            }
+            ((Closeable) out).close();
           }
-          ((Closeable) out).close();
 
         } catch (IOException ioException) {
           JOptionPane.showMessageDialog(null,
@@ -210,6 +248,41 @@ public class ToolbarPanel extends JPanel {
     dialog.setVisible(true);
   }
 
+  private void simplifyDialog() {
+    final JDialog dialog = new JDialog((Frame) null, "Excellence Simplifier");
+
+    JPanel panel = new JPanel();
+
+    panel.add(new JLabel("How far may shapes be off, in pixels, color units or degrees?"));
+    JTextField txtFieldTolerance = new JTextField("1", 5);
+    JButton simplifyButton = new JButton("Simplify");
+
+    panel.add(txtFieldTolerance);
+    panel.add(simplifyButton);
+
+    simplifyButton.addActionListener(e -> {
+      double tolerance;
+      try {
+        tolerance = Double.parseDouble(txtFieldTolerance.getText());
+      } catch (NumberFormatException numberFormatException) {
+        tolerance = -1;
+      }
+      if (tolerance >= 0) {
+        callback.accept(new SimplifyAnimation(tolerance));
+        dialog.dispose();
+      } else {
+        JOptionPane.showMessageDialog(null,
+            "The tolerance must be a number that is at least 0.",
+            "Excellence " +
+                "Warning", JOptionPane.WARNING_MESSAGE);
+      }
+    });
+
+    dialog.getContentPane().add(panel);
+    dialog.pack();
+    dialog.setVisible(true);
+  }
+
   private void openNameDialog(ShapeType type) {
     final JDialog dialog = new JDialog((Frame) null, "Excellence Name Dialog");
 
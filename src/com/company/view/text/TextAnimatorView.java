@@ -2,15 +2,16 @@ package com.company.view.text;
 
 import com.company.model.Frame;
 import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.Shape;
 
 import java.io.IOException;
 import java.util.Map;
-import java.util.NavigableSet;
 import java.util.SortedSet;
 
 /**
  * A view that outputs the results of the animation in several lies of texts, describing each
- * keyframe of each shape in order order of time and placement.
+ * keyframe of each shape in order order of time and placement. The text is written to the output
+ * a layer at a time as it is made, rather than being built up in memory first.
  */
 public class TextAnimatorView implements TextView {
   private final ReadOnlyAnimatorModel model;
@@ -21,33 +22,33 @@ public class TextAnimatorView implements TextView {
   }
 
   /**
-   * Renders all of the shapes in the model in text format.
+   * Renders all of the shapes in the model in text format to the given output.
    *
-   * @return String describing all the keyframes of the model
+   * @param out the output to write to
+   * @throws IOException if the output can't be written to
    */
-  private String renderShapes() {
-    StringBuilder renderString = new StringBuilder();
+  private void renderShapes(Appendable out) throws IOException {
+    LineWriter writer = new LineWriter(out);
 
     Map<String, SortedSet<Frame>> timelines = model.getKeyframes();
 
-    renderString.append(String.format("canvas %d %d %d %d\n",
-        this.model.getCanvasX(),
-        this.model.getCanvasY(),
-        this.model.getCanvasWidth(),
-        this.model.getCanvasHeight()
-    ));
+    writer.word("canvas ").number(this.model.getCanvasX())
+        .word(" ").number(this.model.getCanvasY())
+        .word(" ").number(this.model.getCanvasWidth())
+        .word(" ").number(this.model.getCanvasHeight())
+        .newLine();
     for (String layerName : model.getLayers()) {
-      renderString.append("layer ").append(layerName).append("\n");
+      writer.word("layer ").word(layerName).newLine();
     }
     for (String layerName : model.getLayers()) {
-      renderString.append("layer ").append(layerName).append("\n");
+      writer.word("layer ").word(layerName).newLine();
       for (String shapeName : model.getShapesInLayer(layerName)) {
-        SortedSet<Frame> timeline = timelines.get(shapeName);
-        renderString.append("shape ")
-            .append(shapeName).append(" ")
-            .append(timelines.get(shapeName).first().getShape().getShapeType()).append(" ")
-            .append(layerName)
-            .append("\n");
+        writer.word("shape ")
+            .word(shapeName).word(" ")
+            .word(timelines.get(shapeName).first().getShape().getShapeType().toString())
+            .word(" ")
+            .word(layerName)
+            .newLine();
       }
     }
     for (String layerName : model.getLayers()) {
@@ -56,27 +57,111 @@ public class TextAnimatorView implements TextView {
         Frame prevFrame = null;
 
         if (timeline.size() == 1) {
-          renderString.append("motion ").append(shapeName).append(" ")
-              .append(timeline.first());
+          writer.word("motion ").word(shapeName).word(" ").frame(timeline.first());
         } else {
           for (Frame frame : timeline) {
             if (prevFrame != null) {
-              renderString.append("motion ").append(shapeName).append(" ")
-                  .append(prevFrame).append("  ").append(frame).append("\n");
+              writer.word("motion ").word(shapeName).word(" ")
+                  .frame(prevFrame).word("  ").frame(frame).newLine();
             }
             prevFrame = frame;
           }
         }
-        renderString.append("\n");
+        writer.newLine();
       }
     }
-    // for java 8
-    // return renderString.toString();
-    return renderString.toString().stripTrailing();
   }
 
   @Override
   public void outputText(Appendable out) throws IOException {
-    out.append(this.renderShapes());
+    this.renderShapes(out);
+  }
+
+  /**
+   * Writes text to an output, leaving out the line breaks at the very end of the text. Line breaks
+   * are held back until more text is written after them, since it isn't known whether they are at
+   * the end until then.
+   */
+  private static class LineWriter {
+    private final Appendable out;
+    // The number of line breaks that haven't been written yet.
+    private int pendingLines;
+
+    private LineWriter(Appendable out) {
+      this.out = out;
+      this.pendingLines = 0;
+    }
+
+    private LineWriter newLine() {
+      pendingLines += 1;
+      return this;
+    }
+
+    private LineWriter word(String word) throws IOException {
+      this.writePendingLines();
+      out.append(word);
+      return this;
+    }
+
+    private LineWriter number(int number) throws IOException {
+      this.writePendingLines();
+      if (number >= 0 && number < 10) {
+        out.append((char) ('0' + number));
+      } else {
+        out.append(Integer.toString(number));
+      }
+      return this;
+    }
+
+    /**
+     * Writes the time, position, size, color and angle of the given frame, the same way
+     * {@link Frame#toString()} does.
+     *
+     * @param frame the frame to write
+     * @return this writer
+     * @throws IOException if the output can't be written to
+     */
+    private LineWriter frame(Frame frame) throws IOException {
+      Shape shape = frame.getShape();
+      return this.number((int) frame.getTime())
+          .word(" ").number((int) shape.getPosition().getX())
+          .word(" ").number((int) shape.getPosition().getY())
+          .word(" ").number((int) shape.getWidth())
+          .word(" ").number((int) shape.getHeight())
+          .word(" ").number(shape.getColor().getRed())
+          .word(" ").number(shape.getColor().getGreen())
+          .word(" ").number(shape.getColor().getBlue())
+          .word(" ").hundredths(shape.getShapeAngle());
+    }
+
+    /**
+     * Writes the given number rounded to two decimal places, the same way the {@code %.2f} format
+     * does. Numbers that are already whole hundredths, such as the usual angle of zero, are written
+     * without formatting them.
+     *
+     * @param number the number to write
+     * @return this writer
+     * @throws IOException if the output can't be written to
+     */
+    private LineWriter hundredths(double number) throws IOException {
+      double scaled = number * 100;
+      if (Math.abs(scaled) < 1e15 && scaled == Math.rint(scaled)
+          && (number != 0 || 1 / number > 0)) {
+        long whole = (long) Math.abs(scaled);
+        long fraction = whole % 100;
+        this.word(number < 0 ? "-" : "");
+        out.append(Long.toString(whole / 100)).append('.')
+            .append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+      } else {
+        this.word(String.format("%.2f", number));
+      }
+      return this;
+    }
+
+    private void writePendingLines() throws IOException {
+      for (; pendingLines > 0; pendingLines--) {
+        out.append('\n');
+      }
+    }
   }
 }
@@ -114,6 +114,18 @@ public class AShapeTest {
     assertEquals(interpolatedUneven, ellipse2.interpolate(ellipse1, 0.8));
   }
 
+  @Test
+  public void interpolateInto_matchesInterpolate() {
+    this.initTestData();
+    ShapeState state = new ShapeState();
+    for (double progress : new double[]{0, 0.2, 0.5, 0.8, 1}) {
+      rect1.interpolateInto(rect2, progress, state);
+      assertEquals(rect1.interpolate(rect2, progress), state.toShape());
+      ellipse1.interpolateInto(ellipse2, progress, state);
+      assertEquals(ellipse1.interpolate(ellipse2, progress), state.toShape());
+    }
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void interpolate_tooSmallProgress() {
     this.initTestData();
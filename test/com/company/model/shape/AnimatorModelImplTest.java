@@ -2,14 +2,20 @@ package com.company.model.shape;
 
 import com.company.model.AnimatorModel;
 import com.company.model.AnimatorModelImpl;
+import com.company.model.ReadOnlyAnimatorModel;
 import com.company.model.shape.shapes.Ellipse;
 import com.company.model.shape.shapes.Rectangle;
 
 import org.junit.Test;
 
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -60,9 +66,118 @@ public class AnimatorModelImplTest {
     assertEquals(0, testModel.shapesAt(0).size());
   }
 
+  @Test
+  public void shapesAt_sequentialMatchesSeeking() {
+    this.initTests();
+    // a snapshot searches the keyframes afresh at every tick, without a cursor
+    ReadOnlyAnimatorModel seeking = testModel.snapshot();
+
+    // play forwards, then jump backwards and play again
+    for (int tick = 0; tick < 40; tick++) {
+      assertEquals(seeking.shapesAt(tick), testModel.shapesAt(tick));
+    }
+    for (int tick = 30; tick >= 0; tick -= 3) {
+      assertEquals(seeking.shapesAt(tick), testModel.shapesAt(tick));
+    }
+
+    // seeks out of order between the ticks played, on the model with the cursor only
+    int[] seeks = {27, 11, 26, 0, 19, 21, 10, 35, 12, 20, 9, 28};
+    for (int i = 0; i < seeks.length; i++) {
+      testModel.shapeAt("E", seeks[(i * 5) % seeks.length]);
+      assertEquals(seeking.shapesAt(seeks[i]), testModel.shapesAt(seeks[i]));
+      assertEquals(seeking.shapesAt(seeks[i] + 1), testModel.shapesAt(seeks[i] + 1));
+    }
+  }
+
+  @Test
+  public void shapesAt_seesEditsDuringPlayback() {
+    this.initTests();
+    testModel.shapesAt(12);
+    testModel.createKeyframe("E", new Ellipse(new PosnImpl(20, 20), 15, 15, new Color(144,
+        150, 150)), 12);
+    assertEquals(new PosnImpl(20, 20), testModel.shapesAt(13).get("E").getPosition());
+
+    testModel.removeKeyframe("E", 12);
+    assertEquals(new PosnImpl(13, 13), testModel.shapesAt(13).get("E").getPosition());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void shapesAt_timeNegative() {
     this.initTests();
     testModel.shapesAt(-1);
   }
+
+  @Test
+  public void shapesAt_followsLayerChanges() {
+    this.initTests();
+    testModel.addLayer("top");
+    testModel.createKeyframe("T", new Rectangle(new PosnImpl(0, 0), 5, 5, Color.RED), 10, "top");
+    assertEquals(Arrays.asList("E", "R", "T"), new ArrayList<>(testModel.shapesAt(12).keySet()));
+    assertEquals(Arrays.asList("default", "top"), new ArrayList<>(testModel.getLayers()));
+
+    testModel.moveLayerUp("top");
+    assertEquals(Arrays.asList("T", "E", "R"), new ArrayList<>(testModel.shapesAt(12).keySet()));
+    assertEquals(Arrays.asList("top", "default"), new ArrayList<>(testModel.getLayers()));
+
+    testModel.deleteShape("E");
+    assertEquals(Arrays.asList("T", "R"), new ArrayList<>(testModel.shapesAt(12).keySet()));
+
+    testModel.createKeyframe("S", new Rectangle(new PosnImpl(0, 0), 5, 5, Color.RED), 10, "top");
+    assertEquals(Arrays.asList("T", "S", "R"), new ArrayList<>(testModel.shapesAt(12).keySet()));
+
+    testModel.deleteLayer("top");
+    assertEquals(Arrays.asList("R"), new ArrayList<>(testModel.shapesAt(12).keySet()));
+    assertEquals(Arrays.asList("default"), new ArrayList<>(testModel.getLayers()));
+  }
+
+  @Test
+  public void isShapeInLayer_matchesTheLayersAndTheirSnapshots() {
+    this.initTests();
+    testModel.addLayer("top");
+    testModel.createKeyframe("T", new Rectangle(new PosnImpl(0, 0), 5, 5, Color.RED), 10, "top");
+    ReadOnlyAnimatorModel snapshot = testModel.snapshot();
+    testModel.deleteShape("T");
+
+    assertTrue(snapshot.isShapeInLayer("T", "top"));
+    assertFalse(snapshot.isShapeInLayer("T", "default"));
+    assertFalse(testModel.isShapeInLayer("T", "top"));
+    assertTrue(testModel.isShapeInLayer("R", "default"));
+    for (ReadOnlyAnimatorModel model : Arrays.asList(testModel, snapshot)) {
+      try {
+        model.isShapeInLayer("R", "missing");
+        fail("Expected the missing layer to be rejected");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void builder_sortsKeyframesAndKeepsTheLastAtEachTick() {
+    AnimatorModel built = new AnimatorModelImpl.Builder()
+        .declareShape("R", "rectangle", "top")
+        .declareLayer("bottom")
+        .declareShape("E", "ellipse", "bottom")
+        .addKeyframe("R", 20, 20, 0, 5, 5, 0, 0, 0, 0)
+        .addKeyframe("R", 10, 10, 0, 5, 5, 0, 0, 0, 0)
+        .addKeyframe("E", 0, 0, 0, 5, 5, 0, 0, 0, 0)
+        .addKeyframe("R", 20, 99, 0, 5, 5, 0, 0, 0, 0)
+        .build();
+
+    AnimatorModel expected = new AnimatorModelImpl();
+    expected.addLayer("bottom");
+    expected.addLayer("top");
+    expected.createKeyframe("R", new Rectangle(new PosnImpl(20, 0), 5, 5, Color.BLACK), 20, "top");
+    expected.createKeyframe("R", new Rectangle(new PosnImpl(10, 0), 5, 5, Color.BLACK), 10, "top");
+    expected.createKeyframe("E", new Ellipse(new PosnImpl(0, 0), 5, 5, Color.BLACK), 0, "bottom");
+    expected.createKeyframe("R", new Rectangle(new PosnImpl(99, 0), 5, 5, Color.BLACK), 20, "top");
+
+    assertEquals(new ArrayList<>(expected.getLayers()), new ArrayList<>(built.getLayers()));
+    assertEquals(expected.getKeyframes().keySet(), built.getKeyframes().keySet());
+    for (String name : expected.getKeyframes().keySet()) {
+      assertEquals(expected.getKeyframes().get(name).toString(),
+          built.getKeyframes().get(name).toString());
+    }
+    assertEquals(99, built.shapesAt(30).get("R").getPosition().getX(), 0);
+  }
 }
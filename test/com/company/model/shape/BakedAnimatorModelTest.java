@@ -0,0 +1,118 @@
+package com.company.model.shape;
+
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.BakedAnimatorModel;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.shapes.Ellipse;
+import com.company.model.shape.shapes.Rectangle;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A class to test {@link BakedAnimatorModel}, checking that it gives the same states as the model
+ * it caches, before and after the model is edited, and keeps within its budget.
+ */
+public class BakedAnimatorModelTest {
+
+  private static AnimatorModel randomModel(AnimatorModel model, Random random) {
+    model.addLayer("top");
+    for (int i = 0; i < 40; i++) {
+      int tick = random.nextInt(50);
+      for (int j = 0; j < 4; j++) {
+        tick += 1 + random.nextInt(30);
+        Color color = new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        Shape shape = i % 2 == 0
+            ? new Rectangle(new PosnImpl(random.nextInt(400), random.nextInt(400)),
+                1 + random.nextInt(50), 1 + random.nextInt(50), color)
+            : new Ellipse(new PosnImpl(random.nextInt(400), random.nextInt(400)),
+                1 + random.nextInt(50), 1 + random.nextInt(50), color);
+        model.createKeyframe("s" + i, shape, tick, i % 3 == 0 ? "top" : "default");
+      }
+    }
+    return model;
+  }
+
+  private static void assertSameStates(ReadOnlyAnimatorModel expected,
+                                       ReadOnlyAnimatorModel actual) {
+    List<ShapeState> expectedStates = new ArrayList<>();
+    List<ShapeState> actualStates = new ArrayList<>();
+    for (int tick = 0; tick <= expected.lastTick() + 20; tick++) {
+      int count = expected.statesAt(tick, expectedStates);
+      assertEquals(count, actual.statesAt(tick, actualStates));
+      for (int i = 0; i < count; i++) {
+        assertEquals(expectedStates.get(i).name, actualStates.get(i).name);
+        assertEquals(expectedStates.get(i).toShape(), actualStates.get(i).toShape());
+      }
+      assertEquals(expected.shapesAt(tick), actual.shapesAt(tick));
+    }
+  }
+
+  @Test
+  public void statesAt_matchesModelWhenReadAgain() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      randomModel(model, new Random(22));
+      BakedAnimatorModel baked = new BakedAnimatorModel(model);
+      assertSameStates(model, baked);
+      // the second time, every tick is read back from the cache
+      assertSameStates(model, baked);
+    }
+  }
+
+  @Test
+  public void edits_throwAwayTheTicksTheyChange() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      Random random = new Random(122);
+      randomModel(model, random);
+      BakedAnimatorModel baked = new BakedAnimatorModel(model);
+      assertSameStates(model, baked);
+
+      model.createKeyframe("s4", new Rectangle(new PosnImpl(7, 7), 7, 7, Color.RED), 90);
+      assertSameStates(model, baked);
+      int first = (int) model.getKeyframes().get("s5").first().getTime();
+      model.removeKeyframe("s5", first);
+      assertSameStates(model, baked);
+      model.createKeyframe("s5", new Ellipse(new PosnImpl(1, 1), 9, 9, Color.BLUE), first + 1);
+      assertSameStates(model, baked);
+      model.createKeyframe("new", new Ellipse(new PosnImpl(3, 3), 30, 30, Color.RED), 40);
+      assertSameStates(model, baked);
+      model.deleteShape("s8");
+      assertSameStates(model, baked);
+      model.moveLayerUp("top");
+      assertSameStates(model, baked);
+      model.deleteLayer("top");
+      assertSameStates(model, baked);
+    }
+  }
+
+  @Test
+  public void memoryBudget_keepsRecentBlocks() {
+    AnimatorModel model = randomModel(new CompactAnimatorModel(), new Random(222));
+    BakedAnimatorModel baked = new BakedAnimatorModel(model, 8000);
+    List<ShapeState> states = new ArrayList<>();
+    for (int loop = 0; loop < 3; loop++) {
+      for (int tick = 0; tick <= model.lastTick(); tick++) {
+        baked.statesAt(tick, states);
+        assertTrue(baked.getMemoryUsed() <= 8000);
+      }
+    }
+    assertTrue(baked.getMemoryUsed() > 0);
+    assertSameStates(model, baked);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_rejectsNegativeBudget() {
+    new BakedAnimatorModel(new AnimatorModelImpl(), -1);
+  }
+}
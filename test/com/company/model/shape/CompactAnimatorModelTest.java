@@ -0,0 +1,409 @@
+package com.company.model.shape;
+
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.Frame;
+import com.company.model.ModelChangeEvent;
+import com.company.model.ModelChangeType;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.shapes.Ellipse;
+import com.company.model.shape.shapes.Rectangle;
+import com.company.util.AnimationBuilder;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the compact animator model, mostly checking that it agrees with the original model.
+ */
+public class CompactAnimatorModelTest {
+
+  private static <T> void addMotions(AnimationBuilder<T> builder) {
+    builder.declareLayer("top");
+    builder.declareShape("R", "rectangle");
+    builder.declareShape("C", "ellipse", "top");
+    builder.addMotion("R", 1, 200, 200, 50, 100, 255, 0, 0, 0,
+        10, 200, 200, 50, 100, 255, 0, 0, 0);
+    builder.addMotion("R", 10, 200, 200, 50, 100, 255, 0, 0, 0,
+        50, 300, 300, 50, 100, 255, 0, 0, 1);
+    builder.addMotion("C", 6, 440, 70, 120, 60, 0, 0, 255, 0,
+        20, 440, 70, 120, 60, 0, 0, 255, 0);
+    builder.addMotion("C", 20, 440, 70, 120, 60, 0, 0, 255, 0,
+        50, 440, 250, 120, 60, 0, 170, 85, 0);
+    builder.addMotion("C", 50, 440, 250, 120, 60, 0, 170, 85, 0,
+        70, 440, 370, 120, 60, 0, 255, 0, 0);
+  }
+
+  private static void assertSameModel(ReadOnlyAnimatorModel expected,
+                                      ReadOnlyAnimatorModel actual) {
+    assertEquals(expected.lastTick(), actual.lastTick(), 0.001);
+    assertEquals(expected.firstTick(), actual.firstTick(), 0.001);
+    assertEquals(new ArrayList<>(expected.getLayers()), new ArrayList<>(actual.getLayers()));
+    assertEquals(expected.getKeyframes(), actual.getKeyframes());
+    for (int tick = 0; tick <= expected.lastTick() + 2; tick++) {
+      assertEquals(expected.shapesAt(tick), actual.shapesAt(tick));
+      assertEquals(new ArrayList<>(expected.shapesAt(tick).keySet()),
+          new ArrayList<>(actual.shapesAt(tick).keySet()));
+
+      List<ShapeState> expectedStates = new ArrayList<>();
+      List<ShapeState> actualStates = new ArrayList<>();
+      int count = actual.statesAt(tick, actualStates);
+      assertEquals(count, expected.statesAt(tick, expectedStates));
+      List<String> names = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        ShapeState state = actualStates.get(i);
+        names.add(state.name);
+        assertEquals(expectedStates.get(i).name, state.name);
+        assertEquals(expectedStates.get(i).toShape(), state.toShape());
+        assertEquals(expected.shapesAt(tick).get(state.name), state.toShape());
+      }
+      assertEquals(new ArrayList<>(expected.shapesAt(tick).keySet()), names);
+    }
+  }
+
+  @Test
+  public void builder_matchesOriginalModel() {
+    AnimationBuilder<AnimatorModel> original = new AnimatorModelImpl.Builder();
+    AnimationBuilder<AnimatorModel> compact = new CompactAnimatorModel.Builder();
+    addMotions(original);
+    addMotions(compact);
+
+    assertSameModel(original.build(), compact.build());
+  }
+
+  @Test
+  public void shapesAt_backwardsMatchesForwards() {
+    AnimationBuilder<AnimatorModel> builder = new CompactAnimatorModel.Builder();
+    addMotions(builder);
+    AnimatorModel model = builder.build();
+
+    for (int tick = 70; tick >= 0; tick--) {
+      AnimationBuilder<AnimatorModel> fresh = new CompactAnimatorModel.Builder();
+      addMotions(fresh);
+      assertEquals(fresh.build().shapesAt(tick), model.shapesAt(tick));
+    }
+  }
+
+  @Test
+  public void edits_matchOriginalModel() {
+    AnimatorModel original = new AnimatorModelImpl();
+    AnimatorModel compact = new CompactAnimatorModel();
+    for (AnimatorModel model : new AnimatorModel[]{original, compact}) {
+      model.createKeyframe("E", new Ellipse(new PosnImpl(10, 10), 10, 20,
+          new Color(0, 144, 144)), 10);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(131, 20), 21, 34,
+          new Color(200, 200, 200)), 27);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 5);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(20, 20), 15, 15,
+          new Color(144, 150, 150)), 20);
+      // replaces the existing keyframe
+      model.createKeyframe("E", new Ellipse(new PosnImpl(30, 30), 15, 15,
+          new Color(144, 150, 150)), 20);
+      model.removeKeyframe("E", 10);
+      model.removeKeyframe("R", 5);
+    }
+
+    assertSameModel(original, compact);
+    assertFalse(compact.getKeyframes().containsKey("R"));
+  }
+
+  @Test
+  public void firstAndLastTick_followEdits() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      assertEquals(0, model.firstTick(), 0.001);
+      assertEquals(1, model.lastTick(), 0.001);
+
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 5);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 40);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 12);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 60);
+      assertEquals(5, model.firstTick(), 0.001);
+      assertEquals(60, model.lastTick(), 0.001);
+
+      model.removeKeyframe("E", 60);
+      assertEquals(40, model.lastTick(), 0.001);
+      model.removeKeyframe("R", 5);
+      assertEquals(12, model.firstTick(), 0.001);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 2);
+      assertEquals(2, model.firstTick(), 0.001);
+      model.deleteShape("E");
+      assertEquals(40, model.firstTick(), 0.001);
+      assertEquals(40, model.lastTick(), 0.001);
+      model.deleteLayer("default");
+      assertEquals(0, model.firstTick(), 0.001);
+      assertEquals(1, model.lastTick(), 0.001);
+    }
+  }
+
+  @Test
+  public void getKeyframes_isReadOnlyLiveViewOfBothModels() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      Map<String, SortedSet<Frame>> keyframes = model.getKeyframes();
+      long version = model.getVersion();
+
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 5);
+      assertTrue(model.getVersion() > version);
+      assertEquals(1, keyframes.get("R").size());
+      assertSame(keyframes, model.getKeyframes());
+
+      version = model.getVersion();
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 9);
+      assertTrue(model.getVersion() > version);
+      assertEquals(2, keyframes.get("R").size());
+
+      version = model.getVersion();
+      model.deleteShape("R");
+      assertTrue(model.getVersion() > version);
+      assertFalse(keyframes.containsKey("R"));
+
+      try {
+        keyframes.remove("R");
+        fail();
+      } catch (UnsupportedOperationException e) {
+        // the view is read only
+      }
+    }
+  }
+
+  @Test
+  public void changeListeners_areToldWhatChangedInBothModels() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      List<ModelChangeEvent> events = new ArrayList<>();
+      Consumer<ModelChangeEvent> listener = events::add;
+      model.addChangeListener(listener);
+
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 5);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(11, 2), 3, 4, Color.RED), 15);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(21, 2), 3, 4, Color.RED), 15);
+      model.removeKeyframe("R", 15);
+      model.setCanvasWidth(300);
+      model.deleteShape("R");
+      model.removeChangeListener(listener);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 5);
+
+      ModelChangeType[] types = {ModelChangeType.ShapeCreated, ModelChangeType.KeyframeAdded,
+          ModelChangeType.KeyframeChanged, ModelChangeType.KeyframeRemoved,
+          ModelChangeType.CanvasChanged, ModelChangeType.ShapeDeleted};
+      int[] ticks = {5, 15, 15, 15};
+      assertEquals(types.length, events.size());
+      for (int i = 0; i < types.length; i++) {
+        assertEquals(types[i], events.get(i).getType());
+        if (i < ticks.length) {
+          assertEquals("R", events.get(i).getShapeName());
+          assertEquals(ticks[i], events.get(i).getTick());
+        }
+      }
+      assertTrue(events.get(0).changesDrawOrder());
+      assertFalse(events.get(1).changesDrawOrder());
+    }
+  }
+
+  @Test
+  public void shapeAt_matchesShapesAtInBothModels() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      model.createKeyframe("R", new Rectangle(new PosnImpl(0, 0), 10, 10, Color.RED), 5);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(100, 0), 10, 10, Color.BLUE), 15);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(0, 0), 10, 10, Color.RED), 1);
+
+      for (int tick = 0; tick < 20; tick++) {
+        Map<String, Shape> shapes = model.shapesAt(tick);
+        assertEquals(shapes.get("R"), model.shapeAt("R", tick));
+        assertEquals(shapes.get("E"), model.shapeAt("E", tick));
+      }
+      assertNull(model.shapeAt("R", 4));
+    }
+  }
+
+  @Test
+  public void statesAt_onlyDrawsShapesAfterTheirFirstKeyframe() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      // shapes that appear one after another, like the stages of a staged animation
+      for (int i = 0; i < 50; i++) {
+        model.createKeyframe("S" + i, new Rectangle(new PosnImpl(i, 0), 5, 5, Color.RED), i * 4);
+        model.createKeyframe("S" + i, new Rectangle(new PosnImpl(i, 50), 5, 5, Color.BLUE),
+            i * 4 + 10);
+      }
+
+      List<ShapeState> states = new ArrayList<>();
+      int[] ticks = {0, 1, 9, 10, 11, 100, 250, 57, 3, 0, 196, 197};
+      for (int tick : ticks) {
+        int count = model.statesAt(tick, states);
+        assertEquals(Math.min(50, tick / 4 + 1), count);
+        Map<String, Shape> shapes = model.shapesAt(tick);
+        assertEquals(count, shapes.size());
+        for (int i = 0; i < count; i++) {
+          // still drawn in the order the shapes were created
+          assertEquals("S" + i, states.get(i).name);
+          assertEquals(shapes.get("S" + i), states.get(i).toShape());
+        }
+      }
+
+      // moving a shape's first keyframe earlier makes it drawn earlier
+      model.createKeyframe("S40", new Rectangle(new PosnImpl(0, 0), 5, 5, Color.RED), 2);
+      assertEquals(2, model.statesAt(2, states));
+      assertEquals("S40", states.get(1).name);
+      model.deleteShape("S40");
+      assertEquals(49, model.statesAt(500, states));
+    }
+  }
+
+  @Test
+  public void snapshot_staysAsItWasWhileTheModelChanges() {
+    List<AnimationBuilder<AnimatorModel>> builders = new ArrayList<>();
+    builders.add(new AnimatorModelImpl.Builder());
+    builders.add(new CompactAnimatorModel.Builder());
+    builders.add(new AnimatorModelImpl.Builder());
+    builders.add(new CompactAnimatorModel.Builder());
+    for (int i = 0; i < builders.size(); i += 2) {
+      addMotions(builders.get(i));
+      addMotions(builders.get(i + 1));
+      AnimatorModel model = builders.get(i).build();
+      AnimatorModel unchanged = builders.get(i + 1).build();
+
+      ReadOnlyAnimatorModel before = model.snapshot();
+      assertSameModel(unchanged, before);
+
+      model.createKeyframe("R", new Rectangle(new PosnImpl(0, 0), 5, 5, Color.GREEN), 30);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(9, 9), 5, 5, Color.GREEN), 10);
+      model.removeKeyframe("C", 20);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 80, "top");
+      model.deleteShape("E");
+      model.createKeyframe("E", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 3);
+      model.moveLayerUp("default");
+      model.setCanvasWidth(123);
+      before.shapesAt(60).get("R").setPosn(new PosnImpl(-1, -1));
+      before.getKeyframes().get("C").first().getShape().setWidth(1);
+
+      ReadOnlyAnimatorModel after = model.snapshot();
+      assertSameModel(unchanged, before);
+      assertEquals(unchanged.getCanvasWidth(), before.getCanvasWidth());
+      assertSameModel(model, after);
+      assertEquals(123, after.getCanvasWidth());
+      assertSame(after, after.snapshot());
+    }
+  }
+
+  @Test
+  public void snapshot_sharesKeyframesThroughManyEdits() {
+    AnimatorModel model = new CompactAnimatorModel();
+    Random random = new Random(18);
+    List<ReadOnlyAnimatorModel> snapshots = new ArrayList<>();
+    List<Map<String, List<Frame>>> expected = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      String name = "S" + random.nextInt(5);
+      int tick = random.nextInt(60);
+      if (model.getKeyframes().containsKey(name) && random.nextInt(3) == 0) {
+        Frame frame = new ArrayList<>(model.getKeyframes().get(name))
+            .get(random.nextInt(model.getKeyframes().get(name).size()));
+        model.removeKeyframe(name, (int) frame.getTime());
+      } else {
+        model.createKeyframe(name, new Rectangle(new PosnImpl(i, tick), 5, 5, Color.RED), tick);
+      }
+      if (i % 10 == 0) {
+        snapshots.add(model.snapshot());
+        Map<String, List<Frame>> keyframes = new LinkedHashMap<>();
+        for (Map.Entry<String, SortedSet<Frame>> entry : model.getKeyframes().entrySet()) {
+          keyframes.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        expected.add(keyframes);
+      }
+    }
+
+    for (int i = 0; i < snapshots.size(); i++) {
+      Map<String, List<Frame>> keyframes = new LinkedHashMap<>();
+      for (Map.Entry<String, SortedSet<Frame>> entry
+          : snapshots.get(i).getKeyframes().entrySet()) {
+        keyframes.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+      }
+      assertEquals(expected.get(i).toString(), keyframes.toString());
+    }
+  }
+
+  @Test
+  public void getKeyframes_isLiveSortedView() {
+    AnimatorModel model = new CompactAnimatorModel();
+    model.createKeyframe("E", new Ellipse(new PosnImpl(10, 10), 10, 20, Color.BLUE), 10);
+    SortedSet<Frame> frames = model.getKeyframes().get("E");
+    model.createKeyframe("E", new Ellipse(new PosnImpl(10, 10), 10, 20, Color.BLUE), 4);
+    model.createKeyframe("E", new Ellipse(new PosnImpl(10, 10), 10, 20, Color.BLUE), 30);
+
+    assertEquals(3, frames.size());
+    assertEquals(4, frames.first().getTime(), 0.001);
+    assertEquals(30, frames.last().getTime(), 0.001);
+    assertEquals(2, frames.headSet(frames.last()).size());
+    assertEquals(1, frames.subSet(frames.first(), frames.last()).tailSet(
+        frames.headSet(frames.last()).last()).size());
+    assertTrue(frames.contains(frames.last()));
+  }
+
+  @Test
+  public void removeKeyframes_matchesRemovingOneAtATime() {
+    AnimatorModel original = new AnimatorModelImpl();
+    AnimatorModel compact = new CompactAnimatorModel();
+    Random random = new Random(21);
+    for (int tick = 0; tick < 60; tick++) {
+      Shape shape = new Rectangle(new PosnImpl(random.nextInt(100), random.nextInt(100)),
+          10, 10, new Color(random.nextInt(256), 0, 0));
+      original.createKeyframe("R", shape, tick);
+      compact.createKeyframe("R", shape, tick);
+    }
+    original.createKeyframe("E", new Ellipse(new PosnImpl(1, 1), 5, 5, Color.RED), 3);
+    compact.createKeyframe("E", new Ellipse(new PosnImpl(1, 1), 5, 5, Color.RED), 3);
+    List<Integer> removedTicks = new ArrayList<>();
+    compact.addChangeListener(event -> removedTicks.add(event.getTick()));
+
+    int[] ticks = {59, 0, 30, 31, 32, 7, 45};
+    original.removeKeyframes("R", ticks);
+    compact.removeKeyframes("R", ticks);
+    assertSameModel(original, compact);
+    assertEquals(7, removedTicks.size());
+
+    original.removeKeyframes("E", new int[]{3});
+    compact.removeKeyframes("E", new int[]{3});
+    assertSameModel(original, compact);
+    assertFalse(compact.getKeyframes().containsKey("E"));
+
+    try {
+      compact.removeKeyframes("R", new int[]{1, 30});
+      fail("Expected the missing keyframe to be rejected");
+    } catch (IllegalArgumentException e) {
+      // none of the keyframes are removed
+      assertSameModel(original, compact);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createKeyframe_typeMismatch() {
+    AnimatorModel model = new CompactAnimatorModel();
+    model.createKeyframe("E", new Ellipse(new PosnImpl(10, 10), 10, 20, Color.BLUE), 10);
+    model.createKeyframe("E", new Rectangle(new PosnImpl(10, 10), 10, 20, Color.BLUE), 20);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void removeKeyframe_missing() {
+    AnimatorModel model = new CompactAnimatorModel();
+    model.createKeyframe("E", new Ellipse(new PosnImpl(10, 10), 10, 20, Color.BLUE), 10);
+    model.removeKeyframe("E", 11);
+  }
+}
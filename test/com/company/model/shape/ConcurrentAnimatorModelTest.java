@@ -0,0 +1,202 @@
+package com.company.model.shape;
+
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.BakedAnimatorModel;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.ConcurrentAnimatorModel;
+import com.company.model.Frame;
+import com.company.model.ModelChangeEvent;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.shapes.Ellipse;
+import com.company.model.shape.shapes.Rectangle;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A class to test {@link ConcurrentAnimatorModel}, checking that it reads the same as the model it
+ * edits, and that other threads can read from it while it is being edited.
+ */
+public class ConcurrentAnimatorModelTest {
+
+  @Test
+  public void reads_seeEveryEditAtOnce() {
+    for (AnimatorModel inner : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      AnimatorModel model = new ConcurrentAnimatorModel(inner);
+      Map<String, SortedSet<Frame>> keyframes = model.getKeyframes();
+      long version = model.getVersion();
+
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 5);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(11, 2), 3, 4, Color.RED), 15);
+      model.addLayer("top");
+      model.createKeyframe("E", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 12, "top");
+      model.setCanvasWidth(300);
+      assertTrue(model.getVersion() > version);
+      assertEquals(2, keyframes.get("R").size());
+      assertEquals(300, model.getCanvasWidth());
+      assertEquals(inner.shapesAt(10), model.shapesAt(10));
+      assertEquals(inner.shapeAt("R", 10), model.shapeAt("R", 10));
+      assertEquals(inner.getKeyframes(), model.getKeyframes());
+      assertEquals(new ArrayList<>(inner.getLayers()), new ArrayList<>(model.getLayers()));
+      assertEquals(inner.lastTick(), model.lastTick(), 0.001);
+
+      model.deleteShape("R");
+      assertFalse(keyframes.containsKey("R"));
+      assertNull(model.shapeAt("E", 1));
+      assertEquals(inner.shapesAt(12), model.shapesAt(12));
+    }
+  }
+
+  @Test
+  public void failedEdit_leavesModelAsItWas() {
+    AnimatorModel model = new ConcurrentAnimatorModel(new AnimatorModelImpl());
+    model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 3, 4, Color.RED), 5);
+    ReadOnlyAnimatorModel before = model.snapshot();
+    try {
+      model.createKeyframe("R", new Ellipse(new PosnImpl(1, 2), 3, 4, Color.RED), 6);
+    } catch (IllegalArgumentException e) {
+      // an ellipse can't be added to a rectangle
+    }
+    assertEquals(before.getKeyframes(), model.getKeyframes());
+  }
+
+  @Test
+  public void listeners_readEditsThroughTheModel() {
+    AnimatorModel model = new ConcurrentAnimatorModel(new AnimatorModelImpl());
+    List<Integer> keyframeCounts = new ArrayList<>();
+    model.addChangeListener(event -> keyframeCounts.add(model.getKeyframes().get("R").size()));
+    BakedAnimatorModel baked = new BakedAnimatorModel(model);
+    // the cache is read as soon as it is told about each change
+    model.addChangeListener(event -> baked.shapesAt(5));
+
+    model.createKeyframe("R", new Rectangle(new PosnImpl(0, 0), 3, 4, Color.RED), 1);
+    model.createKeyframe("R", new Rectangle(new PosnImpl(90, 0), 3, 4, Color.RED), 10);
+    model.createKeyframe("R", new Rectangle(new PosnImpl(10, 0), 3, 4, Color.RED), 8);
+
+    assertEquals(Arrays.asList(1, 2, 3), keyframeCounts);
+    assertEquals(model.shapesAt(5), baked.shapesAt(5));
+  }
+
+  @Test
+  public void readers_neverSeeHalfMadeEdits() throws InterruptedException {
+    AnimatorModel model = new ConcurrentAnimatorModel(new CompactAnimatorModel());
+    AtomicBoolean editing = new AtomicBoolean(true);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    List<Thread> readers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Thread reader = new Thread(() -> {
+        List<ShapeState> states = new ArrayList<>();
+        long lastVersion = 0;
+        try {
+          while (editing.get()) {
+            ReadOnlyAnimatorModel seen = model.snapshot();
+            // B is always moved right after A, so it is never more than one step behind
+            Map<String, Shape> shapes = seen.shapesAt(50);
+            if (shapes.containsKey("A") && shapes.containsKey("B")) {
+              int a = (int) shapes.get("A").getPosition().getX();
+              int b = (int) shapes.get("B").getPosition().getX();
+              assertTrue(b == a || b == (a + 99) % 100);
+            }
+            assertEquals(shapes.size(), seen.statesAt(50, states));
+            for (SortedSet<Frame> frames : seen.getKeyframes().values()) {
+              assertFalse(frames.isEmpty());
+            }
+            assertTrue(seen.getVersion() >= lastVersion);
+            lastVersion = seen.getVersion();
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      readers.add(reader);
+      reader.start();
+    }
+
+    for (int i = 0; i < 2000; i++) {
+      int x = i % 100;
+      int tick = 1 + i % 70;
+      model.createKeyframe("A", new Rectangle(new PosnImpl(x, 0), 3, 4, Color.RED), 1);
+      model.createKeyframe("B", new Rectangle(new PosnImpl(x, 0), 3, 4, Color.RED), 1);
+      model.createKeyframe("C" + tick, new Ellipse(new PosnImpl(x, x), 3, 4, Color.RED), tick);
+      if (i % 7 == 0) {
+        model.deleteShape("C" + tick);
+      }
+    }
+    editing.set(false);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+  }
+
+  @Test
+  public void readers_seeLayersDeletedWithAllTheirShapes() throws InterruptedException {
+    AnimatorModel model = new ConcurrentAnimatorModel(new AnimatorModelImpl());
+    List<ModelChangeEvent> events = new ArrayList<>();
+    model.addChangeListener(events::add);
+    AtomicBoolean editing = new AtomicBoolean(true);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    Thread reader = new Thread(() -> {
+      String lastLayer = null;
+      int lastCount = 0;
+      try {
+        while (editing.get()) {
+          ReadOnlyAnimatorModel seen = model.snapshot();
+          for (String layer : seen.getLayers()) {
+            if (layer.equals("default")) {
+              continue;
+            }
+            // shapes are only added to a layer one at a time, and all go when it is deleted
+            List<String> names = seen.getShapesInLayer(layer);
+            assertTrue(!layer.equals(lastLayer) || names.size() >= lastCount);
+            lastLayer = layer;
+            lastCount = names.size();
+            for (String name : names) {
+              assertTrue(seen.getKeyframes().containsKey(name));
+            }
+          }
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      }
+    });
+    reader.start();
+
+    for (int i = 0; i < 200; i++) {
+      String layer = "L" + i;
+      model.addLayer(layer);
+      for (int j = 0; j < 50; j++) {
+        model.createKeyframe("S" + j, new Rectangle(new PosnImpl(j, 0), 3, 4, Color.RED), 1,
+            layer);
+      }
+      events.clear();
+      model.deleteLayer(layer);
+      // one edit, but the listeners are still told about every change it made
+      assertEquals(51, events.size());
+    }
+    editing.set(false);
+    reader.join();
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+  }
+}
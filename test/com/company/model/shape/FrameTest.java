@@ -2,6 +2,8 @@ package com.company.model.shape;
 
 import com.company.model.AnimatorModel;
 import com.company.model.Frame;
+import com.company.model.ModelChangeEvent;
+import com.company.model.ReadOnlyAnimatorModel;
 import com.company.model.FrameImpl;
 import com.company.model.shape.shapes.Ellipse;
 import com.company.model.shape.shapes.Rectangle;
@@ -15,6 +17,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
 
@@ -227,6 +230,20 @@ public class FrameTest {
       return returnMap;
     }
 
+    @Override
+    public int statesAt(int tick, List<ShapeState> states) throws IllegalArgumentException {
+      int count = 0;
+      for (Map.Entry<String, Shape> shape : this.shapesAt(tick).entrySet()) {
+        if (count == states.size()) {
+          states.add(new ShapeState());
+        }
+        states.get(count).name = shape.getKey();
+        states.get(count).set(shape.getValue());
+        count += 1;
+      }
+      return count;
+    }
+
     @Override
     public Collection<String> getLayers() {
       return null;
@@ -262,6 +279,36 @@ public class FrameTest {
       return 0;
     }
 
+    @Override
+    public double firstTick() {
+      return 0;
+    }
+
+    @Override
+    public long getVersion() {
+      return 0;
+    }
+
+    @Override
+    public ReadOnlyAnimatorModel snapshot() {
+      return this;
+    }
+
+    @Override
+    public Shape shapeAt(String shapeName, int tick) {
+      return null;
+    }
+
+    @Override
+    public void addChangeListener(Consumer<ModelChangeEvent> listener) {
+      // no changes are made to the mock
+    }
+
+    @Override
+    public void removeChangeListener(Consumer<ModelChangeEvent> listener) {
+      // no changes are made to the mock
+    }
+
     @Override
     public void createKeyframe(String shapeName, Shape shape, int tick, String layerName) throws IllegalArgumentException {
       createKeyframe(shapeName, shape, tick);
@@ -0,0 +1,77 @@
+package com.company.model.shape;
+
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.shape.shapes.Rectangle;
+import com.company.util.AnimationBuilder;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * A class to test {@link Interner}, checking that equal colors and positions are shared and
+ * unequal ones aren't.
+ */
+public class InternerTest {
+
+  @Test
+  public void color_sharesEqualColors() {
+    Color red = Interner.color(255, 0, 0);
+    assertEquals(Color.RED, red);
+    assertSame(red, Interner.color(255, 0, 0));
+    assertSame(red, Interner.color(Color.RED.getRGB()));
+    assertNotEquals(red, Interner.color(254, 0, 0));
+    // the same color with another alpha is another color
+    assertEquals(0, Interner.color(0x00FF0000).getAlpha());
+    assertEquals(255, Interner.color(255, 0, 0).getAlpha());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void color_rejectsValuesOutOfRange() {
+    Interner.color(256, 0, 0);
+  }
+
+  @Test
+  public void posn_sharesEqualPositions() {
+    Posn posn = Interner.posn(1.5, 2);
+    assertEquals(new PosnImpl(1.5, 2), posn);
+    assertSame(posn, Interner.posn(1.5, 2.0));
+    assertNotEquals(posn, Interner.posn(2, 1.5));
+    // -0 prints differently from 0, so they aren't given for each other
+    Posn zero = Interner.posn(0, 0);
+    assertEquals("(-0.00, 0.00)", Interner.posn(-0.0, 0).toString());
+    assertNotSame(zero, Interner.posn(-0.0, 0));
+  }
+
+  @Test
+  public void models_shareColorsAndPositions() {
+    List<AnimationBuilder<AnimatorModel>> builders = Arrays.asList(
+        new AnimatorModelImpl.Builder(), new CompactAnimatorModel.Builder());
+    for (AnimationBuilder<AnimatorModel> builder : builders) {
+      builder.declareShape("A", "rectangle").declareShape("B", "rectangle");
+      builder.addKeyframe("A", 0, 10, 10, 5, 5, 20, 40, 60, 0)
+          .addKeyframe("A", 10, 30, 10, 5, 5, 20, 40, 60, 0)
+          .addKeyframe("B", 0, 10, 10, 5, 5, 20, 40, 60, 0)
+          .addKeyframe("B", 10, 30, 10, 5, 5, 20, 40, 60, 0);
+      AnimatorModel model = builder.build();
+
+      // tweened shapes are nearly always somewhere new, so only keyframes are shared
+      Shape a = model.shapeAt("A", 10);
+      Shape b = model.shapeAt("B", 12);
+      assertEquals(new Rectangle(new PosnImpl(30, 10), 5, 5, new Color(20, 40, 60)), a);
+      assertSame(a.getColor(), b.getColor());
+      assertSame(a.getPosition(), b.getPosition());
+      assertSame(model.getKeyframes().get("A").first().getShape().getColor(),
+          model.getKeyframes().get("B").last().getShape().getColor());
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.company.model.shape;
+
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.KeyframeSimplifier;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.shapes.Ellipse;
+import com.company.model.shape.shapes.Rectangle;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A class to test {@link KeyframeSimplifier}, checking that it removes the keyframes that tweening
+ * puts back within the tolerances, and no others.
+ */
+public class KeyframeSimplifierTest {
+
+  @Test
+  public void zeroTolerance_onlyRemovesKeyframesOnTheLine() {
+    for (AnimatorModel model : new AnimatorModel[]{new AnimatorModelImpl(),
+        new CompactAnimatorModel()}) {
+      for (int tick = 0; tick <= 100; tick += 10) {
+        // moves in a straight line, then turns at tick 50, while keeping its size and color
+        int x = tick <= 50 ? tick * 2 : 100;
+        int y = tick <= 50 ? 0 : tick - 50;
+        model.createKeyframe("R", new Rectangle(new PosnImpl(x, y), 10, 10, Color.RED), tick);
+        model.createKeyframe("E", new Ellipse(new PosnImpl(5, 5), 10, 10,
+            new Color(tick * 2, 0, 0)), tick);
+      }
+      ReadOnlyAnimatorModel before = model.snapshot();
+
+      assertEquals(8 + 9, KeyframeSimplifier.withTolerance(0).simplify(model));
+      assertEquals(3, model.getKeyframes().get("R").size());
+      assertEquals(2, model.getKeyframes().get("E").size());
+      for (int tick = 0; tick <= 110; tick++) {
+        assertEquals(before.shapesAt(tick).keySet(), model.shapesAt(tick).keySet());
+        for (String name : before.shapesAt(tick).keySet()) {
+          // tweened from other keyframes, so only the same up to rounding
+          Shape expected = before.shapeAt(name, tick);
+          Shape actual = model.shapeAt(name, tick);
+          assertEquals(expected.getPosition().getX(), actual.getPosition().getX(), 1e-6);
+          assertEquals(expected.getPosition().getY(), actual.getPosition().getY(), 1e-6);
+          assertEquals(expected.getColor(), actual.getColor());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void tolerance_keepsShapesWithinIt() {
+    Random random = new Random(21);
+    AnimatorModel model = new CompactAnimatorModel();
+    for (int tick = 0; tick <= 500; tick += 5) {
+      model.createKeyframe("R", new Rectangle(
+          new PosnImpl(tick + random.nextInt(7), tick / 2 + random.nextInt(7)),
+          20 + random.nextInt(3), 20, new Color(100 + random.nextInt(4), 0, 0),
+          Math.toRadians(random.nextInt(3))), tick);
+    }
+    ReadOnlyAnimatorModel before = model.snapshot();
+
+    KeyframeSimplifier simplifier = new KeyframeSimplifier.Builder().positionTolerance(6)
+        .sizeTolerance(2).colorTolerance(3).angleTolerance(2).build();
+    int removed = simplifier.simplify(model);
+    assertTrue(removed > 50);
+    assertEquals(101 - removed, model.getKeyframes().get("R").size());
+
+    for (int tick = 0; tick <= 500; tick += 5) {
+      Shape expected = before.shapeAt("R", tick);
+      Shape actual = model.shapeAt("R", tick);
+      assertEquals(expected.getPosition().getX(), actual.getPosition().getX(), 6.001);
+      assertEquals(expected.getPosition().getY(), actual.getPosition().getY(), 6.001);
+      assertEquals(expected.getWidth(), actual.getWidth(), 2.001);
+      assertEquals(expected.getColor().getRed(), actual.getColor().getRed(), 3);
+      assertEquals(expected.getShapeAngle(), actual.getShapeAngle(), Math.toRadians(2.001));
+    }
+  }
+
+  @Test
+  public void tolerance_keepsKeyframesBeyondIt() {
+    AnimatorModel model = new AnimatorModelImpl();
+    for (int tick = 0; tick <= 40; tick += 10) {
+      // a single bump in the middle, 5 pixels off the line
+      int y = tick == 20 ? 5 : 0;
+      model.createKeyframe("R", new Rectangle(new PosnImpl(tick, y), 10, 10, Color.RED), tick);
+    }
+
+    // keyframes either side of the bump are 2.5 pixels off the lines to it
+    assertEquals(0, KeyframeSimplifier.withTolerance(2).simplify(model));
+    assertEquals(2, KeyframeSimplifier.withTolerance(4).simplify(model));
+    assertEquals(3, model.getKeyframes().get("R").size());
+    assertEquals(1, KeyframeSimplifier.withTolerance(5).simplify(model));
+    assertEquals(2, model.getKeyframes().get("R").size());
+  }
+
+  @Test(timeout = 10000)
+  public void simplify_longRunsTakeLinearTime() {
+    // removing these one at a time moved every later keyframe each time, taking many times longer
+    AnimatorModel model = new CompactAnimatorModel();
+    for (int tick = 0; tick < 200000; tick++) {
+      model.createKeyframe("R", new Rectangle(new PosnImpl(tick, tick / 2.0), 10, 10,
+          Color.RED), tick);
+    }
+
+    assertEquals(199998, KeyframeSimplifier.withTolerance(0).simplify(model));
+    assertEquals(2, model.getKeyframes().get("R").size());
+    assertEquals(1000, model.shapeAt("R", 1000).getPosition().getX(), 1e-6);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void builder_rejectsNegativeTolerance() {
+    new KeyframeSimplifier.Builder().colorTolerance(-1);
+  }
+}
@@ -11,6 +11,8 @@ import com.company.controller.animatoractions.DeleteShape;
 import com.company.controller.animatoractions.RemoveKeyframe;
 import com.company.model.AnimatorModel;
 import com.company.model.Frame;
+import com.company.model.ModelChangeEvent;
+import com.company.model.ReadOnlyAnimatorModel;
 import com.company.model.shape.shapes.Ellipse;
 import com.company.model.shape.shapes.Rectangle;
 
@@ -23,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
 
@@ -197,6 +200,20 @@ public class MockModelTests {
       return returnMap;
     }
 
+    @Override
+    public int statesAt(int tick, List<ShapeState> states) throws IllegalArgumentException {
+      int count = 0;
+      for (Map.Entry<String, Shape> shape : this.shapesAt(tick).entrySet()) {
+        if (count == states.size()) {
+          states.add(new ShapeState());
+        }
+        states.get(count).name = shape.getKey();
+        states.get(count).set(shape.getValue());
+        count += 1;
+      }
+      return count;
+    }
+
     @Override
     public Collection<String> getLayers() {
       return null;
@@ -268,6 +285,36 @@ public class MockModelTests {
       return 0;
     }
 
+    @Override
+    public double firstTick() {
+      return 0;
+    }
+
+    @Override
+    public long getVersion() {
+      return 0;
+    }
+
+    @Override
+    public ReadOnlyAnimatorModel snapshot() {
+      return this;
+    }
+
+    @Override
+    public Shape shapeAt(String shapeName, int tick) {
+      return null;
+    }
+
+    @Override
+    public void addChangeListener(Consumer<ModelChangeEvent> listener) {
+      // no changes are made to the mock
+    }
+
+    @Override
+    public void removeChangeListener(Consumer<ModelChangeEvent> listener) {
+      // no changes are made to the mock
+    }
+
     @Override
     public void createKeyframe(String shapeName, Shape shape, int tick, String layerName) throws IllegalArgumentException {
       createKeyframe(shapeName, shape, tick);
@@ -254,4 +254,48 @@ public class SVGViewImplTest {
     }
   }
 
+  @Test
+  public void testSVGAnimatorViewOutputSameOnSeveralThreads() throws Exception {
+    this.initTests();
+    for (int i = 0; i < 100; i++) {
+      smallModelManyShapes.createKeyframe("s" + i, new Rectangle(new PosnImpl(i, 2 * i), 10, 20,
+          Color.RED), i);
+      smallModelManyShapes.createKeyframe("s" + i, new Rectangle(new PosnImpl(2 * i, i), 20, 10,
+          Color.BLUE), i + 10);
+    }
+
+    StringBuilder oneThread = new StringBuilder();
+    new SVGViewImpl(this.smallModelManyShapes, 10).outputSVG(oneThread);
+    StringBuilder fourThreads = new StringBuilder();
+    new SVGViewImpl(this.smallModelManyShapes, 10, 4).outputSVG(fourThreads);
+
+    assertEquals(oneThread.toString(), fourThreads.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSVGAnimatorViewNoThreads() {
+    new SVGViewImpl(this.model, 10, 0);
+  }
+
+  @Test
+  public void testSVGAnimatorViewMergesMotionsInALine() throws Exception {
+    AnimatorModel testModel = new AnimatorModelImpl();
+    testModel.createKeyframe("r", new Rectangle(new PosnImpl(0, 0), 10, 10, Color.RED), 0);
+    testModel.createKeyframe("r", new Rectangle(new PosnImpl(10, 0), 10, 10,
+        new Color(255, 0, 0)), 10);
+    testModel.createKeyframe("r", new Rectangle(new PosnImpl(30, 0), 10, 10, Color.RED), 20);
+    testModel.createKeyframe("r", new Rectangle(new PosnImpl(30, 0), 10, 10, Color.RED), 30);
+    testModel.createKeyframe("r", new Rectangle(new PosnImpl(30, 0), 10, 10, Color.RED), 40);
+    testModel.createKeyframe("r", new Rectangle(new PosnImpl(0, 0), 10, 10, Color.RED), 50);
+
+    StringBuilder output = new StringBuilder();
+    new SVGViewImpl(testModel, 10).outputSVG(output);
+
+    // the keyframe at 10 isn't on the line from 0 to 20, the one at 30 is on the line from 20 to
+    // 40 so nothing moves between them, and the color never changes
+    assertEquals(3, output.toString().split("<animate ").length - 1);
+    assertTrue(output.toString().contains("<animate attributeType=\"xml\" begin=\"4000.0ms\" "
+        + "dur=\"1000.0ms\" attributeName=\"x\" from=\"30.0\" to=\"0.0\" fill=\"freeze\" />"));
+    assertTrue(!output.toString().contains("attributeName=\"fill\""));
+  }
 }
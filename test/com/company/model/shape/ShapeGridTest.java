@@ -0,0 +1,79 @@
+package com.company.model.shape;
+
+import com.company.view.swing.DecoratedShape;
+import com.company.view.swing.editor.ShapeGrid;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.company.view.swing.editor.MousePointUtils.transformPoint;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * A class to test {@link ShapeGrid}, checking that it finds the same shapes as testing every shape
+ * on the screen.
+ */
+public class ShapeGridTest {
+
+  /**
+   * Finds the clicked shape by testing every shape, the way the canvas used to.
+   */
+  private static String testEveryShape(Map<String, DecoratedShape> shapes, int x, int y) {
+    String found = null;
+    for (Map.Entry<String, DecoratedShape> entry : shapes.entrySet()) {
+      if (entry.getValue().shape.contains(transformPoint(new Point(x, y), entry.getValue()))) {
+        found = entry.getKey();
+      }
+    }
+    return found;
+  }
+
+  @Test
+  public void shapeAt_matchesTestingEveryShape() {
+    Random random = new Random(16);
+    Map<String, DecoratedShape> shapes = new LinkedHashMap<>();
+    for (int i = 0; i < 500; i++) {
+      double x = random.nextInt(1000);
+      double y = random.nextInt(1000);
+      double width = 1 + random.nextInt(i % 50 == 0 ? 800 : 60);
+      double height = 1 + random.nextInt(60);
+      java.awt.Shape shape = i % 2 == 0
+          ? new Rectangle2D.Double(x, y, width, height)
+          : new Ellipse2D.Double(x, y, width, height);
+      shapes.put("s" + i, new DecoratedShape(Color.RED, shape, random.nextDouble() * Math.PI));
+    }
+
+    ShapeGrid grid = new ShapeGrid(shapes);
+    for (int i = 0; i < 5000; i++) {
+      int x = random.nextInt(1200) - 100;
+      int y = random.nextInt(1200) - 100;
+      assertEquals(testEveryShape(shapes, x, y), grid.shapeAt(x, y));
+    }
+  }
+
+  @Test
+  public void shapeAt_topShapeWins() {
+    Map<String, DecoratedShape> shapes = new LinkedHashMap<>();
+    shapes.put("bottom", new DecoratedShape(Color.RED, new Rectangle2D.Double(0, 0, 100, 100), 0));
+    shapes.put("top", new DecoratedShape(Color.RED, new Rectangle2D.Double(40, 40, 20, 20), 0));
+
+    ShapeGrid grid = new ShapeGrid(shapes);
+    assertEquals("top", grid.shapeAt(45, 45));
+    assertEquals("bottom", grid.shapeAt(10, 10));
+    assertNull(grid.shapeAt(150, 150));
+    assertNull(new ShapeGrid(new LinkedHashMap<>()).shapeAt(0, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_nullShapes() {
+    new ShapeGrid(null);
+  }
+}
@@ -2,6 +2,7 @@ package com.company.model.shape;
 
 import com.company.model.AnimatorModel;
 import com.company.model.AnimatorModelImpl;
+import com.company.model.Frame;
 import com.company.model.shape.shapes.Ellipse;
 import com.company.view.text.TextAnimatorView;
 
@@ -10,6 +11,7 @@ import org.junit.Test;
 import java.awt.Color;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -56,4 +58,22 @@ public class TextViewTest {
       fail();
     }
   }
+
+  @Test
+  public void testAnglesWrittenLikeFrames() throws Exception {
+    double[] angles = {0, -0.0, 1.5, -2.25, 0.125, 0.005, 1.1, Math.PI, -Math.PI, 123456.789};
+    AnimatorModel model = new AnimatorModelImpl();
+    for (int i = 0; i < angles.length; i++) {
+      model.createKeyframe("R", new Ellipse(new PosnImpl(i, i), 10, 20, Color.RED, angles[i]), i);
+    }
+
+    Appendable output = new StringBuilder();
+    new TextAnimatorView(model).outputText(output);
+
+    // every keyframe is written the same way Frame.toString formats it
+    for (Frame frame : model.getKeyframes().get("R")) {
+      assertTrue(output.toString().contains(" " + frame + "  ")
+          || output.toString().endsWith(" " + frame));
+    }
+  }
 }
@@ -0,0 +1,284 @@
+package com.company.model.shape;
+
+import com.company.controller.animatoractions.AnimatorAction;
+import com.company.controller.animatoractions.AnimatorActionConsumerImpl;
+import com.company.controller.animatoractions.ChangeColor;
+import com.company.controller.animatoractions.ChangeX;
+import com.company.controller.animatoractions.CreateKeyframe;
+import com.company.controller.animatoractions.CreateNewShape;
+import com.company.controller.animatoractions.DeleteShape;
+import com.company.controller.animatoractions.Redo;
+import com.company.controller.animatoractions.RemoveKeyframe;
+import com.company.controller.animatoractions.Undo;
+import com.company.controller.animatoractions.UndoJournal;
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.shapes.Ellipse;
+import com.company.model.shape.shapes.Rectangle;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A class to test {@link UndoJournal}, checking that undoing actions puts both kinds of model back
+ * the way they were, and that the journal keeps within its memory cap.
+ */
+public class UndoJournalTest {
+
+  private static AnimatorModel[] models() {
+    AnimatorModel[] models = {new AnimatorModelImpl(), new CompactAnimatorModel()};
+    for (AnimatorModel model : models) {
+      model.addLayer("top");
+      model.createKeyframe("R", new Rectangle(new PosnImpl(1, 2), 30, 40, Color.RED), 5);
+      model.createKeyframe("R", new Rectangle(new PosnImpl(50, 60), 30, 40, Color.BLUE), 25);
+      model.createKeyframe("E", new Ellipse(new PosnImpl(10, 10), 10, 20, Color.GREEN), 10,
+          "top");
+      model.createKeyframe("E", new Ellipse(new PosnImpl(90, 10), 10, 20, Color.GREEN), 30,
+          "top");
+      model.createKeyframe("S", new Rectangle(new PosnImpl(0, 0), 5, 5, Color.BLACK), 1);
+    }
+    return models;
+  }
+
+  /**
+   * Checks that the model is the same as the snapshot. Shapes put back by undoing a deletion go on
+   * top of their layer, so the drawing order isn't checked.
+   */
+  private static void assertSameModel(ReadOnlyAnimatorModel expected,
+                                      ReadOnlyAnimatorModel actual) {
+    assertEquals(expected.getCanvasX(), actual.getCanvasX());
+    assertEquals(expected.getCanvasY(), actual.getCanvasY());
+    assertEquals(expected.getCanvasWidth(), actual.getCanvasWidth());
+    assertEquals(expected.getCanvasHeight(), actual.getCanvasHeight());
+    assertEquals(new ArrayList<>(expected.getLayers()), new ArrayList<>(actual.getLayers()));
+    for (String layer : expected.getLayers()) {
+      assertEquals(expected.getShapesInLayer(layer).size(), actual.getShapesInLayer(layer).size());
+      assertTrue(actual.getShapesInLayer(layer).containsAll(expected.getShapesInLayer(layer)));
+    }
+    assertEquals(expected.getKeyframes(), actual.getKeyframes());
+    for (int tick = 0; tick <= expected.lastTick() + 2; tick++) {
+      assertEquals(expected.shapesAt(tick), actual.shapesAt(tick));
+    }
+  }
+
+  @Test
+  public void undoAndRedo_putBackEveryKindOfEdit() {
+    for (AnimatorModel model : models()) {
+      UndoJournal journal = new UndoJournal(model);
+      AnimatorAction[] actions = {
+          new ChangeX("R", 15, 70),
+          new ChangeColor("R", 5, Color.ORANGE),
+          new CreateKeyframe("E", 20),
+          new ChangeX("E", 10, 40),
+          new RemoveKeyframe("R", 25),
+          new DeleteShape("E"),
+          new CreateNewShape("C", 3, 4, 5, 6, Color.CYAN, ShapeType.Ellipse, 8),
+          new RemoveKeyframe("S", 1),
+          new CreateNewShape("E", 1, 1, 1, 1, Color.RED, ShapeType.Ellipse, 2),
+      };
+
+      List<ReadOnlyAnimatorModel> before = new ArrayList<>();
+      for (AnimatorAction action : actions) {
+        before.add(model.snapshot());
+        journal.accept(action);
+      }
+      ReadOnlyAnimatorModel last = model.snapshot();
+
+      for (int i = actions.length - 1; i >= 0; i--) {
+        assertTrue(journal.canUndo());
+        journal.accept(new Undo());
+        assertSameModel(before.get(i), model);
+      }
+      assertFalse(journal.canUndo());
+      assertFalse(journal.undo());
+
+      for (int i = 1; i < actions.length; i++) {
+        journal.accept(new Redo());
+        assertSameModel(before.get(i), model);
+      }
+      journal.accept(new Redo());
+      assertSameModel(last, model);
+      assertFalse(journal.canRedo());
+    }
+  }
+
+  @Test
+  public void undo_putsBackEditsAtAndAfterTheLastKeyframe() {
+    for (AnimatorModel model : models()) {
+      UndoJournal journal = new UndoJournal(model);
+      ReadOnlyAnimatorModel before = model.snapshot();
+
+      // at and after its last keyframe, a shape is drawn as that keyframe
+      journal.accept(new ChangeX("R", 25, 5));
+      ReadOnlyAnimatorModel changed = model.snapshot();
+      journal.accept(new ChangeX("R", 35, 7));
+      // the new keyframe leaves the one before it as it was
+      assertEquals(changed.shapeAt("R", 25), model.shapeAt("R", 25));
+      assertEquals(3, model.getKeyframes().get("R").size());
+
+      assertTrue(journal.canUndo());
+      journal.undo();
+      assertSameModel(changed, model);
+      journal.undo();
+      assertSameModel(before, model);
+      assertFalse(journal.canUndo());
+    }
+  }
+
+  @Test
+  public void undo_putsBackKeyframesRemovedTogether() {
+    for (AnimatorModel model : models()) {
+      UndoJournal journal = new UndoJournal(model);
+      for (int tick = 10; tick <= 20; tick += 5) {
+        model.createKeyframe("R", new Rectangle(new PosnImpl(tick, tick), 30, 40, Color.RED),
+            tick);
+      }
+      ReadOnlyAnimatorModel before = model.snapshot();
+
+      journal.accept(m -> m.removeKeyframes("R", new int[] {20, 10}));
+      ReadOnlyAnimatorModel removed = model.snapshot();
+      assertEquals(3, model.getKeyframes().get("R").size());
+      // removing all of a shape's keyframes deletes it
+      journal.accept(m -> m.removeKeyframes("E", new int[] {10, 30}));
+      assertFalse(model.getKeyframes().containsKey("E"));
+
+      journal.undo();
+      assertSameModel(removed, model);
+      assertTrue(model.getShapesInLayer("top").contains("E"));
+      journal.undo();
+      assertSameModel(before, model);
+      journal.redo();
+      assertSameModel(removed, model);
+    }
+  }
+
+  @Test
+  public void removeKeyframes_rejectsMissingTicksWithoutChangingTheModel() {
+    for (AnimatorModel model : models()) {
+      UndoJournal journal = new UndoJournal(model);
+      ReadOnlyAnimatorModel before = model.snapshot();
+      for (int[] ticks : new int[][] {{5, 6}, {5, 5}}) {
+        try {
+          journal.accept(m -> m.removeKeyframes("R", ticks));
+          fail("Expected the missing keyframe to be rejected");
+        } catch (IllegalArgumentException e) {
+          assertSameModel(before, model);
+        }
+      }
+      assertFalse(journal.canUndo());
+    }
+  }
+
+  @Test
+  public void undo_putsBackShapesAddedToAnotherLayer() {
+    for (AnimatorModel model : models()) {
+      UndoJournal journal = new UndoJournal(model);
+      ReadOnlyAnimatorModel before = model.snapshot();
+
+      // editing a shape from another layer adds it to the default layer
+      journal.accept(new ChangeX("E", 20, 55));
+      assertTrue(model.getShapesInLayer("default").contains("E"));
+
+      journal.undo();
+      assertSameModel(before, model);
+      assertFalse(model.getShapesInLayer("default").contains("E"));
+      journal.redo();
+      assertTrue(model.getShapesInLayer("default").contains("E"));
+    }
+  }
+
+  @Test
+  public void undo_putsBackLayersAndCanvas() {
+    for (AnimatorModel model : models()) {
+      UndoJournal journal = new UndoJournal(model);
+      model.addLayer("bottom");
+      model.moveLayerUp("bottom");
+      model.moveLayerUp("bottom");
+      model.createKeyframe("B", new Rectangle(new PosnImpl(3, 3), 3, 3, Color.RED), 4,
+          "bottom");
+      ReadOnlyAnimatorModel before = model.snapshot();
+
+      journal.accept(m -> {
+        m.setCanvasX(20);
+        m.setCanvasWidth(640);
+        m.moveLayerDown("top");
+        m.moveLayerUp("bottom");
+        m.deleteLayer("top");
+        m.addLayer("new");
+      });
+      assertEquals(Arrays.asList("bottom", "default", "new"),
+          new ArrayList<>(model.getLayers()));
+
+      journal.undo();
+      assertSameModel(before, model);
+      journal.redo();
+      assertEquals(640, model.getCanvasWidth());
+      assertFalse(model.getKeyframes().containsKey("E"));
+      journal.undo();
+      assertSameModel(before, model);
+    }
+  }
+
+  @Test
+  public void accept_forgetsUndoneActions() {
+    for (AnimatorModel model : models()) {
+      UndoJournal journal = new UndoJournal(model);
+      journal.accept(new ChangeX("R", 5, 7));
+      journal.undo();
+      assertTrue(journal.canRedo());
+
+      journal.accept(new ChangeX("R", 5, 8));
+      assertFalse(journal.canRedo());
+      assertFalse(journal.redo());
+      // moved from where it started, not from where the undone action moved it
+      assertEquals(9, model.shapeAt("R", 5).getPosition().getX(), 0.001);
+    }
+  }
+
+  @Test
+  public void memoryCap_forgetsOldestActionsFirst() {
+    for (AnimatorModel model : models()) {
+      UndoJournal unlimited = new UndoJournal(models()[0], Long.MAX_VALUE);
+      unlimited.accept(new ChangeX("R", 5, 100));
+      long oneEdit = unlimited.getMemoryUsed();
+
+      UndoJournal journal = new UndoJournal(model, oneEdit * 10);
+      List<ReadOnlyAnimatorModel> before = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        before.add(model.snapshot());
+        journal.accept(new ChangeX("R", 5, 100 + i));
+        assertTrue(journal.getMemoryUsed() <= oneEdit * 10);
+      }
+
+      int undone = 0;
+      while (journal.undo()) {
+        undone += 1;
+      }
+      assertEquals(10, undone);
+      // only the most recent actions could be undone
+      assertSameModel(before.get(90), model);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void undo_needsAJournal() {
+    AnimatorModel model = new AnimatorModelImpl();
+    new AnimatorActionConsumerImpl(model).accept(new Undo());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_rejectsNegativeCap() {
+    new UndoJournal(new AnimatorModelImpl(), -1);
+  }
+}
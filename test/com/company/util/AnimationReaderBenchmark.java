@@ -0,0 +1,136 @@
+package com.company.util;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Measures how fast {@link AnimationReader} parses animation files, in megabytes per second. The
+ * files are parsed into a builder that only counts what it is given, so that only the parsing is
+ * measured: once from text already in memory, and once by mapping the file.
+ *
+ * <p>Run from the project root with the files to parse as arguments, or with none to parse
+ * {@code big-bang-big-crunch.txt} and {@code toh-12.txt}.</p>
+ */
+public final class AnimationReaderBenchmark {
+  private static final int WARMUP_RUNS = 10;
+  private static final int MEASURED_RUNS = 20;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the files to parse
+   * @throws IOException if a file can't be read
+   */
+  public static void main(String[] args) throws IOException {
+    String[] files = args.length > 0 ? args : new String[]{"big-bang-big-crunch.txt", "toh-12.txt"};
+
+    for (String file : files) {
+      byte[] bytes = Files.readAllBytes(Paths.get(file));
+      String text = new String(bytes, StandardCharsets.UTF_8);
+
+      for (int i = 0; i < WARMUP_RUNS; i++) {
+        parse(text);
+      }
+      long start = System.nanoTime();
+      long motions = 0;
+      for (int i = 0; i < MEASURED_RUNS; i++) {
+        motions = parse(text);
+      }
+      report(file + " (in memory)", motions, bytes.length, System.nanoTime() - start);
+
+      for (int i = 0; i < WARMUP_RUNS; i++) {
+        parseMapped(file);
+      }
+      start = System.nanoTime();
+      for (int i = 0; i < MEASURED_RUNS; i++) {
+        motions = parseMapped(file);
+      }
+      report(file + " (mapped)", motions, bytes.length, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Prints the throughput of the measured runs.
+   *
+   * @param label   what was parsed
+   * @param motions the number of motions in each parse
+   * @param bytes   the size of the file
+   * @param nanos   the total time of the measured runs
+   */
+  private static void report(String label, long motions, long bytes, long nanos) {
+    double seconds = nanos / 1e9 / MEASURED_RUNS;
+    System.out.printf("%s: %d motions, %.1f ms per parse, %.1f MB/s%n", label, motions,
+        seconds * 1e3, bytes / seconds / 1e6);
+  }
+
+  /**
+   * Parses the given text.
+   *
+   * @param text the animation text
+   * @return the number of motions read
+   */
+  private static long parse(String text) {
+    return AnimationReader.parseFile(new StringReader(text), new CountingBuilder());
+  }
+
+  /**
+   * Parses the given file by mapping it.
+   *
+   * @param file the animation file
+   * @return the number of motions read
+   * @throws IOException if the file can't be read
+   */
+  private static long parseMapped(String file) throws IOException {
+    return AnimationReader.parseFile(Paths.get(file), new CountingBuilder());
+  }
+
+  /**
+   * A builder that counts the motions it is given, and ignores everything else.
+   */
+  private static class CountingBuilder implements AnimationBuilder<Long> {
+    private long motions = 0;
+
+    @Override
+    public Long build() {
+      return motions;
+    }
+
+    @Override
+    public AnimationBuilder<Long> setBounds(int x, int y, int width, int height) {
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Long> declareShape(String name, String type) {
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Long> declareShape(String name, String type, String layer) {
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Long> declareLayer(String layerName) {
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Long> addMotion(
+        String name,
+        int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1, double a1,
+        int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2, double a2) {
+      motions += 1;
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder<Long> addKeyframe(
+        String name, int t, int x, int y, int w, int h, int r, int g, int b, double a) {
+      return this;
+    }
+  }
+}
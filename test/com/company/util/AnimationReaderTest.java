@@ -0,0 +1,291 @@
+package com.company.util;
+
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.CompactAnimatorModel;
+import com.company.model.ConcurrentAnimatorModel;
+import com.company.model.Frame;
+import com.company.model.ReadOnlyAnimatorModel;
+import com.company.model.shape.PosnImpl;
+import com.company.model.shape.shapes.Ellipse;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for reading animations, checking that every way of reading a file gives the same model.
+ */
+public class AnimationReaderTest {
+  private static final String ANIMATION = "canvas 200 70 360 360\n"
+      + "# a comment with non-ASCII text: é中😀\n"
+      + "layer top\n"
+      + "shape Ré rectangle top\n"
+      + "shape 😀 ellipse\r\n"
+      + "motion Ré 1 200 200 50 100 255 0 0    10 200 200 50 100 255 0 0\n"
+      + "motion Ré 10 200 200 50 100 255 0 0 1.5 50 300 300 50 100 255 0 0 3\n"
+      + "motion 😀 6 440 70 120 60 0 0 255 # continued on the next line\n"
+      + "  20 440 70 120 60 0 0 255\r\n";
+
+  @Test
+  public void parseFile_mappedMatchesReadable() throws IOException {
+    Path file = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(file, ANIMATION.getBytes(StandardCharsets.UTF_8));
+
+      AnimatorModel read = AnimationReader.parseFile(new StringReader(ANIMATION),
+          new AnimatorModelImpl.Builder());
+      AnimatorModel mapped = AnimationReader.parseFile(file, new AnimatorModelImpl.Builder());
+
+      assertEquals(360, mapped.getCanvasWidth());
+      assertEquals(new ArrayList<>(read.getLayers()), new ArrayList<>(mapped.getLayers()));
+      assertEquals(read.getKeyframes(), mapped.getKeyframes());
+      assertEquals(read.shapesAt(8), mapped.shapesAt(8));
+      assertEquals(1.5, mapped.shapesAt(10).get("Ré").getShapeAngle(), 0.001);
+      assertEquals(2, mapped.getKeyframes().get("😀").size());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Writes an animation big enough to be parsed in several chunks to a temporary file.
+   *
+   * @param lastLine the last line of the file
+   * @return the file
+   * @throws IOException if the file can't be written
+   */
+  private static Path writeBigAnimation(String lastLine) throws IOException {
+    StringBuilder text = new StringBuilder(ANIMATION);
+    for (int tick = 20; tick < 30000; tick++) {
+      for (String shape : new String[]{"Ré", "😀"}) {
+        text.append("motion ").append(shape).append(' ').append(tick)
+            .append(" 1 2 3 4 0 0 255 ").append(tick + 1).append(" 5 6 7 8 ")
+            .append(tick % 256).append(" 0 255\n");
+      }
+      if (tick % 1000 == 0) {
+        text.append("# a comment\nmotion Ré ").append(tick)
+            .append(" 1 2 3 4 0 0 255\n\t").append(tick + 1).append(" 5 6 7 8 0 0 255\n");
+      }
+    }
+    text.append(lastLine);
+
+    Path file = Files.createTempFile("animation", ".txt");
+    Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  @Test
+  public void parseFileInParallel_matchesSequential() throws IOException {
+    Path file = writeBigAnimation("motion Ré 30000 1 2 3 4 0 0 255 30001 5 6 7 8 0 0 255\n");
+    try {
+      AnimatorModel sequential = AnimationReader.parseFile(file,
+          new CompactAnimatorModel.Builder());
+      AnimatorModel parallel = AnimationReader.parseFileInParallel(file,
+          new CompactAnimatorModel.Builder(), new ForkJoinPool(4));
+
+      assertEquals(new ArrayList<>(sequential.getLayers()),
+          new ArrayList<>(parallel.getLayers()));
+      assertEquals(sequential.getKeyframes(), parallel.getKeyframes());
+      assertEquals(30001, parallel.lastTick(), 0.001);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void parseFileInParallel_reportsSameError() throws IOException {
+    Path file = writeBigAnimation("motion Ré 30000 1 2 3 4 0 0 255 30001 5 6 oops 8 0 0 255\n");
+    try {
+      String expected = null;
+      try {
+        AnimationReader.parseFile(file, new CompactAnimatorModel.Builder());
+      } catch (IllegalStateException e) {
+        expected = e.getMessage();
+      }
+      try {
+        AnimationReader.parseFileInParallel(file, new CompactAnimatorModel.Builder(),
+            new ForkJoinPool(4));
+        fail("Expected the parallel reader to fail");
+      } catch (IllegalStateException e) {
+        assertEquals("Motion: expected integer for final width, got: oops", expected);
+        assertEquals(expected, e.getMessage());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void parseFile_badNumber() {
+    AnimationReader.parseFile(new StringReader("shape R rectangle\n"
+        + "motion R 1 200 200 50 100 255 0 0 10 200 2x0 50 100 255 0 0\n"),
+        new AnimatorModelImpl.Builder());
+  }
+
+  @Test
+  public void parseFileLazily_matchesEager() throws IOException {
+    Path file = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(file, ANIMATION.getBytes(StandardCharsets.UTF_8));
+
+      AnimatorModel eager = AnimationReader.parseFile(file, new AnimatorModelImpl.Builder());
+      AnimatorModel lazy = AnimationReader.parseFileLazily(file, new AnimatorModelImpl.Builder());
+
+      assertEquals(eager.firstTick(), lazy.firstTick(), 0.001);
+      assertEquals(eager.lastTick(), lazy.lastTick(), 0.001);
+      assertEquals(new ArrayList<>(eager.getLayers()), new ArrayList<>(lazy.getLayers()));
+      assertEquals(eager.getShapesInLayer("top"), lazy.getShapesInLayer("top"));
+      assertEquals(eager.shapesAt(8), lazy.shapesAt(8));
+      assertEquals(eager.getKeyframes(), lazy.getKeyframes());
+      assertEquals(2, lazy.getKeyframes().get("😀").size());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void parseFileLazily_editsUnreadShapes() throws IOException {
+    Path file = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(file, ANIMATION.getBytes(StandardCharsets.UTF_8));
+      AnimatorModel lazy = AnimationReader.parseFileLazily(file, new AnimatorModelImpl.Builder());
+
+      lazy.deleteShape("Ré");
+      lazy.removeKeyframe("😀", 20);
+      assertFalse(lazy.getKeyframes().containsKey("Ré"));
+      assertEquals(1, lazy.getKeyframes().get("😀").size());
+      assertEquals(Arrays.asList("😀"), new ArrayList<>(lazy.shapesAt(6).keySet()));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * The keyframes of a shape called "late", from tick 10 to tick 20, which counts how many times
+   * they are read.
+   */
+  private static class CountingSource implements KeyframeSource {
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Override
+    public int firstTick() {
+      return 10;
+    }
+
+    @Override
+    public int lastTick() {
+      return 20;
+    }
+
+    @Override
+    public void readInto(AnimationBuilder<?> keyframes) {
+      reads.incrementAndGet();
+      keyframes.addKeyframe("late", 10, 0, 0, 5, 5, 0, 0, 255, 0);
+      keyframes.addKeyframe("late", 20, 50, 50, 5, 5, 0, 0, 255, 0);
+    }
+  }
+
+  /**
+   * Builds a model with a shape whose keyframes are given, and the shape "late" whose keyframes are
+   * read from the given source.
+   */
+  private static AnimatorModel lazyModel(KeyframeSource late) {
+    AnimatorModelImpl.Builder builder = new AnimatorModelImpl.Builder();
+    builder.declareShape("early", "rectangle", "");
+    builder.declareShape("late", "ellipse", "");
+    builder.addKeyframe("early", 1, 0, 0, 10, 10, 255, 0, 0, 0);
+    builder.addKeyframe("early", 5, 0, 0, 10, 10, 255, 0, 0, 0);
+    builder.addLazyKeyframes("late", late);
+    return builder.build();
+  }
+
+  @Test
+  public void parseFileLazily_readsOnlyDrawnShapes() {
+    CountingSource late = new CountingSource();
+    AnimatorModel model = lazyModel(late);
+
+    assertEquals(20, model.lastTick(), 0.001);
+    assertEquals(1, model.shapesAt(3).size());
+    assertEquals(0, late.reads.get());
+    assertEquals(25, model.shapesAt(15).get("late").getPosition().getX(), 0.001);
+    assertEquals(2, model.getKeyframes().get("late").size());
+    assertEquals(1, late.reads.get());
+  }
+
+  @Test
+  public void parseFileLazily_snapshotsReadOnlyDrawnShapes() {
+    CountingSource late = new CountingSource();
+    AnimatorModel model = lazyModel(late);
+    ReadOnlyAnimatorModel snapshot = model.snapshot();
+    new ConcurrentAnimatorModel(model);
+    SortedSet<Frame> frozen = snapshot.getKeyframes().get("late");
+
+    assertEquals(1, snapshot.shapesAt(3).size());
+    assertEquals(1, snapshot.statesAt(3, new ArrayList<>()));
+    assertEquals(0, late.reads.get());
+
+    // the model reads the shape to change it, and the keyframes it shares with snapshots are
+    // read again for themselves, so the change can be made to them
+    model.createKeyframe("late", new Ellipse(new PosnImpl(0, 0), 1, 1, Color.RED), 15);
+    assertEquals(2, late.reads.get());
+    assertEquals(2, frozen.size());
+    assertEquals(25, snapshot.shapesAt(15).get("late").getPosition().getX(), 0.001);
+    assertEquals(3, model.snapshot().getKeyframes().get("late").size());
+    assertEquals(2, late.reads.get());
+  }
+
+  @Test
+  public void parseFileLazily_keyframesCanBeReadFromManyThreads() throws InterruptedException {
+    for (int attempt = 0; attempt < 20; attempt++) {
+      CountingSource late = new CountingSource();
+      AnimatorModel model = lazyModel(late);
+      ExecutorService pool = Executors.newFixedThreadPool(4);
+      List<Future<Frame>> firsts = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        firsts.add(pool.submit(() -> model.getKeyframes().get("late").first()));
+      }
+      pool.shutdown();
+      for (Future<Frame> first : firsts) {
+        try {
+          assertEquals(10, first.get().getTime(), 0.001);
+        } catch (ExecutionException e) {
+          throw new AssertionError(e.getCause());
+        }
+      }
+      assertEquals(1, late.reads.get());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void parseFileLazily_badNumber() throws IOException {
+    Path file = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(file, ("shape R rectangle\n"
+          + "motion R 1 200 200 50 100 255 0 0 10 200 2x0 50 100 255 0 0\n")
+          .getBytes(StandardCharsets.UTF_8));
+      AnimationReader.parseFileLazily(file, new AnimatorModelImpl.Builder());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.company.util;
+
+import com.company.model.AnimatorModel;
+import com.company.model.AnimatorModelImpl;
+import com.company.model.CompactAnimatorModel;
+import com.company.view.binary.BinaryAnimatorView;
+import com.company.view.text.TextAnimatorView;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the binary animation format, checking that an animation written in it reads back
+ * the same as the text format gives it.
+ */
+public class BinaryAnimationReaderTest {
+  private static final String ANIMATION = "canvas -20 70 360 360\n"
+      + "layer top\n"
+      + "shape Ré rectangle top\n"
+      + "shape 😀 ellipse\n"
+      + "shape R2 rectangle top\n"
+      + "motion Ré 1 200 200 50 100 255 0 0 0 10 200 200 50 100 255 0 0 0\n"
+      + "motion Ré 10 200 200 50 100 255 0 0 1.5 50 -300 300 50 100 0 128 7 3\n"
+      + "motion 😀 6 440 70 120 60 0 0 255 20 440 70 120 60 0 0 255\n"
+      + "motion R2 3 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15\n";
+
+  private static byte[] toBinary(AnimatorModel model) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BinaryAnimatorView(model).outputBinary(out);
+    return out.toByteArray();
+  }
+
+  private static String toText(AnimatorModel model) throws IOException {
+    StringBuilder out = new StringBuilder();
+    new TextAnimatorView(model).outputText(out);
+    return out.toString();
+  }
+
+  @Test
+  public void parseBuffer_readsBackWhatWasWritten() throws IOException {
+    AnimatorModel original = AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder());
+    byte[] bytes = toBinary(original);
+
+    AnimatorModel tree = BinaryAnimationReader.parseBuffer(ByteBuffer.wrap(bytes),
+        new AnimatorModelImpl.Builder());
+    AnimatorModel compact = BinaryAnimationReader.parseBuffer(ByteBuffer.wrap(bytes),
+        new CompactAnimatorModel.Builder());
+    for (AnimatorModel read : new AnimatorModel[]{tree, compact}) {
+      assertEquals(toText(original), toText(read));
+      assertEquals(-20, read.getCanvasX());
+      assertEquals(new ArrayList<>(original.getLayers()), new ArrayList<>(read.getLayers()));
+      assertEquals(original.getShapesInLayer("top"), read.getShapesInLayer("top"));
+      assertEquals(original.getKeyframes(), read.getKeyframes());
+      assertEquals(1.5, read.shapeAt("Ré", 10).getShapeAngle(), 0);
+    }
+    // written again, it is byte for byte the same
+    assertTrue(Arrays.equals(bytes, toBinary(tree)));
+  }
+
+  @Test
+  public void parseFile_readsMappedFile() throws IOException {
+    // shapes sliding along in steps, as most animations are
+    StringBuilder text = new StringBuilder("canvas 0 0 500 500\n");
+    for (int shape = 0; shape < 50; shape++) {
+      text.append("shape S").append(shape).append(" ellipse\n");
+      for (int tick = 0; tick < 200; tick += 10) {
+        text.append(String.format("motion S%d %d %d 30 20 20 0 %d 255 %d %d 30 20 20 0 %d 255%n",
+            shape, tick, tick + shape, shape, tick + 10, tick + shape + 10, shape));
+      }
+    }
+    AnimatorModel original = AnimationReader.parseFile(new StringReader(text.toString()),
+        new AnimatorModelImpl.Builder());
+    Path file = Files.createTempFile("animation", "." + BinaryAnimationReader.FILE_EXTENSION);
+    try {
+      Files.write(file, toBinary(original));
+      assertTrue(BinaryAnimationReader.isBinaryFile(file));
+      assertFalse(BinaryAnimationReader.isBinaryFile(Paths.get("animation.txt")));
+      assertTrue(Files.size(file) * 5 < toText(original).length());
+
+      AnimatorModel read = BinaryAnimationReader.parseFile(file, new AnimatorModelImpl.Builder());
+      assertEquals(toText(original), toText(read));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void parseBuffer_rejectsOtherFiles() {
+    BinaryAnimationReader.parseBuffer(ByteBuffer.wrap(ANIMATION.getBytes()),
+        new AnimatorModelImpl.Builder());
+  }
+
+  @Test
+  public void parseBuffer_rejectsDamagedFiles() throws IOException {
+    byte[] bytes = toBinary(AnimationReader.parseFile(new StringReader(ANIMATION),
+        new AnimatorModelImpl.Builder()));
+    for (int length = 4; length < bytes.length; length++) {
+      try {
+        BinaryAnimationReader.parseBuffer(ByteBuffer.wrap(bytes, 0, length),
+            new CompactAnimatorModel.Builder());
+        throw new AssertionError("Read an animation cut off after " + length + " bytes");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    }
+  }
+}